@@ -0,0 +1,38 @@
+package pro.sky.telegrambot;
+
+import lombok.*;
+
+import javax.persistence.*;
+import java.time.Instant;
+
+/**
+ * Отправленное напоминание, перенесённое из рабочей таблицы заданием хранения.
+ * Записи только добавляются и читаются при разборе истории, приложение их не изменяет.
+ */
+@Entity
+@Table(name = "reminders_archive")
+@Getter
+@Setter
+@NoArgsConstructor
+@ToString
+public class ArchivedReminder {
+
+    @Id
+    @Column(name = "id") //id исходного напоминания
+    private Long id;
+
+    @Column(name = "chat_id", nullable = false)
+    private Long chatId;
+
+    @Column(name = "message_text", nullable = false, length = 1000)
+    private String messageText;
+
+    @Column(name = "reminder_date_time", nullable = false) //момент срабатывания, UTC
+    private Instant reminderDateTime;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant created;
+
+    @Column(name = "recurrence", length = 100)
+    private String recurrence;
+}
@@ -0,0 +1,22 @@
+package pro.sky.telegrambot;
+
+import lombok.*;
+
+import javax.persistence.*;
+
+@Entity
+@Table(name = "chat_settings")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+public class ChatSettings {
+
+    @Id
+    @Column(name = "chat_id")
+    private Long chatId;
+
+    @Column(name = "time_zone", nullable = false, length = 64) //зона IANA, например Europe/Moscow
+    private String timeZone;
+}
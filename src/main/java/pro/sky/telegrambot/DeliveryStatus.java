@@ -0,0 +1,37 @@
+package pro.sky.telegrambot;
+
+/**
+ * Состояние доставки напоминания в таблице-outbox.
+ */
+public enum DeliveryStatus {
+
+    /**
+     * Ожидает первой попытки.
+     */
+    PENDING,
+
+    /**
+     * Отправляется узлом {@code claimedBy}; если он не отчитается до {@code claimedUntil}, доставку подхватит другой.
+     */
+    IN_FLIGHT,
+
+    /**
+     * Telegram подтвердил доставку.
+     */
+    SENT,
+
+    /**
+     * Не отправлялось: при догоне после простоя напоминание оказалось устаревшим.
+     */
+    SKIPPED,
+
+    /**
+     * Попытка не удалась, следующая не раньше {@code nextAttemptAt}.
+     */
+    FAILED,
+
+    /**
+     * Попытки исчерпаны, нужен разбор вручную.
+     */
+    DEAD
+}
@@ -3,10 +3,10 @@ package pro.sky.telegrambot;
 import lombok.*;
 
 import javax.persistence.*;
-import java.time.LocalDateTime;
+import java.time.Instant;
 
 @Entity
-@Table(name = "reminder")
+@Table(name = "reminders") //схема - в changelog Liquibase, Hibernate её только проверяет
 @Getter
 @Setter
 @NoArgsConstructor
@@ -14,8 +14,16 @@ import java.time.LocalDateTime;
 @ToString
 public class Reminder {
 
+    /**
+     * Шаг последовательности reminders_seq, должен совпадать с incrementBy в changelog.
+     */
+    public static final int ID_ALLOCATION_SIZE = 50;
+
+    // пул по 50 значений: Hibernate может собирать вставки в JDBC-пакеты, с IDENTITY это невозможно
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "reminders_seq")
+    @SequenceGenerator(name = "reminders_seq", sequenceName = "reminders_seq",
+            allocationSize = Reminder.ID_ALLOCATION_SIZE)
     private Long id;
 
     @Column(name = "chat_id", nullable = false)
@@ -24,21 +32,36 @@ public class Reminder {
     @Column(name = "message_text", nullable = false, length = 1000)
     private String messageText;
 
-    @Column(name = "reminder_date_time", nullable = false)
-    private LocalDateTime reminderDateTime;
+    @Column(name = "reminder_date_time", nullable = false) //момент срабатывания, UTC
+    private Instant reminderDateTime;
 
-    @Column(name = "created", nullable = false) //создан
-    private LocalDateTime created;
+    @Column(name = "created_at", nullable = false) //создан
+    private Instant created;
 
-    @Column(name = "sent", nullable = false) //отправлен
+    @Column(name = "is_sent", nullable = false) //отправлен
     private boolean sent;
 
-    public Reminder (Long chatId, String messageText, LocalDateTime reminderDateTime) {
+    @Column(name = "recurrence", length = 100) //cron-выражение в зоне чата, null - разовое
+    private String recurrence;
+
+    public Reminder (Long chatId, String messageText, Instant reminderDateTime) {
         this.chatId = chatId;
         this.messageText = messageText;
         this.reminderDateTime = reminderDateTime;
-        this.created = LocalDateTime.now();
+        this.created = Instant.now();
         this.sent = false;
     }
 
+    /**
+     * Ожидающее напоминание из проекции запроса: без даты создания и вне контекста персистентности,
+     * поэтому загрузка больших страниц не копит снимки сущностей для проверки изменений.
+     */
+    public Reminder(Long id, Long chatId, String messageText, Instant reminderDateTime, String recurrence) {
+        this.id = id;
+        this.chatId = chatId;
+        this.messageText = messageText;
+        this.reminderDateTime = reminderDateTime;
+        this.recurrence = recurrence;
+    }
+
 }
@@ -0,0 +1,73 @@
+package pro.sky.telegrambot;
+
+import lombok.*;
+
+import javax.persistence.*;
+import java.time.Instant;
+
+@Entity
+@Table(name = "reminder_deliveries", uniqueConstraints = //не больше одной доставки на срабатывание
+        @UniqueConstraint(name = "uk_reminder_deliveries_occurrence", columnNames = {"reminder_id", "reminder_date_time"}))
+@Getter
+@Setter
+@NoArgsConstructor
+@ToString
+public class ReminderDelivery {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "reminder_id", nullable = false)
+    private Long reminderId;
+
+    @Column(name = "chat_id", nullable = false)
+    private Long chatId;
+
+    @Column(name = "message_text", nullable = false, length = 1000)
+    private String messageText;
+
+    @Column(name = "reminder_date_time", nullable = false) //назначенный момент, для метрики опоздания
+    private Instant reminderDateTime;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 16)
+    private DeliveryStatus status;
+
+    @Column(name = "attempts", nullable = false) //неудачных попыток
+    private int attempts;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private Instant nextAttemptAt;
+
+    @Column(name = "claimed_by", length = 64) //узел, отправляющий сообщение
+    private String claimedBy;
+
+    @Column(name = "claimed_until") //срок аренды отправки
+    private Instant claimedUntil;
+
+    @Column(name = "last_error", length = 500)
+    private String lastError;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    @Column(name = "sent_at")
+    private Instant sentAt;
+
+    /**
+     * Доставка, сразу захваченная узлом {@code owner}: создаётся в той же транзакции,
+     * в которой напоминание помечается отправленным.
+     */
+    public ReminderDelivery(Reminder reminder, String owner, Instant now, Instant claimedUntil) {
+        this.reminderId = reminder.getId();
+        this.chatId = reminder.getChatId();
+        this.messageText = reminder.getMessageText();
+        this.reminderDateTime = reminder.getReminderDateTime();
+        this.status = DeliveryStatus.IN_FLIGHT;
+        this.nextAttemptAt = now;
+        this.claimedBy = owner;
+        this.claimedUntil = claimedUntil;
+        this.createdAt = now;
+    }
+}
@@ -0,0 +1,18 @@
+package pro.sky.telegrambot;
+
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * Итог импорта: сколько строк сохранено, сколько отклонено и причины первых отклонённых.
+ */
+@Value
+public class ReminderImportResult {
+
+    long imported;
+
+    long rejected;
+
+    List<String> errors;
+}
@@ -0,0 +1,26 @@
+package pro.sky.telegrambot;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Строка импорта и экспорта напоминаний (CSV и NDJSON).
+ * Время — момент ISO-8601 ({@code 2030-01-01T06:00:00Z}) или местное время чата {@code dd.MM.yyyy HH:mm}.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReminderRecord {
+
+    private Long chatId;
+
+    private String reminderDateTime;
+
+    private String messageText;
+
+    /**
+     * Cron-выражение повтора, пусто для разового напоминания.
+     */
+    private String recurrence;
+}
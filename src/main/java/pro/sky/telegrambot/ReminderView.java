@@ -0,0 +1,31 @@
+package pro.sky.telegrambot;
+
+import lombok.Value;
+
+import java.time.Instant;
+
+/**
+ * Компактная проекция напоминания для списка /my_tasks: только то, что показывается пользователю.
+ */
+@Value
+public class ReminderView {
+
+    Instant reminderDateTime;
+
+    String messageText;
+
+    /**
+     * Cron-выражение повтора или {@code null} для разового напоминания.
+     */
+    String recurrence;
+
+    public ReminderView(Instant reminderDateTime, String messageText, String recurrence) {
+        this.reminderDateTime = reminderDateTime;
+        this.messageText = messageText;
+        this.recurrence = recurrence;
+    }
+
+    public ReminderView(Instant reminderDateTime, String messageText) {
+        this(reminderDateTime, messageText, null);
+    }
+}
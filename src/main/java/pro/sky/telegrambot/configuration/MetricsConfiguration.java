@@ -0,0 +1,48 @@
+package pro.sky.telegrambot.configuration;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import pro.sky.telegrambot.service.MessageSender;
+import pro.sky.telegrambot.service.PendingRemindersCache;
+import pro.sky.telegrambot.service.ReminderDispatcher;
+import pro.sky.telegrambot.service.ReminderTimeline;
+import pro.sky.telegrambot.service.ReminderWriteBuffer;
+
+@Configuration
+public class MetricsConfiguration {
+
+    /**
+     * Глубина очередей считывается при каждом опросе Prometheus, на отправку сообщений это не влияет.
+     * Сервисы приходят ленивыми прокси: реестр применяет MeterBinder при собственной инициализации,
+     * а сервисы сами зависят от реестра через {@link pro.sky.telegrambot.service.BotMetrics}.
+     */
+    @Bean
+    public MeterBinder reminderQueueMetrics(@Lazy ReminderTimeline timeline,
+                                            @Lazy MessageSender messageSender,
+                                            @Lazy PendingRemindersCache pendingCache,
+                                            @Lazy ReminderWriteBuffer writeBuffer,
+                                            @Lazy ReminderDispatcher dispatcher) {
+        return registry -> {
+            Gauge.builder("reminders.scheduled", timeline, ReminderTimeline::size)
+                    .description("Все напоминания на временной шкале в памяти, включая будущие")
+                    .register(registry);
+            Gauge.builder("reminders.due.lag", timeline, t -> t.dueLag().toMillis() / 1000.0)
+                    .description("Сколько самое раннее наступившее напоминание ждёт диспетчера")
+                    .baseUnit("seconds")
+                    .register(registry);
+            Gauge.builder("telegram.outbound.queue", messageSender, MessageSender::queueSize)
+                    .description("Сообщения в очереди на отправку")
+                    .register(registry);
+            Gauge.builder("reminders.write_behind.queue", writeBuffer, ReminderWriteBuffer::size)
+                    .description("Новые напоминания, ожидающие пакетной записи в БД")
+                    .register(registry);
+            Gauge.builder("reminders.catch_up.remaining", dispatcher, ReminderDispatcher::catchUpRemaining)
+                    .description("Просроченные за время простоя напоминания, которые ещё предстоит догнать")
+                    .register(registry);
+            pendingCache.bindTo(registry, "pendingReminders");
+        };
+    }
+}
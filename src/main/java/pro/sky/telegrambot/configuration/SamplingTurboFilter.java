@@ -0,0 +1,39 @@
+package pro.sky.telegrambot.configuration;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.Marker;
+import org.slf4j.MarkerFactory;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Выборочное логирование событий, которые происходят на каждое обновление: из событий с маркером
+ * {@link #SAMPLED} проходит в среднем одно из {@code every}, остальные отбрасываются ещё до
+ * форматирования сообщения. Ошибки ({@code ERROR}) пропускаются всегда. Подключается в logback-spring.xml.
+ */
+public class SamplingTurboFilter extends TurboFilter {
+
+    public static final Marker SAMPLED = MarkerFactory.getMarker("SAMPLED");
+
+    private int every = 1;
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        if (marker == null || every <= 1 || !marker.contains(SAMPLED) || level == Level.ERROR) {
+            return FilterReply.NEUTRAL;
+        }
+        // случайная выборка вместо общего счётчика, чтобы полосы обновлений не спорили за одну переменную
+        return ThreadLocalRandom.current().nextInt(every) == 0 ? FilterReply.NEUTRAL : FilterReply.DENY;
+    }
+
+    public void setEvery(int every) {
+        this.every = every;
+    }
+
+    public int getEvery() {
+        return every;
+    }
+}
@@ -1,53 +1,148 @@
 package pro.sky.telegrambot.configuration;
 
+import com.pengrad.telegrambot.Callback;
 import com.pengrad.telegrambot.TelegramBot;
 import com.pengrad.telegrambot.model.DeleteMyCommands;
+import com.pengrad.telegrambot.response.BaseResponse;
+import lombok.extern.slf4j.Slf4j;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
 
-import java.util.logging.Logger;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
+@Slf4j
 @Configuration
 public class TelegramBotConfiguration {
 
     @Value("${telegram.bot.token}")
     private String token;
 
+    @Value("${telegram.bot.threads.virtual:false}")
+    private boolean virtualThreads;
+
+    /**
+     * Адрес Bot API вида {@code https://host/bot}; пусто - api.telegram.org. Позволяет подставить локальную заглушку.
+     */
+    @Value("${telegram.bot.http.api-url:}")
+    private String apiUrl;
+
+    @Value("${telegram.bot.http.max-idle-connections:64}")
+    private int maxIdleConnections = 64;
+
+    @Value("${telegram.bot.http.keep-alive:PT5M}")
+    private Duration keepAlive = Duration.ofMinutes(5);
+
+    @Value("${telegram.bot.http.http2:true}")
+    private boolean http2 = true;
+
+    @Value("${telegram.bot.http.connect-timeout:PT10S}")
+    private Duration connectTimeout = Duration.ofSeconds(10);
+
+    @Value("${telegram.bot.http.read-timeout:PT30S}")
+    private Duration readTimeout = Duration.ofSeconds(30);
+
+    @Value("${telegram.bot.http.write-timeout:PT30S}")
+    private Duration writeTimeout = Duration.ofSeconds(30);
+
+    /**
+     * Пусто - max-in-flight отправителя плюс один запрос на долгий опрос getUpdates.
+     */
+    @Value("${telegram.bot.http.max-requests-per-host:}")
+    private Integer maxRequestsPerHost;
+
+    @Value("${telegram.bot.sender.max-in-flight:64}")
+    private int maxInFlight = 64;
+
     @Bean
     public TelegramBot telegramBot() {
         validateToken(token);
 
-        TelegramBot bot = new TelegramBot(token);
-        System.out.println("Telegram-бот успешно инициализирован с помощью токена: " + maskToken(token));
-
-        clearBotCommands(bot);
+        TelegramBot.Builder builder = new TelegramBot.Builder(token).okHttpClient(httpClient());
+        if (apiUrl != null && !apiUrl.isBlank()) {
+            builder.apiUrl(apiUrl);
+        }
+        TelegramBot bot = builder.build();
+        log.info("Telegram-бот успешно инициализирован с помощью токена: {}", maskToken(token));
         return bot;
     }
 
-        private void validateToken(String token) {
+    /**
+     * Асинхронные вызовы Bot API (getUpdates, отправка из MessageSender) выполняются на диспетчере OkHttp.
+     * По умолчанию он пропускает лишь 5 запросов на хост, а пул держит 5 простаивающих соединений,
+     * поэтому при всплеске отправок запросы стояли в очереди диспетчера, а соединения закрывались
+     * и открывались заново. Лимиты согласованы с max-in-flight отправителя.
+     * <p>
+     * С виртуальными потоками каждый запрос получает свой поток и пул потоков подбирать не нужно.
+     */
+    OkHttpClient httpClient() {
+        int perHost = maxRequestsPerHost != null ? maxRequestsPerHost : maxInFlight + 1;
+        Dispatcher dispatcher = virtualThreads
+                ? new Dispatcher(VirtualThreads.newThreadPerTaskExecutor("telegram-api-"))
+                : new Dispatcher(Executors.newCachedThreadPool(VirtualThreads.factory("telegram-api-", false)));
+        // все запросы идут на один хост, общий лимит не должен быть строже лимита на хост
+        dispatcher.setMaxRequests(Math.max(perHost, dispatcher.getMaxRequests()));
+        dispatcher.setMaxRequestsPerHost(perHost);
+        return new OkHttpClient.Builder()
+                .dispatcher(dispatcher)
+                .connectionPool(new ConnectionPool(maxIdleConnections, keepAlive.toMillis(), TimeUnit.MILLISECONDS))
+                .protocols(http2 ? List.of(Protocol.HTTP_2, Protocol.HTTP_1_1) : List.of(Protocol.HTTP_1_1))
+                .connectTimeout(connectTimeout)
+                .readTimeout(readTimeout)
+                .writeTimeout(writeTimeout)
+                .build();
+    }
+
+    /**
+     * Очистка команд не нужна для работы бота, поэтому выполняется асинхронно после старта
+     * и не задерживает запуск, даже если Telegram недоступен.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void clearBotCommands(ApplicationReadyEvent event) {
+        clearBotCommands(event.getApplicationContext().getBean(TelegramBot.class));
+    }
+
+    private void validateToken(String token) {
         if (token == null || token.trim().isEmpty()) {
             throw new IllegalStateException("Токен Telegram-бота не настроен");
         }
         if (!token.matches("^\\d+:.*$")) {
             throw new IllegalStateException("Недопустимый формат токена Telegram-бота");
         }
-        }
+    }
 
-        private String maskToken(String token) {
+    private String maskToken(String token) {
         if (token.length() <= 10) {
             return "***";
         }
-        return token.substring(0,10) + "***";
-        }
+        return token.substring(0, 10) + "***";
+    }
 
-        private void clearBotCommands(TelegramBot bot) {
-        try {
-            bot.execute(new DeleteMyCommands());
-            System.out.println("Команды бота успешно обработаны");
-        } catch (Exception e) {
-            System.out.println("Предупреждение: Не удалось очистить команды бота - " +e.getMessage());
-        }
-        }
+    private void clearBotCommands(TelegramBot bot) {
+        bot.execute(new DeleteMyCommands(), new Callback<DeleteMyCommands, BaseResponse>() {
+            @Override
+            public void onResponse(DeleteMyCommands request, BaseResponse response) {
+                if (response.isOk()) {
+                    log.info("Команды бота очищены");
+                } else {
+                    log.warn("Не удалось очистить команды бота: {}", response.description());
+                }
+            }
 
+            @Override
+            public void onFailure(DeleteMyCommands request, IOException e) {
+                log.warn("Не удалось очистить команды бота: {}", e.getMessage());
+            }
+        });
+    }
 }
@@ -0,0 +1,44 @@
+package pro.sky.telegrambot.configuration;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.coyote.ProtocolHandler;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.task.TaskExecutorCustomizer;
+import org.springframework.boot.task.TaskSchedulerCustomizer;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Профиль {@code virtual} (JDK 21+): {@code @Scheduled}-задачи, асинхронные исполнители Spring и
+ * обработка HTTP-запросов (webhook, импорт) выполняются на виртуальных потоках. Полосы обновлений
+ * и вызовы Bot API переключает то же свойство в {@link TelegramBotConfiguration} и ChatLaneExecutor.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "telegram.bot.threads.virtual", havingValue = "true")
+public class ThreadingConfiguration {
+
+    public ThreadingConfiguration() {
+        if (!VirtualThreads.isSupported()) {
+            throw new IllegalStateException("telegram.bot.threads.virtual=true требует Java 21+, текущая версия "
+                    + System.getProperty("java.version"));
+        }
+        log.info("Виртуальные потоки включены");
+    }
+
+    @Bean
+    public TaskSchedulerCustomizer virtualThreadsTaskScheduler() {
+        return scheduler -> scheduler.setThreadFactory(VirtualThreads.factory("scheduling-", true));
+    }
+
+    @Bean
+    public TaskExecutorCustomizer virtualThreadsTaskExecutor() {
+        return executor -> executor.setThreadFactory(VirtualThreads.factory("task-", true));
+    }
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<ProtocolHandler> virtualThreadsTomcat() {
+        return handler -> handler.setExecutor(VirtualThreads.newThreadPerTaskExecutor("http-"));
+    }
+}
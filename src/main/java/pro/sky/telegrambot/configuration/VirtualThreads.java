@@ -0,0 +1,79 @@
+package pro.sky.telegrambot.configuration;
+
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Виртуальные потоки JDK 21 без перехода проекта на новый уровень языка: API вызывается через
+ * рефлексию, поэтому сборка остаётся на Java 11, а на старой JVM используются обычные потоки.
+ */
+public final class VirtualThreads {
+
+    // в JDK 19-20 метод есть, но без --enable-preview бросает исключение
+    private static final Method OF_VIRTUAL = Runtime.version().feature() >= 21 ? method(Thread.class, "ofVirtual") : null;
+
+    private VirtualThreads() {
+    }
+
+    /**
+     * JVM поддерживает виртуальные потоки (Java 21+).
+     */
+    public static boolean isSupported() {
+        return OF_VIRTUAL != null;
+    }
+
+    /**
+     * Фабрика потоков с именами {@code prefix0, prefix1, ...}: виртуальных, если {@code virtual} и JVM
+     * их поддерживает, иначе обычных.
+     *
+     * @throws IllegalStateException если виртуальные потоки запрошены, но JVM старше 21
+     */
+    public static ThreadFactory factory(String prefix, boolean virtual) {
+        if (!virtual) {
+            return new CustomizableThreadFactory(prefix);
+        }
+        requireSupported();
+        try {
+            // методы берутся у публичного интерфейса Thread.Builder.OfVirtual, реализация пакетная
+            Class<?> builderType = OF_VIRTUAL.getReturnType();
+            Object builder = OF_VIRTUAL.invoke(null);
+            builder = builderType.getMethod("name", String.class, long.class).invoke(builder, prefix, 0L);
+            return (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Не удалось создать фабрику виртуальных потоков", e);
+        }
+    }
+
+    /**
+     * Исполнитель «поток на задачу»: каждая задача получает собственный виртуальный поток,
+     * поэтому размер пула подбирать не нужно.
+     */
+    public static ExecutorService newThreadPerTaskExecutor(String prefix) {
+        ThreadFactory factory = factory(prefix, true);
+        try {
+            return (ExecutorService) Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class)
+                    .invoke(null, factory);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Не удалось создать исполнитель на виртуальных потоках", e);
+        }
+    }
+
+    private static void requireSupported() {
+        if (!isSupported()) {
+            throw new IllegalStateException("Виртуальные потоки требуют Java 21+, текущая версия "
+                    + System.getProperty("java.version"));
+        }
+    }
+
+    private static Method method(Class<?> type, String name) {
+        try {
+            return type.getMethod(name);
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+}
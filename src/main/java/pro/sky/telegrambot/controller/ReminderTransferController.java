@@ -0,0 +1,113 @@
+package pro.sky.telegrambot.controller;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import pro.sky.telegrambot.ReminderImportResult;
+import pro.sky.telegrambot.service.ReminderTransferService;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+/**
+ * Массовая загрузка и выгрузка напоминаний для руководителей команд и переноса между окружениями.
+ * Тело запроса и ответа передаются потоком и не накапливаются в памяти.
+ * Доступ по заголовку {@code X-Api-Key}; пока {@code telegram.bot.api-key} не задан, эндпоинты выключены.
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/reminders")
+public class ReminderTransferController {
+
+    static final String API_KEY_HEADER = "X-Api-Key";
+
+    static final String NDJSON = "application/x-ndjson";
+
+    static final String CSV = "text/csv";
+
+    private final ReminderTransferService transferService;
+
+    private final byte[] apiKey;
+
+    public ReminderTransferController(ReminderTransferService transferService,
+                                      @Value("${telegram.bot.api-key:}") String apiKey) {
+        this.transferService = transferService;
+        this.apiKey = apiKey.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @PostMapping(path = "/import", consumes = {CSV, NDJSON})
+    public ResponseEntity<ReminderImportResult> importReminders(
+            @RequestHeader(value = API_KEY_HEADER, required = false) String key,
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            InputStream body) throws IOException {
+        HttpStatus denied = checkAccess(key);
+        if (denied != null) {
+            return ResponseEntity.status(denied).build();
+        }
+        Reader reader = new InputStreamReader(body, StandardCharsets.UTF_8);
+        ReminderImportResult result = MediaType.valueOf(NDJSON).includes(MediaType.parseMediaType(contentType))
+                ? transferService.importNdjson(reader)
+                : transferService.importCsv(reader);
+        return ResponseEntity.ok(result);
+    }
+
+    /**
+     * Неотправленные напоминания чата в порядке срабатывания.
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportReminders(
+            @RequestHeader(value = API_KEY_HEADER, required = false) String key,
+            @RequestParam Long chatId,
+            @RequestParam(defaultValue = "csv") String format) {
+        HttpStatus denied = checkAccess(key);
+        if (denied != null) {
+            return ResponseEntity.status(denied).build();
+        }
+        boolean ndjson = "ndjson".equalsIgnoreCase(format);
+        if (!ndjson && !"csv".equalsIgnoreCase(format)) {
+            return ResponseEntity.badRequest().build();
+        }
+        StreamingResponseBody stream = out -> {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            if (ndjson) {
+                transferService.exportNdjson(chatId, writer);
+            } else {
+                transferService.exportCsv(chatId, writer);
+            }
+            writer.flush();
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType((ndjson ? NDJSON : CSV) + ";charset=UTF-8"))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=reminders-" + chatId + (ndjson ? ".ndjson" : ".csv"))
+                .body(stream);
+    }
+
+    private HttpStatus checkAccess(String key) {
+        if (apiKey.length == 0) {
+            return HttpStatus.NOT_FOUND;
+        }
+        if (key == null || !MessageDigest.isEqual(apiKey, key.getBytes(StandardCharsets.UTF_8))) {
+            log.warn("Запрос к API напоминаний с неверным ключом");
+            return HttpStatus.UNAUTHORIZED;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,51 @@
+package pro.sky.telegrambot.controller;
+
+import com.pengrad.telegrambot.BotUtils;
+import com.pengrad.telegrambot.model.Update;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+import pro.sky.telegrambot.service.TelegramBotService;
+
+/**
+ * Приём обновлений в режиме webhook: проверяет секрет, переданный Telegram при setWebhook,
+ * разбирает JSON, ставит обновление в очередь обработки и сразу отвечает Telegram, не дожидаясь ответа пользователю.
+ */
+@Slf4j
+@RestController
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "telegram.bot.mode", havingValue = "webhook")
+public class TelegramWebhookController {
+
+    private final TelegramBotService telegramBotService;
+
+    @PostMapping("${telegram.bot.webhook-path}")
+    public ResponseEntity<Void> receiveUpdate(
+            @RequestHeader(name = TelegramBotService.SECRET_TOKEN_HEADER, required = false) String secretToken,
+            @RequestBody String body) {
+        if (!telegramBotService.isWebhookSecretValid(secretToken)) {
+            log.warn("Отклонён запрос к webhook без верного секрета");
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        Update update;
+        try {
+            update = BotUtils.parseUpdate(body);
+        } catch (RuntimeException e) {
+            log.warn("Не удалось разобрать обновление: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+        if (update == null) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (!telegramBotService.submitUpdate(update)) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        return ResponseEntity.ok().build();
+    }
+}
@@ -8,6 +8,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import org.springframework.stereotype.Service;
+import pro.sky.telegrambot.configuration.SamplingTurboFilter;
 
 
 
@@ -28,7 +29,7 @@ public class TelegramBotUpdatesListener implements UpdatesListener {
     @Override
     public int process(List<Update> updates) {
         updates.forEach(update -> {
-            logger.info("Processing update: {}", update);
+            logger.debug(SamplingTurboFilter.SAMPLED, "Processing update update_id={}", update.updateId());
             // Process your updates here
         });
         return UpdatesListener.CONFIRMED_UPDATES_ALL;
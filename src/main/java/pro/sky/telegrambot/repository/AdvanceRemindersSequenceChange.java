@@ -0,0 +1,120 @@
+package pro.sky.telegrambot.repository;
+
+import liquibase.change.custom.CustomTaskChange;
+import liquibase.database.Database;
+import liquibase.database.core.H2Database;
+import liquibase.database.core.PostgresDatabase;
+import liquibase.database.jvm.JdbcConnection;
+import liquibase.exception.CustomChangeException;
+import liquibase.exception.ValidationErrors;
+import liquibase.resource.ResourceAccessor;
+import pro.sky.telegrambot.Reminder;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Переставляет reminders_seq за наибольший id в перечисленных таблицах: следующий блок Hibernate
+ * и пакетной вставки начнётся сразу после существующих строк. Значение последовательности - верхняя
+ * граница блока, поэтому следующее значение равно MAX(id) + {@link Reminder#ID_ALLOCATION_SIZE}.
+ * Назад последовательность не сдвигается: блоки, уже выданные работающим узлам, не повторятся.
+ * Отсутствующие таблицы пропускаются.
+ * <p>
+ * Параметры changeSet Liquibase привязывает только к свойствам с геттером и сеттером.
+ */
+public class AdvanceRemindersSequenceChange implements CustomTaskChange {
+
+    private static final String SEQUENCE = "reminders_seq";
+
+    private String tableNames;
+
+    private long nextValue;
+
+    public String getTableNames() {
+        return tableNames;
+    }
+
+    public void setTableNames(String tableNames) {
+        this.tableNames = tableNames;
+    }
+
+    @Override
+    public void execute(Database database) throws CustomChangeException {
+        if (tableNames == null || tableNames.isBlank()) {
+            throw new CustomChangeException("Не заданы tableNames");
+        }
+        Connection connection = ((JdbcConnection) database.getConnection()).getUnderlyingConnection();
+        try (Statement statement = connection.createStatement()) {
+            long maxId = 0;
+            for (String name : tableNames.split(",")) {
+                String table = name.trim();
+                if (tableExists(connection, table)) {
+                    try (ResultSet result = statement.executeQuery("SELECT COALESCE(MAX(id), 0) FROM " + table)) {
+                        result.next();
+                        maxId = Math.max(maxId, result.getLong(1));
+                    }
+                }
+            }
+            nextValue = Math.max(maxId + Reminder.ID_ALLOCATION_SIZE, currentNextValue(statement, database));
+            if (database instanceof PostgresDatabase) {
+                statement.execute("SELECT setval('" + SEQUENCE + "', " + nextValue + ", false)");
+            } else {
+                statement.execute("ALTER SEQUENCE " + SEQUENCE + " RESTART WITH " + nextValue);
+            }
+        } catch (SQLException e) {
+            throw new CustomChangeException("Не удалось передвинуть " + SEQUENCE, e);
+        }
+    }
+
+    // значение, которое вернёт следующий nextval; 0, если СУБД не умеет его показать
+    private static long currentNextValue(Statement statement, Database database) throws SQLException {
+        String query;
+        if (database instanceof PostgresDatabase) {
+            query = "SELECT CASE WHEN is_called THEN last_value + " + Reminder.ID_ALLOCATION_SIZE
+                    + " ELSE last_value END FROM " + SEQUENCE;
+        } else if (database instanceof H2Database) {
+            query = "SELECT BASE_VALUE FROM INFORMATION_SCHEMA.SEQUENCES WHERE SEQUENCE_NAME = '"
+                    + SEQUENCE.toUpperCase() + "'";
+        } else {
+            return 0;
+        }
+        try (ResultSet result = statement.executeQuery(query)) {
+            return result.next() ? result.getLong(1) : 0;
+        }
+    }
+
+    // H2 хранит имена без кавычек в верхнем регистре, PostgreSQL - в нижнем
+    private static boolean tableExists(Connection connection, String table) throws SQLException {
+        DatabaseMetaData metaData = connection.getMetaData();
+        for (String name : new String[]{table.toUpperCase(), table.toLowerCase()}) {
+            try (ResultSet tables = metaData.getTables(connection.getCatalog(), connection.getSchema(), name, null)) {
+                if (tables.next()) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public String getConfirmationMessage() {
+        return SEQUENCE + " продолжится с " + nextValue;
+    }
+
+    @Override
+    public void setUp() {
+    }
+
+    @Override
+    public void setFileOpener(ResourceAccessor resourceAccessor) {
+    }
+
+    // Liquibase может проверить изменение до того, как передаст параметры; их отсутствие ловит execute
+    @Override
+    public ValidationErrors validate(Database database) {
+        return new ValidationErrors();
+    }
+}
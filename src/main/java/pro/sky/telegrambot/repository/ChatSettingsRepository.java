@@ -0,0 +1,9 @@
+package pro.sky.telegrambot.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import pro.sky.telegrambot.ChatSettings;
+
+@Repository
+public interface ChatSettingsRepository extends JpaRepository<ChatSettings, Long> {
+}
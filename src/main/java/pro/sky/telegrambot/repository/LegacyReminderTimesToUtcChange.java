@@ -0,0 +1,115 @@
+package pro.sky.telegrambot.repository;
+
+import liquibase.change.custom.CustomTaskChange;
+import liquibase.database.Database;
+import liquibase.database.jvm.JdbcConnection;
+import liquibase.exception.CustomChangeException;
+import liquibase.exception.ValidationErrors;
+import liquibase.resource.ResourceAccessor;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+/**
+ * Переводит время напоминаний в таблице {@code reminder}, которую вела сущность до перехода
+ * на hibernate.jdbc.time_zone=UTC, из прежней зоны сервера в UTC. Правила зоны берутся из JDK,
+ * поэтому перевод одинаков на PostgreSQL и H2 и учитывает переходы на летнее время.
+ * Строки читаются страницами по id, чтобы не держать всю таблицу в памяти.
+ * <p>
+ * Зона приходит параметром changeSet, который Liquibase передаёт только свойству с геттером и сеттером.
+ */
+public class LegacyReminderTimesToUtcChange implements CustomTaskChange {
+
+    private static final int PAGE_SIZE = 1000;
+
+    private String legacyTimeZone;
+
+    private int converted;
+
+    public String getLegacyTimeZone() {
+        return legacyTimeZone;
+    }
+
+    public void setLegacyTimeZone(String legacyTimeZone) {
+        this.legacyTimeZone = legacyTimeZone;
+    }
+
+    @Override
+    public void execute(Database database) throws CustomChangeException {
+        if (legacyTimeZone == null) {
+            throw new CustomChangeException("Не задан legacyTimeZone");
+        }
+        ZoneId zone = ZoneId.of(legacyTimeZone);
+        Connection connection = ((JdbcConnection) database.getConnection()).getUnderlyingConnection();
+        try (PreparedStatement select = connection.prepareStatement(
+                "SELECT id, reminder_date_time, created FROM reminder WHERE id > ? ORDER BY id");
+             PreparedStatement update = connection.prepareStatement(
+                     "UPDATE reminder SET reminder_date_time = ?, created = ? WHERE id = ?")) {
+            select.setMaxRows(PAGE_SIZE);
+            long lastId = Long.MIN_VALUE;
+            int page;
+            do {
+                page = 0;
+                select.setLong(1, lastId);
+                try (ResultSet rows = select.executeQuery()) {
+                    while (rows.next()) {
+                        lastId = rows.getLong(1);
+                        update.setObject(1, toUtc(rows.getObject(2, LocalDateTime.class), zone));
+                        update.setObject(2, toUtc(rows.getObject(3, LocalDateTime.class), zone));
+                        update.setLong(3, lastId);
+                        update.addBatch();
+                        page++;
+                    }
+                }
+                if (page > 0) {
+                    update.executeBatch();
+                    converted += page;
+                }
+            } while (page == PAGE_SIZE);
+        } catch (SQLException e) {
+            throw new CustomChangeException("Не удалось перевести время напоминаний в UTC", e);
+        }
+    }
+
+    // несуществующее при переходе на летнее время сдвигается вперёд, неоднозначное берётся по раннему смещению
+    static LocalDateTime toUtc(LocalDateTime local, ZoneId zone) {
+        if (local == null) {
+            return null;
+        }
+        return local.atZone(zone).withZoneSameInstant(ZoneOffset.UTC).toLocalDateTime();
+    }
+
+    @Override
+    public String getConfirmationMessage() {
+        return "Время " + converted + " напоминаний переведено из " + legacyTimeZone + " в UTC";
+    }
+
+    @Override
+    public void setUp() {
+    }
+
+    @Override
+    public void setFileOpener(ResourceAccessor resourceAccessor) {
+    }
+
+    // Liquibase может проверить изменение до того, как передаст параметры: отсутствие зоны ловит execute
+    @Override
+    public ValidationErrors validate(Database database) {
+        ValidationErrors errors = new ValidationErrors();
+        if (legacyTimeZone == null) {
+            return errors;
+        }
+        try {
+            ZoneId.of(legacyTimeZone);
+        } catch (DateTimeException e) {
+            errors.addError("Неизвестный legacyTimeZone: " + legacyTimeZone);
+        }
+        return errors;
+    }
+}
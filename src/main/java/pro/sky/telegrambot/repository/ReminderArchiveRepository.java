@@ -0,0 +1,23 @@
+package pro.sky.telegrambot.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import pro.sky.telegrambot.ArchivedReminder;
+
+import java.util.Collection;
+
+@Repository
+public interface ReminderArchiveRepository extends JpaRepository<ArchivedReminder, Long> {
+
+    /**
+     * Копирует отправленные напоминания в архив одним INSERT ... SELECT, строки не проходят через приложение.
+     */
+    @Modifying
+    @Query("INSERT INTO ArchivedReminder (id, chatId, messageText, reminderDateTime, created, recurrence) " +
+            "SELECT r.id, r.chatId, r.messageText, r.reminderDateTime, r.created, r.recurrence " +
+            "FROM Reminder r WHERE r.id IN :ids AND r.sent = true")
+    int copyFromReminders(@Param("ids") Collection<Long> ids);
+}
@@ -0,0 +1,74 @@
+package pro.sky.telegrambot.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import pro.sky.telegrambot.DeliveryStatus;
+import pro.sky.telegrambot.ReminderDelivery;
+
+import javax.persistence.LockModeType;
+import javax.persistence.QueryHint;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ReminderDeliveryRepository extends JpaRepository<ReminderDelivery, Long> {
+
+    /**
+     * Доставки, среди которых есть срабатывания {@code (reminderId, reminderDateTime)} из пачки.
+     */
+    @Query("SELECT d FROM ReminderDelivery d WHERE d.reminderId IN :reminderIds AND d.reminderDateTime IN :times")
+    List<ReminderDelivery> findOccurrences(@Param("reminderIds") Collection<Long> reminderIds,
+                                           @Param("times") Collection<Instant> times);
+
+    /**
+     * Доставки, которым пора повторить попытку, и доставки с истёкшей арендой (узел упал, не отчитавшись).
+     * Как и {@link ReminderRepository#findClaimable}, пропускает строки, заблокированные другими узлами.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "javax.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT d FROM ReminderDelivery d " +
+            "WHERE (d.status IN :retryable AND d.nextAttemptAt <= :now) " +
+            "OR (d.status = :inFlight AND d.claimedUntil < :now) " +
+            "ORDER BY d.nextAttemptAt, d.id")
+    List<ReminderDelivery> findRetryable(@Param("retryable") Collection<DeliveryStatus> retryable,
+                                         @Param("inFlight") DeliveryStatus inFlight,
+                                         @Param("now") Instant now,
+                                         Pageable page);
+
+    /**
+     * Завершённые доставки, последняя попытка которых была раньше {@code cutoff}.
+     * Условие повторяет индекс (status, next_attempt_at).
+     */
+    @Query("SELECT d.id FROM ReminderDelivery d WHERE d.status IN :finished AND d.nextAttemptAt < :cutoff " +
+            "ORDER BY d.id")
+    List<Long> findFinishedIdsBefore(@Param("finished") Collection<DeliveryStatus> finished,
+                                     @Param("cutoff") Instant cutoff,
+                                     Pageable page);
+
+    @Modifying
+    @Query("DELETE FROM ReminderDelivery d WHERE d.id IN :ids")
+    int deleteByIds(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("UPDATE ReminderDelivery d SET d.status = :sent, d.sentAt = :now, d.claimedBy = NULL, " +
+            "d.claimedUntil = NULL, d.lastError = NULL WHERE d.id = :id AND d.status <> :sent")
+    int markSent(@Param("id") Long id, @Param("sent") DeliveryStatus sent, @Param("now") Instant now);
+
+    @Modifying
+    @Query("UPDATE ReminderDelivery d SET d.status = :status, d.attempts = :attempts, " +
+            "d.nextAttemptAt = :nextAttemptAt, d.lastError = :error, d.claimedBy = NULL, d.claimedUntil = NULL " +
+            "WHERE d.id = :id AND d.status = :inFlight")
+    int markFailed(@Param("id") Long id,
+                   @Param("inFlight") DeliveryStatus inFlight,
+                   @Param("status") DeliveryStatus status,
+                   @Param("attempts") int attempts,
+                   @Param("nextAttemptAt") Instant nextAttemptAt,
+                   @Param("error") String error);
+}
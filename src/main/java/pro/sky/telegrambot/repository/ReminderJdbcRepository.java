@@ -0,0 +1,148 @@
+package pro.sky.telegrambot.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+import pro.sky.telegrambot.Reminder;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Calendar;
+import java.util.List;
+import java.util.TimeZone;
+
+/**
+ * Массовые операции с напоминаниями в обход JPA: пакетная вставка (импорт, отложенная запись)
+ * и постраничное чтение экспорта.
+ * Весь нативный SQL по таблице напоминаний собран здесь. Время пишется и читается в UTC,
+ * так же как Hibernate с {@code hibernate.jdbc.time_zone=UTC}.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ReminderJdbcRepository {
+
+    // таблица и колонки сущности Reminder
+    private static final String TABLE = "reminders";
+    private static final String COLUMNS =
+            "id, chat_id, message_text, reminder_date_time, created_at, is_sent, recurrence";
+
+    private static final String INSERT = "INSERT INTO " + TABLE +
+            " (" + COLUMNS + ") VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String SEQUENCE = "reminders_seq";
+
+    // видимы в пакете: ReminderQueryPlanTest проверяет планы именно этих запросов
+    static final String SELECT_PENDING_FIRST = "SELECT " + COLUMNS + " FROM " + TABLE +
+            " WHERE chat_id = ? AND is_sent = FALSE ORDER BY reminder_date_time, id LIMIT ?";
+
+    static final String SELECT_PENDING_AFTER = "SELECT " + COLUMNS + " FROM " + TABLE +
+            " WHERE chat_id = ? AND is_sent = FALSE" +
+            " AND (reminder_date_time > ? OR (reminder_date_time = ? AND id > ?))" +
+            " ORDER BY reminder_date_time, id LIMIT ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private volatile String nextValueSql;
+
+    /**
+     * Вставляет напоминания одним JDBC-пакетом и проставляет им идентификаторы. На PostgreSQL
+     * с {@code reWriteBatchedInserts=true} драйвер превращает пакет в многострочные INSERT.
+     */
+    public void insertBatch(List<Reminder> reminders) {
+        long[] ids = allocateIds(reminders.size());
+        for (int i = 0; i < ids.length; i++) {
+            reminders.get(i).setId(ids[i]);
+        }
+        Calendar utc = utc();
+        jdbcTemplate.batchUpdate(INSERT, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                Reminder reminder = reminders.get(i);
+                ps.setLong(1, reminder.getId());
+                ps.setLong(2, reminder.getChatId());
+                ps.setString(3, reminder.getMessageText());
+                ps.setTimestamp(4, Timestamp.from(reminder.getReminderDateTime()), utc);
+                ps.setTimestamp(5, Timestamp.from(reminder.getCreated()), utc);
+                ps.setBoolean(6, reminder.isSent());
+                ps.setString(7, reminder.getRecurrence());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return reminders.size();
+            }
+        });
+    }
+
+    /**
+     * Keyset-страница неотправленных напоминаний чата в порядке (reminderDateTime, id), следующая за {@code after}.
+     */
+    public List<Reminder> findPendingPage(Long chatId, Reminder after, int limit) {
+        Calendar utc = utc();
+        RowMapper<Reminder> mapper = (rs, rowNum) -> {
+            Reminder reminder = new Reminder();
+            reminder.setId(rs.getLong("id"));
+            reminder.setChatId(rs.getLong("chat_id"));
+            reminder.setMessageText(rs.getString("message_text"));
+            reminder.setReminderDateTime(toInstant(rs.getTimestamp("reminder_date_time", utc)));
+            reminder.setCreated(toInstant(rs.getTimestamp("created_at", utc)));
+            reminder.setSent(rs.getBoolean("is_sent"));
+            reminder.setRecurrence(rs.getString("recurrence"));
+            return reminder;
+        };
+        if (after == null) {
+            return jdbcTemplate.query(SELECT_PENDING_FIRST, mapper, chatId, limit);
+        }
+        Timestamp afterTime = Timestamp.from(after.getReminderDateTime());
+        return jdbcTemplate.query(SELECT_PENDING_AFTER, ps -> {
+            ps.setLong(1, chatId);
+            ps.setTimestamp(2, afterTime, utc);
+            ps.setTimestamp(3, afterTime, utc);
+            ps.setLong(4, after.getId());
+            ps.setInt(5, limit);
+        }, mapper);
+    }
+
+    /**
+     * Берёт идентификаторы из reminders_seq так же, как пул Hibernate: значение последовательности -
+     * верхняя граница блока из {@link Reminder#ID_ALLOCATION_SIZE} идентификаторов. Поэтому блоки пакетной
+     * вставки и Hibernate не пересекаются, а остаток последнего блока просто пропускается.
+     */
+    long[] allocateIds(int count) {
+        long[] ids = new long[count];
+        int filled = 0;
+        while (filled < count) {
+            Long hi = jdbcTemplate.queryForObject(nextValueSql(), Long.class);
+            for (long id = hi - Reminder.ID_ALLOCATION_SIZE + 1; id <= hi && filled < count; id++) {
+                ids[filled++] = id;
+            }
+        }
+        return ids;
+    }
+
+    private String nextValueSql() {
+        String sql = nextValueSql;
+        if (sql == null) {
+            String product = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                    connection.getMetaData().getDatabaseProductName());
+            sql = "PostgreSQL".equals(product)
+                    ? "SELECT nextval('" + SEQUENCE + "')"
+                    : "SELECT NEXT VALUE FOR " + SEQUENCE;
+            nextValueSql = sql;
+        }
+        return sql;
+    }
+
+    private static Instant toInstant(Timestamp timestamp) {
+        return timestamp == null ? null : timestamp.toInstant();
+    }
+
+    private static Calendar utc() {
+        return Calendar.getInstance(TimeZone.getTimeZone("UTC"));
+    }
+}
@@ -1,21 +1,119 @@
 package pro.sky.telegrambot.repository;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import pro.sky.telegrambot.Reminder;
+import pro.sky.telegrambot.ReminderView;
 
-import java.time.LocalDateTime;
+import javax.persistence.LockModeType;
+import javax.persistence.QueryHint;
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface ReminderRepository extends JpaRepository<Reminder, Long> {
 
-    @Query("SELECT r FROM Reminder r WHERE r.reminderDateTime <= :currentTime AND r.sent = false")
-    List<Reminder> findRemindersForSending(@Param("currentTime") LocalDateTime currentTime);
+    String PENDING_PROJECTION = "SELECT new pro.sky.telegrambot.Reminder(" +
+            "r.id, r.chatId, r.messageText, r.reminderDateTime, r.recurrence) FROM Reminder r ";
 
-    List<Reminder> findByReminderDateTimeAndSentFalse(LocalDateTime dateTime);
+    /**
+     * Keyset-страница ожидающих напоминаний по времени, индекс {@code idx_reminders_pending_keyset}
+     * (на PostgreSQL частичный {@code idx_reminders_pending}). Возвращает проекции без {@code created_at},
+     * не управляемые JPA: они только планируются и отмечаются отправленными по идентификатору.
+     */
+    @Query(PENDING_PROJECTION + "WHERE r.sent = false ORDER BY r.reminderDateTime, r.id")
+    List<Reminder> findPendingPage(Pageable page);
 
-    List<Reminder> findByChatId(Long chatId);
+    @Query(PENDING_PROJECTION + "WHERE r.sent = false " +
+            "AND (r.reminderDateTime > :afterTime OR (r.reminderDateTime = :afterTime AND r.id > :afterId)) " +
+            "ORDER BY r.reminderDateTime, r.id")
+    List<Reminder> findPendingPageAfter(@Param("afterTime") Instant afterTime,
+                                        @Param("afterId") Long afterId,
+                                        Pageable page);
+
+    /**
+     * То же в обратном порядке, от новых к старым: тот же индекс читается с конца.
+     */
+    @Query(PENDING_PROJECTION + "WHERE r.sent = false " +
+            "AND (r.reminderDateTime < :beforeTime OR (r.reminderDateTime = :beforeTime AND r.id < :beforeId)) " +
+            "ORDER BY r.reminderDateTime DESC, r.id DESC")
+    List<Reminder> findPendingPageBefore(@Param("beforeTime") Instant beforeTime,
+                                         @Param("beforeId") Long beforeId,
+                                         Pageable page);
+
+    /**
+     * Неотправленные напоминания раньше {@code before}, сгруппированные по чатам: keyset по
+     * (chat_id, reminder_date_time, id). На PostgreSQL частичный {@code idx_reminders_chat_pending}
+     * отдаёт строки сразу в этом порядке, на H2 выборку обслуживает один из индексов ожидающих.
+     */
+    @Query(PENDING_PROJECTION + "WHERE r.sent = false AND r.reminderDateTime < :before " +
+            "ORDER BY r.chatId, r.reminderDateTime, r.id")
+    List<Reminder> findOverdueByChat(@Param("before") Instant before, Pageable page);
+
+    @Query(PENDING_PROJECTION + "WHERE r.sent = false AND r.reminderDateTime < :before " +
+            "AND (r.chatId > :afterChatId OR (r.chatId = :afterChatId AND (r.reminderDateTime > :afterTime " +
+            "OR (r.reminderDateTime = :afterTime AND r.id > :afterId)))) " +
+            "ORDER BY r.chatId, r.reminderDateTime, r.id")
+    List<Reminder> findOverdueByChatAfter(@Param("before") Instant before,
+                                          @Param("afterChatId") Long afterChatId,
+                                          @Param("afterTime") Instant afterTime,
+                                          @Param("afterId") Long afterId,
+                                          Pageable page);
+
+    @Query("SELECT COUNT(r) FROM Reminder r WHERE r.sent = false AND r.reminderDateTime <= :until")
+    long countPendingUntil(@Param("until") Instant until);
+
+    /**
+     * Наступившие напоминания. Таймаут блокировки -2 Hibernate превращает в FOR UPDATE SKIP LOCKED,
+     * поэтому параллельные узлы получают разные строки; в той же транзакции напоминания переходят в outbox.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "javax.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT r FROM Reminder r WHERE r.sent = false AND r.reminderDateTime <= :now " +
+            "ORDER BY r.reminderDateTime, r.id")
+    List<Reminder> findClaimable(@Param("now") Instant now, Pageable page);
+
+    @Modifying
+    @Query("UPDATE Reminder r SET r.sent = true WHERE r.id IN :ids AND r.sent = false")
+    int markSent(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Переносит повторяющееся напоминание на следующее срабатывание, новая строка не создаётся.
+     */
+    @Modifying
+    @Query("UPDATE Reminder r SET r.reminderDateTime = :next WHERE r.id = :id AND r.sent = false")
+    int reschedule(@Param("id") Long id, @Param("next") Instant next);
+
+    /**
+     * Отправленные напоминания старше {@code cutoff}, кандидаты в архив. На PostgreSQL идёт
+     * по частичному индексу {@code WHERE is_sent}, рабочий набор не затрагивается.
+     * Как и {@link #findClaimable}, пропускает строки, которые архивирует другой узел.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "javax.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT r FROM Reminder r WHERE r.sent = true AND r.reminderDateTime < :cutoff " +
+            "ORDER BY r.reminderDateTime, r.id")
+    List<Reminder> findArchivable(@Param("cutoff") Instant cutoff, Pageable page);
+
+    @Query("SELECT MIN(r.reminderDateTime) FROM Reminder r WHERE r.sent = true")
+    Instant findOldestSent();
+
+    @Modifying
+    @Query("DELETE FROM Reminder r WHERE r.id IN :ids AND r.sent = true")
+    int deleteSent(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Список /my_tasks по индексу {@code idx_reminders_chat_pending} (chat_id, is_sent, reminder_date_time, id).
+     */
+    @Query("SELECT new pro.sky.telegrambot.ReminderView(r.reminderDateTime, r.messageText, r.recurrence) FROM Reminder r " +
+            "WHERE r.chatId = :chatId AND r.sent = false ORDER BY r.reminderDateTime, r.id")
+    Slice<ReminderView> findPendingViews(@Param("chatId") Long chatId, Pageable page);
 }
@@ -0,0 +1,107 @@
+package pro.sky.telegrambot.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import pro.sky.telegrambot.DeliveryStatus;
+import pro.sky.telegrambot.Reminder;
+import pro.sky.telegrambot.repository.ReminderArchiveRepository;
+import pro.sky.telegrambot.repository.ReminderDeliveryRepository;
+import pro.sky.telegrambot.repository.ReminderRepository;
+
+import javax.transaction.Transactional;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Перенос отправленных напоминаний в архив и удаление завершённых доставок.
+ * Каждая пачка — отдельная короткая транзакция, чтобы не держать блокировки на рабочей таблице.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ArchiveService {
+
+    private static final Set<DeliveryStatus> FINISHED =
+            EnumSet.of(DeliveryStatus.SENT, DeliveryStatus.SKIPPED, DeliveryStatus.DEAD);
+
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyy_MM");
+
+    private final ReminderRepository reminderRepository;
+
+    private final ReminderArchiveRepository archiveRepository;
+
+    private final ReminderDeliveryRepository deliveryRepository;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // месяцы, для которых партиция уже создана (или создать её не удалось) в этом процессе
+    private final Set<YearMonth> partitions = ConcurrentHashMap.newKeySet();
+
+    /**
+     * @return количество перенесённых в архив напоминаний
+     */
+    @Transactional
+    public int archiveSentBefore(Instant cutoff, int batchSize) {
+        List<Reminder> batch = reminderRepository.findArchivable(cutoff, PageRequest.of(0, batchSize));
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        List<Long> ids = new ArrayList<>(batch.size());
+        for (Reminder reminder : batch) {
+            ids.add(reminder.getId());
+        }
+        archiveRepository.copyFromReminders(ids);
+        return reminderRepository.deleteSent(ids);
+    }
+
+    /**
+     * Удаляет отправленные и окончательно недоставленные доставки, последняя попытка которых была раньше {@code cutoff}.
+     *
+     * @return количество удалённых доставок
+     */
+    @Transactional
+    public int purgeDeliveriesBefore(Instant cutoff, int batchSize) {
+        List<Long> ids = deliveryRepository.findFinishedIdsBefore(FINISHED, cutoff, PageRequest.of(0, batchSize));
+        return ids.isEmpty() ? 0 : deliveryRepository.deleteByIds(ids);
+    }
+
+    public Instant oldestSent() {
+        return reminderRepository.findOldestSent();
+    }
+
+    /**
+     * Создаёт помесячные партиции архива (только PostgreSQL) для напоминаний с {@code from} по {@code to}.
+     * Если строки за месяц уже попали в партицию по умолчанию, PostgreSQL откажет в создании —
+     * такие строки остаются в ней, это не ошибка.
+     */
+    public void ensureArchivePartitions(Instant from, Instant to) {
+        YearMonth last = YearMonth.from(to.atZone(ZoneOffset.UTC));
+        for (YearMonth month = YearMonth.from(from.atZone(ZoneOffset.UTC)); !month.isAfter(last); month = month.plusMonths(1)) {
+            if (partitions.contains(month)) {
+                continue;
+            }
+            try {
+                jdbcTemplate.execute(String.format(
+                        "CREATE TABLE IF NOT EXISTS reminders_archive_%s PARTITION OF reminders_archive " +
+                                "FOR VALUES FROM ('%s') TO ('%s')",
+                        month.format(PARTITION_SUFFIX), month.atDay(1), month.plusMonths(1).atDay(1)));
+                log.info("Создана партиция архива за {}", month);
+            } catch (DataAccessException e) {
+                log.warn("Не удалось создать партицию архива за {}, строки останутся в партиции по умолчанию: {}",
+                        month, e.getMessage());
+            }
+            partitions.add(month);
+        }
+    }
+}
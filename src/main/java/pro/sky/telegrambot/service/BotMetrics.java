@@ -0,0 +1,107 @@
+package pro.sky.telegrambot.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Метрики жизненного цикла напоминаний и вызовов Bot API.
+ * Таймеры создаются один раз на набор тегов, на горячем пути остаётся только поиск в карте.
+ */
+@Component
+public class BotMetrics {
+
+    private final MeterRegistry registry;
+
+    private final ConcurrentMap<String, Timer> updateTimers = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Timer> apiTimers = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Counter> catchUpCounters = new ConcurrentHashMap<>();
+    private final Timer lateness;
+    private final Counter undelivered;
+    private final DistributionSummary writeBatchSize;
+    private final Timer writeFlush;
+    private final Timer writeAck;
+
+    public BotMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        this.lateness = Timer.builder("reminders.lateness")
+                .description("Задержка фактической отправки относительно времени напоминания")
+                .publishPercentileHistogram()
+                .register(registry);
+        this.undelivered = Counter.builder("reminders.undelivered")
+                .description("Напоминания, которые не удалось доставить в этом проходе")
+                .register(registry);
+        this.writeBatchSize = DistributionSummary.builder("reminders.write_behind.batch_size")
+                .description("Напоминаний в одной пакетной вставке отложенной записи")
+                .publishPercentileHistogram()
+                .register(registry);
+        this.writeFlush = Timer.builder("reminders.write_behind.flush")
+                .description("Время пакетной вставки с фиксацией транзакции")
+                .publishPercentileHistogram()
+                .register(registry);
+        this.writeAck = Timer.builder("reminders.write_behind.ack")
+                .description("Задержка от постановки напоминания в буфер до фиксации в БД")
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    /**
+     * @param command {@code start}, {@code my_tasks}, {@code reminder} или {@code callback}
+     */
+    public void recordUpdate(String command, long nanos) {
+        updateTimers.computeIfAbsent(command, tag -> Timer.builder("telegram.updates")
+                        .description("Время обработки обновления")
+                        .tag("command", tag)
+                        .publishPercentileHistogram()
+                        .register(registry))
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordApiCall(String method, boolean success, long nanos) {
+        String outcome = success ? "success" : "error";
+        apiTimers.computeIfAbsent(method + ':' + outcome, key -> Timer.builder("telegram.api.requests")
+                        .description("Вызовы Telegram Bot API")
+                        .tag("method", method)
+                        .tag("outcome", outcome)
+                        .publishPercentileHistogram()
+                        .register(registry))
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordDelivered(Instant reminderDateTime) {
+        Duration late = Duration.between(reminderDateTime, Instant.now());
+        lateness.record(late.isNegative() ? Duration.ZERO : late);
+    }
+
+    public void recordUndelivered(int count) {
+        undelivered.increment(count);
+    }
+
+    public void recordWriteFlush(int batchSize, long nanos) {
+        writeBatchSize.record(batchSize);
+        writeFlush.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordWriteAck(long nanos) {
+        writeAck.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * @param outcome {@code sent}, {@code skipped} или {@code summarized}
+     */
+    public void recordCatchUp(String outcome, int count) {
+        catchUpCounters.computeIfAbsent(outcome, tag -> Counter.builder("reminders.catch_up")
+                        .description("Напоминания, просроченные за время простоя и обработанные при догоне")
+                        .tag("outcome", tag)
+                        .register(registry))
+                .increment(count);
+    }
+}
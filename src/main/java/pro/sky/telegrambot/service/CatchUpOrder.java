@@ -0,0 +1,18 @@
+package pro.sky.telegrambot.service;
+
+/**
+ * Порядок отправки напоминаний, просроченных за время простоя ({@code telegram.bot.dispatcher.catch-up.order}).
+ * Задаёт направление чтения отставания по индексу (reminder_date_time, id).
+ */
+public enum CatchUpOrder {
+
+    /**
+     * Самые просроченные первыми: напоминания уходят в том порядке, в котором должны были.
+     */
+    OLDEST_FIRST,
+
+    /**
+     * Недавно наступившие первыми: пока они ещё актуальны, а давно просроченные подождут.
+     */
+    NEWEST_FIRST
+}
@@ -0,0 +1,63 @@
+package pro.sky.telegrambot.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import pro.sky.telegrambot.configuration.VirtualThreads;
+
+import javax.annotation.PreDestroy;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Фиксированный набор однопоточных полос обработки. Все задачи одного чата попадают
+ * в одну полосу и выполняются по порядку, разные чаты обрабатываются параллельно.
+ */
+@Component
+public class ChatLaneExecutor {
+
+    private final ExecutorService[] lanes;
+
+    public ChatLaneExecutor(int laneCount, int queueCapacity) {
+        this(laneCount, queueCapacity, false);
+    }
+
+    /**
+     * @param virtualThreads полосы на виртуальных потоках (JDK 21+): полоса, ждущая Bot API или БД,
+     *                       не занимает поток ОС, поэтому полос может быть на порядки больше
+     */
+    @Autowired
+    public ChatLaneExecutor(@Value("${telegram.bot.updates.lanes:8}") int laneCount,
+                            @Value("${telegram.bot.updates.queue-capacity:1000}") int queueCapacity,
+                            @Value("${telegram.bot.threads.virtual:false}") boolean virtualThreads) {
+        lanes = new ExecutorService[laneCount];
+        for (int i = 0; i < laneCount; i++) {
+            lanes[i] = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(queueCapacity),
+                    VirtualThreads.factory("update-lane-" + i + "-", virtualThreads),
+                    new ThreadPoolExecutor.AbortPolicy());
+        }
+    }
+
+    /**
+     * @throws RejectedExecutionException если очередь полосы переполнена
+     */
+    public CompletableFuture<Void> submit(Long chatId, Runnable task) {
+        return CompletableFuture.runAsync(task, lanes[laneOf(chatId)]);
+    }
+
+    private int laneOf(Long chatId) {
+        return chatId == null ? 0 : Math.floorMod(Long.hashCode(chatId), lanes.length);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        for (ExecutorService lane : lanes) {
+            lane.shutdown();
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package pro.sky.telegrambot.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import pro.sky.telegrambot.ChatSettings;
+import pro.sky.telegrambot.repository.ChatSettingsRepository;
+
+import java.time.DateTimeException;
+import java.time.Duration;
+import java.time.ZoneId;
+
+/**
+ * Часовой пояс чата. Пользователь вводит и видит местное время, в БД хранятся мгновения UTC.
+ * Зоны читаются на каждое сообщение, поэтому держатся в кэше. Кэш локален для узла: смена зоны
+ * через другой узел становится видна здесь не позже чем через {@code chat-zones.expire-after-write}.
+ */
+@Slf4j
+@Service
+public class ChatSettingsService {
+
+    private final ChatSettingsRepository repository;
+    private final ZoneId defaultZone;
+    private final Cache<Long, ZoneId> zones;
+
+    public ChatSettingsService(ChatSettingsRepository repository,
+                               @Value("${telegram.bot.default-time-zone:Europe/Moscow}") String defaultZone,
+                               @Value("${telegram.bot.cache.chat-zones.maximum-size:10000}") long maximumSize,
+                               @Value("${telegram.bot.cache.chat-zones.expire-after-write:PT1M}") Duration ttl) {
+        this.repository = repository;
+        this.defaultZone = ZoneId.of(defaultZone);
+        this.zones = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    public ZoneId zoneOf(Long chatId) {
+        return zones.get(chatId, id -> repository.findById(id)
+                .map(settings -> parseZone(settings.getTimeZone()))
+                .orElse(defaultZone));
+    }
+
+    /**
+     * @throws DateTimeException если зона не распознана
+     */
+    public ZoneId setZone(Long chatId, String zoneId) {
+        ZoneId zone = ZoneId.of(zoneId.trim());
+        repository.save(new ChatSettings(chatId, zone.getId()));
+        zones.put(chatId, zone);
+        return zone;
+    }
+
+    private ZoneId parseZone(String zoneId) {
+        try {
+            return ZoneId.of(zoneId);
+        } catch (DateTimeException e) {
+            log.warn("Неизвестный часовой пояс {} в настройках, используется {}", zoneId, defaultZone);
+            return defaultZone;
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package pro.sky.telegrambot.service;
+
+import lombok.Getter;
+import pro.sky.telegrambot.ReminderDelivery;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Одно исходящее сообщение и доставки, которые оно закрывает. Несколько наступивших напоминаний
+ * одного чата объединяются в одно сообщение: у Telegram лимит около одного сообщения в секунду
+ * на чат, и десяток отдельных сообщений растянулся бы на десяток секунд.
+ * Результат отправки по-прежнему записывается в каждую доставку отдельно.
+ */
+@Getter
+final class CoalescedMessage {
+
+    /**
+     * Предельная длина текста сообщения в Bot API.
+     */
+    static final int MAX_MESSAGE_LENGTH = 4096;
+
+    private static final String SINGLE_PREFIX = "Напоминание: ";
+    private static final String COMBINED_HEADER = "Напоминания:";
+    private static final String SUMMARY_HEADER = "Пока бот был недоступен, наступили напоминания:";
+    private static final String ITEM_PREFIX = "\n• ";
+
+    private final Long chatId;
+    private final String text;
+    private final List<ReminderDelivery> deliveries;
+
+    private CoalescedMessage(Long chatId, String text, List<ReminderDelivery> deliveries) {
+        this.chatId = chatId;
+        this.text = text;
+        this.deliveries = deliveries;
+    }
+
+    /**
+     * По сообщению на каждую доставку.
+     */
+    static List<CoalescedMessage> separate(List<ReminderDelivery> deliveries) {
+        List<CoalescedMessage> messages = new ArrayList<>(deliveries.size());
+        for (ReminderDelivery delivery : deliveries) {
+            messages.add(single(delivery));
+        }
+        return messages;
+    }
+
+    /**
+     * Группирует доставки по чату в порядке первого появления чата, внутри чата - по времени напоминания.
+     * Если текст не помещается в {@link #MAX_MESSAGE_LENGTH}, группа делится на несколько сообщений
+     * по границам напоминаний.
+     */
+    static List<CoalescedMessage> coalesce(List<ReminderDelivery> deliveries) {
+        return group(deliveries, COMBINED_HEADER, true);
+    }
+
+    /**
+     * Как {@link #coalesce}, но со сводным заголовком даже для одного напоминания: так уходят напоминания,
+     * устаревшие за время простоя бота.
+     */
+    static List<CoalescedMessage> summarize(List<ReminderDelivery> deliveries) {
+        return group(deliveries, SUMMARY_HEADER, false);
+    }
+
+    private static List<CoalescedMessage> group(List<ReminderDelivery> deliveries, String header, boolean singleAsIs) {
+        Map<Long, List<ReminderDelivery>> byChat = new LinkedHashMap<>();
+        for (ReminderDelivery delivery : deliveries) {
+            byChat.computeIfAbsent(delivery.getChatId(), chatId -> new ArrayList<>()).add(delivery);
+        }
+        List<CoalescedMessage> messages = new ArrayList<>(byChat.size());
+        for (List<ReminderDelivery> chat : byChat.values()) {
+            chat.sort(Comparator.comparing(ReminderDelivery::getReminderDateTime));
+            split(chat, header, singleAsIs, messages);
+        }
+        return messages;
+    }
+
+    private static void split(List<ReminderDelivery> chat, String header, boolean singleAsIs,
+                              List<CoalescedMessage> messages) {
+        List<ReminderDelivery> part = new ArrayList<>();
+        StringBuilder text = new StringBuilder(header);
+        for (ReminderDelivery delivery : chat) {
+            int itemLength = ITEM_PREFIX.length() + delivery.getMessageText().length();
+            if (!part.isEmpty() && text.length() + itemLength > MAX_MESSAGE_LENGTH) {
+                messages.add(combined(part, text, singleAsIs));
+                part = new ArrayList<>();
+                text.setLength(header.length());
+            }
+            part.add(delivery);
+            text.append(ITEM_PREFIX).append(delivery.getMessageText());
+        }
+        if (!part.isEmpty()) {
+            messages.add(combined(part, text, singleAsIs));
+        }
+    }
+
+    private static CoalescedMessage combined(List<ReminderDelivery> part, StringBuilder text, boolean singleAsIs) {
+        if (singleAsIs && part.size() == 1) {
+            return single(part.get(0));
+        }
+        return new CoalescedMessage(part.get(0).getChatId(), text.toString(), part);
+    }
+
+    private static CoalescedMessage single(ReminderDelivery delivery) {
+        return new CoalescedMessage(delivery.getChatId(), SINGLE_PREFIX + delivery.getMessageText(), List.of(delivery));
+    }
+}
@@ -0,0 +1,113 @@
+package pro.sky.telegrambot.service;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Потоковое чтение CSV по RFC 4180: запятая-разделитель, поля в двойных кавычках могут содержать
+ * запятые, переводы строк и удвоенные кавычки. В памяти держится только текущая запись.
+ */
+final class CsvReader {
+
+    private final Reader in;
+
+    private final char[] buffer = new char[8192];
+
+    private int position;
+
+    private int limit;
+
+    private long line = 1;
+
+    private long recordLine;
+
+    CsvReader(Reader in) {
+        this.in = in;
+    }
+
+    /**
+     * @return поля следующей записи или {@code null} в конце потока
+     * @throws IllegalArgumentException если кавычка не закрыта до конца потока
+     */
+    List<String> next() throws IOException {
+        if (peek() < 0) {
+            return null;
+        }
+        // метка порядка байтов, которую добавляет Excel
+        if (line == 1 && position == 0 && buffer[0] == '\uFEFF') {
+            position++;
+        }
+        recordLine = line;
+        List<String> fields = new ArrayList<>(4);
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        while (true) {
+            int c = read();
+            if (c < 0) {
+                if (quoted) {
+                    throw new IllegalArgumentException("Незакрытая кавычка");
+                }
+                fields.add(field.toString());
+                return fields;
+            }
+            if (quoted) {
+                if (c == '"') {
+                    if (peek() == '"') {
+                        position++;
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    if (c == '\n') {
+                        line++;
+                    }
+                    field.append((char) c);
+                }
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '"' && field.length() == 0) {
+                quoted = true;
+            } else if (c == '\n' || c == '\r') {
+                if (c == '\r' && peek() == '\n') {
+                    position++;
+                }
+                line++;
+                fields.add(field.toString());
+                return fields;
+            } else {
+                field.append((char) c);
+            }
+        }
+    }
+
+    /**
+     * Номер строки файла, с которой началась последняя прочитанная запись.
+     */
+    long recordLine() {
+        return recordLine;
+    }
+
+    private int read() throws IOException {
+        int c = peek();
+        if (c >= 0) {
+            position++;
+        }
+        return c;
+    }
+
+    private int peek() throws IOException {
+        if (position == limit) {
+            limit = in.read(buffer, 0, buffer.length);
+            position = 0;
+            if (limit <= 0) {
+                limit = 0;
+                return -1;
+            }
+        }
+        return buffer[position];
+    }
+}
@@ -0,0 +1,176 @@
+package pro.sky.telegrambot.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import pro.sky.telegrambot.DeliveryStatus;
+import pro.sky.telegrambot.Reminder;
+import pro.sky.telegrambot.ReminderDelivery;
+import pro.sky.telegrambot.repository.ReminderDeliveryRepository;
+import pro.sky.telegrambot.repository.ReminderRepository;
+
+import javax.transaction.Transactional;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Outbox доставок. Наступившее напоминание в одной транзакции помечается отправленным и получает
+ * строку доставки, дальше судьбу сообщения ведёт только она: каждая попытка фиксируется отдельно,
+ * неудачные повторяются с экспоненциальной задержкой, после {@code maxAttempts} доставка уходит в DEAD.
+ */
+@Slf4j
+@Service
+public class DeliveryService {
+
+    private static final int MAX_ERROR_LENGTH = 500;
+
+    private static final Set<DeliveryStatus> RETRYABLE = EnumSet.of(DeliveryStatus.PENDING, DeliveryStatus.FAILED);
+
+    private final ReminderDeliveryRepository deliveryRepository;
+    private final ReminderRepository reminderRepository;
+    private final ReminderService reminderService;
+    private final int maxAttempts;
+    private final Duration retryBase;
+    private final Duration retryMax;
+
+    public DeliveryService(ReminderDeliveryRepository deliveryRepository,
+                           ReminderRepository reminderRepository,
+                           ReminderService reminderService,
+                           @Value("${telegram.bot.outbox.max-attempts:5}") int maxAttempts,
+                           @Value("${telegram.bot.outbox.retry-base:PT30S}") Duration retryBase,
+                           @Value("${telegram.bot.outbox.retry-max:PT1H}") Duration retryMax) {
+        this.deliveryRepository = deliveryRepository;
+        this.reminderRepository = reminderRepository;
+        this.reminderService = reminderService;
+        this.maxAttempts = maxAttempts;
+        this.retryBase = retryBase;
+        this.retryMax = retryMax;
+    }
+
+    /**
+     * Переводит наступившие напоминания в outbox. Доставка создаётся на каждое срабатывание:
+     * уже поставленные в outbox срабатывания пропускаются, поэтому повторный вызов с тем же списком
+     * ничего не дублирует. Разовые напоминания отмечаются отправленными, повторяющиеся переносятся
+     * на следующее срабатывание.
+     *
+     * @return новые доставки, захваченные узлом {@code owner} до {@code now + lease}
+     */
+    @Transactional
+    public List<ReminderDelivery> enqueue(List<Reminder> due, String owner, Instant now, Duration lease) {
+        if (due.isEmpty()) {
+            return List.of();
+        }
+        List<Long> reminderIds = new ArrayList<>(due.size());
+        List<Instant> times = new ArrayList<>(due.size());
+        for (Reminder reminder : due) {
+            if (reminder.getId() != null) {
+                reminderIds.add(reminder.getId());
+                times.add(reminder.getReminderDateTime());
+            }
+        }
+        Set<Occurrence> existing = new HashSet<>();
+        if (!reminderIds.isEmpty()) {
+            // выборка по двум IN шире нужной, точное совпадение пары проверяется здесь
+            for (ReminderDelivery delivery : deliveryRepository.findOccurrences(reminderIds, times)) {
+                existing.add(new Occurrence(delivery.getReminderId(), delivery.getReminderDateTime()));
+            }
+        }
+
+        Instant claimedUntil = now.plus(lease);
+        List<ReminderDelivery> deliveries = new ArrayList<>(due.size());
+        for (Reminder reminder : due) {
+            if (reminder.getId() != null
+                    && !existing.contains(new Occurrence(reminder.getId(), reminder.getReminderDateTime()))) {
+                deliveries.add(new ReminderDelivery(reminder, owner, now, claimedUntil));
+            }
+        }
+        deliveryRepository.saveAll(deliveries);
+        // доставки уже хранят текст и время срабатывания, напоминание можно сдвигать
+        reminderService.completeDue(due, now);
+        return deliveries;
+    }
+
+    /**
+     * Захватывает наступившие напоминания и создаёт для них доставки в одной транзакции.
+     */
+    @Transactional
+    public List<ReminderDelivery> claimDue(String owner, Instant now, Duration lease, int limit) {
+        return enqueue(reminderRepository.findClaimable(now, PageRequest.of(0, limit)), owner, now, lease);
+    }
+
+    /**
+     * Захватывает доставки, которым пора повторить попытку, включая брошенные упавшими узлами.
+     */
+    @Transactional
+    public List<ReminderDelivery> claimRetries(String owner, Instant now, Duration lease, int limit) {
+        List<ReminderDelivery> deliveries = deliveryRepository.findRetryable(RETRYABLE, DeliveryStatus.IN_FLIGHT,
+                now, PageRequest.of(0, limit));
+        Instant claimedUntil = now.plus(lease);
+        for (ReminderDelivery delivery : deliveries) {
+            delivery.setStatus(DeliveryStatus.IN_FLIGHT);
+            delivery.setClaimedBy(owner);
+            delivery.setClaimedUntil(claimedUntil);
+        }
+        return deliveries;
+    }
+
+    @Transactional
+    public void markSent(ReminderDelivery delivery) {
+        deliveryRepository.markSent(delivery.getId(), DeliveryStatus.SENT, Instant.now());
+    }
+
+    /**
+     * Закрывает доставки без отправки: напоминания устарели за время простоя.
+     */
+    @Transactional
+    public void markSkipped(List<ReminderDelivery> deliveries) {
+        Instant now = Instant.now();
+        for (ReminderDelivery delivery : deliveries) {
+            deliveryRepository.markSent(delivery.getId(), DeliveryStatus.SKIPPED, now);
+        }
+    }
+
+    @Transactional
+    public void markFailed(ReminderDelivery delivery, Throwable error) {
+        int attempts = delivery.getAttempts() + 1;
+        Instant now = Instant.now();
+        DeliveryStatus status = attempts >= maxAttempts ? DeliveryStatus.DEAD : DeliveryStatus.FAILED;
+        Instant nextAttemptAt = status == DeliveryStatus.DEAD ? now : now.plus(backoff(attempts));
+
+        if (status == DeliveryStatus.DEAD) {
+            log.error("Напоминание {} не доставлено в чат {} за {} попыток: {}",
+                    delivery.getReminderId(), delivery.getChatId(), attempts, error.getMessage());
+        } else {
+            log.warn("Доставка напоминания {} не удалась (попытка {}), повтор в {}",
+                    delivery.getReminderId(), attempts, nextAttemptAt);
+        }
+        deliveryRepository.markFailed(delivery.getId(), DeliveryStatus.IN_FLIGHT, status, attempts,
+                nextAttemptAt, truncate(String.valueOf(error.getMessage())));
+    }
+
+    /**
+     * {@code retryBase * 2^(attempts - 1)}, но не больше {@code retryMax}.
+     */
+    Duration backoff(int attempts) {
+        Duration delay = retryBase.multipliedBy(1L << Math.min(attempts - 1, 20));
+        return delay.compareTo(retryMax) > 0 ? retryMax : delay;
+    }
+
+    private static String truncate(String message) {
+        return message.length() <= MAX_ERROR_LENGTH ? message : message.substring(0, MAX_ERROR_LENGTH);
+    }
+
+    @lombok.Value
+    private static class Occurrence {
+
+        Long reminderId;
+
+        Instant reminderDateTime;
+    }
+}
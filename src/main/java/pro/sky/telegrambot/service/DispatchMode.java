@@ -0,0 +1,18 @@
+package pro.sky.telegrambot.service;
+
+/**
+ * Способ выборки наступивших напоминаний ({@code telegram.bot.dispatcher.mode}).
+ */
+public enum DispatchMode {
+
+    /**
+     * Один узел: все ожидающие напоминания держатся в памяти в {@link ReminderTimeline}.
+     */
+    TIMELINE,
+
+    /**
+     * Несколько узлов на общей БД: каждый узел захватывает пачку строк через
+     * SELECT ... FOR UPDATE SKIP LOCKED и аренду (claimed_by, claimed_until).
+     */
+    CLAIM
+}
@@ -0,0 +1,289 @@
+package pro.sky.telegrambot.service;
+
+import com.pengrad.telegrambot.Callback;
+import com.pengrad.telegrambot.TelegramBot;
+import com.pengrad.telegrambot.request.SendMessage;
+import com.pengrad.telegrambot.response.SendResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Конвейер исходящих сообщений: ограниченная очередь, асинхронные вызовы Bot API
+ * и соблюдение лимитов Telegram (глобальный и на каждый чат) с повтором после 429.
+ * <p>
+ * У каждого чата своя полоса: в общую очередь по времени попадает только первое сообщение полосы,
+ * следующее планируется после его завершения. Поэтому сообщения в один чат уходят строго по порядку,
+ * в том числе при повторах, а пауза после 429 сдвигает все ожидающие сообщения чата.
+ */
+@Slf4j
+@Service
+public class MessageSender {
+
+    private static final int TOO_MANY_REQUESTS = 429;
+
+    private final TelegramBot telegramBot;
+    private final BotMetrics metrics;
+    private final double perChatRate;
+    private final int maxRetries;
+
+    private final DelayQueue<OutboundMessage> queue = new DelayQueue<>();
+    private final ConcurrentMap<Long, ChatLane> chatLanes = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final Semaphore capacity;
+    private final Semaphore inFlight;
+    private final TokenBucket globalBucket;
+
+    private Thread pump;
+
+    public MessageSender(TelegramBot telegramBot,
+                         BotMetrics metrics,
+                         @Value("${telegram.bot.sender.queue-capacity:10000}") int queueCapacity,
+                         @Value("${telegram.bot.sender.max-in-flight:64}") int maxInFlight,
+                         @Value("${telegram.bot.sender.global-rate:30}") double globalRate,
+                         @Value("${telegram.bot.sender.per-chat-rate:1}") double perChatRate,
+                         @Value("${telegram.bot.sender.max-retries:5}") int maxRetries) {
+        this.telegramBot = telegramBot;
+        this.metrics = metrics;
+        this.perChatRate = perChatRate;
+        this.maxRetries = maxRetries;
+        this.capacity = new Semaphore(queueCapacity);
+        this.inFlight = new Semaphore(maxInFlight);
+        this.globalBucket = new TokenBucket(globalRate, globalRate);
+    }
+
+    @PostConstruct
+    public void start() {
+        pump = new Thread(this::pump, "message-sender");
+        pump.setDaemon(true);
+        pump.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (pump != null) {
+            pump.interrupt();
+        }
+    }
+
+    /**
+     * Ставит сообщение в очередь. Если очередь заполнена, вызывающий поток ждёт освобождения места.
+     * Сообщения в один чат уходят в порядке постановки.
+     */
+    public CompletableFuture<Void> submit(Long chatId, String text) {
+        OutboundMessage message = new OutboundMessage(chatId, text, sequence.incrementAndGet());
+        try {
+            capacity.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            message.future.completeExceptionally(e);
+            return message.future;
+        }
+        queued.incrementAndGet();
+        // compute атомарен относительно удаления полосы в evictIdleChatLanes
+        chatLanes.compute(chatId, (id, lane) -> {
+            ChatLane target = lane != null ? lane : new ChatLane();
+            target.offer(message);
+            return target;
+        });
+        return message.future;
+    }
+
+    /**
+     * Сообщения, ещё ни разу не переданные в Bot API, включая ожидающие в полосах чатов.
+     */
+    public int queueSize() {
+        return queued.get();
+    }
+
+    @Scheduled(fixedDelayString = "${telegram.bot.sender.bucket-eviction-interval-ms:60000}")
+    public void evictIdleChatLanes() {
+        for (Long chatId : chatLanes.keySet()) {
+            chatLanes.computeIfPresent(chatId, (id, lane) -> lane.isIdle() ? null : lane);
+        }
+    }
+
+    /**
+     * Сообщение завершено (успешно или окончательно с ошибкой): полоса чата переходит к следующему.
+     */
+    private void finish(OutboundMessage message, Throwable error) {
+        chatLanes.computeIfPresent(message.chatId, (id, lane) -> {
+            lane.advance();
+            return lane;
+        });
+        if (error == null) {
+            message.future.complete(null);
+        } else {
+            message.future.completeExceptionally(error);
+        }
+    }
+
+    private void pump() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                OutboundMessage message = queue.take();
+                if (message.attempt == 0) {
+                    queued.decrementAndGet();
+                    capacity.release();
+                }
+                long wait = globalBucket.reserve();
+                if (wait > 0) {
+                    TimeUnit.NANOSECONDS.sleep(wait);
+                }
+                inFlight.acquire();
+                send(message);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void send(OutboundMessage message) {
+        long start = System.nanoTime();
+        try {
+            telegramBot.execute(new SendMessage(message.chatId, message.text), new Callback<SendMessage, SendResponse>() {
+                @Override
+                public void onResponse(SendMessage request, SendResponse response) {
+                    inFlight.release();
+                    metrics.recordApiCall("sendMessage", response.isOk(), System.nanoTime() - start);
+                    handleResponse(message, response);
+                }
+
+                @Override
+                public void onFailure(SendMessage request, IOException e) {
+                    inFlight.release();
+                    metrics.recordApiCall("sendMessage", false, System.nanoTime() - start);
+                    log.warn("Ошибка сети при отправке в чат {} (попытка {}): {}",
+                            message.chatId, message.attempt + 1, e.getMessage());
+                    retry(message, TimeUnit.SECONDS.toNanos(1L << Math.min(message.attempt, 6)), e);
+                }
+            });
+        } catch (RuntimeException e) {
+            inFlight.release();
+            log.error("Не удалось отправить сообщение в чат {}", message.chatId, e);
+            finish(message, e);
+        }
+    }
+
+    private void handleResponse(OutboundMessage message, SendResponse response) {
+        if (response.isOk()) {
+            finish(message, null);
+            return;
+        }
+        IllegalStateException error = new IllegalStateException(
+                "Telegram API ответил " + response.errorCode() + ": " + response.description());
+        if (response.errorCode() == TOO_MANY_REQUESTS) {
+            Integer retryAfter = response.parameters() != null ? response.parameters().retryAfter() : null;
+            long delay = TimeUnit.SECONDS.toNanos(retryAfter != null ? retryAfter : 1);
+            log.warn("Превышен лимит Telegram для чата {}, повтор через {} с", message.chatId,
+                    TimeUnit.NANOSECONDS.toSeconds(delay));
+            // retry_after относится к боту целиком: остальные чаты тоже ждут, а не получают новые 429
+            globalBucket.pause(delay);
+            chatLanes.computeIfPresent(message.chatId, (id, lane) -> {
+                lane.bucket.pause(delay);
+                return lane;
+            });
+            retry(message, delay, error);
+        } else {
+            log.error("Не удалось отправить сообщение в чат {}: {}", message.chatId, error.getMessage());
+            finish(message, error);
+        }
+    }
+
+    /**
+     * Повторяет то же сообщение: оно остаётся первым в полосе чата, следующие ждут его.
+     */
+    private void retry(OutboundMessage message, long delayNanos, Exception cause) {
+        if (++message.attempt > maxRetries) {
+            finish(message, cause);
+            return;
+        }
+        message.notBefore = System.nanoTime() + delayNanos;
+        queue.put(message);
+    }
+
+    /**
+     * Полоса одного чата. Состояние меняется только внутри {@code compute} по ключу чата.
+     */
+    private final class ChatLane {
+
+        private final TokenBucket bucket = new TokenBucket(perChatRate, 1);
+        private final Deque<OutboundMessage> waiting = new ArrayDeque<>();
+
+        // первое сообщение полосы в общей очереди или в Bot API
+        private boolean active;
+
+        private void offer(OutboundMessage message) {
+            if (active) {
+                waiting.addLast(message);
+            } else {
+                active = true;
+                schedule(message);
+            }
+        }
+
+        private void advance() {
+            OutboundMessage next = waiting.pollFirst();
+            if (next == null) {
+                active = false;
+            } else {
+                schedule(next);
+            }
+        }
+
+        private void schedule(OutboundMessage message) {
+            message.notBefore = System.nanoTime() + bucket.reserve();
+            queue.put(message);
+        }
+
+        private boolean isIdle() {
+            return !active && waiting.isEmpty() && bucket.isIdle();
+        }
+    }
+
+    private static final class OutboundMessage implements Delayed {
+
+        private final Long chatId;
+        private final String text;
+        private final long sequence;
+        private final CompletableFuture<Void> future = new CompletableFuture<>();
+
+        private volatile long notBefore;
+        private volatile int attempt;
+
+        private OutboundMessage(Long chatId, String text, long sequence) {
+            this.chatId = chatId;
+            this.text = text;
+            this.sequence = sequence;
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(notBefore - System.nanoTime(), TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            OutboundMessage that = (OutboundMessage) other;
+            int byTime = Long.compare(notBefore - that.notBefore, 0);
+            return byTime != 0 ? byTime : Long.compare(sequence, that.sequence);
+        }
+    }
+}
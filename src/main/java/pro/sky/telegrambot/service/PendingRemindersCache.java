@@ -0,0 +1,77 @@
+package pro.sky.telegrambot.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import pro.sky.telegrambot.ReminderView;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+/**
+ * Кэш первой страницы неотправленных напоминаний по чатам (W-TinyLFU, ограничен по размеру
+ * и времени жизни). Сбрасывается после фиксации каждого изменения набора напоминаний чата.
+ * <p>
+ * Кэш локален для узла и сбрасывается только своими изменениями. В режиме claim напоминание чата
+ * может создать или отправить другой узел, поэтому там запись живёт короткий
+ * {@code claim-expire-after-write}: столько /my_tasks может показывать устаревший список.
+ */
+@Component
+public class PendingRemindersCache {
+
+    private final Cache<Long, Slice<ReminderView>> cache;
+
+    public PendingRemindersCache(long maximumSize, Duration ttl) {
+        this(maximumSize, ttl, DispatchMode.TIMELINE, ttl);
+    }
+
+    @Autowired
+    public PendingRemindersCache(@Value("${telegram.bot.cache.pending-reminders.maximum-size:10000}") long maximumSize,
+                                 @Value("${telegram.bot.cache.pending-reminders.expire-after-write:PT10M}") Duration ttl,
+                                 @Value("${telegram.bot.dispatcher.mode:timeline}") DispatchMode mode,
+                                 @Value("${telegram.bot.cache.pending-reminders.claim-expire-after-write:PT5S}")
+                                 Duration claimTtl) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(mode == DispatchMode.CLAIM ? claimTtl : ttl)
+                .recordStats()
+                .build();
+    }
+
+    public Slice<ReminderView> get(Long chatId, Function<Long, Slice<ReminderView>> loader) {
+        return cache.get(chatId, loader);
+    }
+
+    /**
+     * Внутри транзакции сброс откладывается до её фиксации: сброшенная раньше запись успела бы
+     * заново загрузиться из ещё не изменённых строк и прожила бы до истечения TTL.
+     */
+    public void invalidate(Long chatId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            cache.invalidate(chatId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                cache.invalidate(chatId);
+            }
+        });
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    public void bindTo(MeterRegistry registry, String cacheName) {
+        CaffeineCacheMetrics.monitor(registry, cache, cacheName);
+    }
+}
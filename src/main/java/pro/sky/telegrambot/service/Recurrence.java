@@ -0,0 +1,125 @@
+package pro.sky.telegrambot.service;
+
+import lombok.Value;
+import org.springframework.scheduling.support.CronExpression;
+
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+
+/**
+ * Повторяющиеся напоминания. Расписание хранится как cron-выражение Spring
+ * ({@code сек мин час день месяц день_недели}) в местном времени чата, а в таблице лежит
+ * только ближайшее срабатывание: после отправки оно сдвигается на следующее.
+ * <p>
+ * Повтор задаётся первым словом текста после даты:
+ * <ul>
+ *     <li>{@code ежедневно} — каждый день в то же время;</li>
+ *     <li>{@code по будням} — с понедельника по пятницу;</li>
+ *     <li>{@code еженедельно} — в тот же день недели;</li>
+ *     <li>{@code ежемесячно} — в то же число, 31-е означает последний день месяца;</li>
+ *     <li>{@code cron(0 0 9 * * MON-FRI)} — произвольное выражение.</li>
+ * </ul>
+ */
+public final class Recurrence {
+
+    private static final String DAILY = "ежедневно";
+    private static final String WEEKDAYS = "по будням";
+    private static final String WEEKLY = "еженедельно";
+    private static final String MONTHLY = "ежемесячно";
+    private static final String CRON_PREFIX = "cron(";
+
+    private static final int MAX_EXPRESSION_LENGTH = 100;
+
+    private Recurrence() {
+    }
+
+    /**
+     * Отделяет признак повтора от текста напоминания.
+     *
+     * @param text  текст после даты
+     * @param first первое срабатывание в местном времени чата, от него берутся время, день недели и число
+     * @return расписание и оставшийся текст; для разового напоминания расписание {@code null};
+     * {@code null}, если признак повтора есть, но выражение неверно или текст после него пуст
+     */
+    public static Parsed extract(String text, LocalDateTime first) {
+        String cron;
+        int textStart;
+        if (startsWithWord(text, DAILY)) {
+            cron = cron(first, "*", "*");
+            textStart = DAILY.length();
+        } else if (startsWithWord(text, WEEKDAYS)) {
+            cron = cron(first, "*", "MON-FRI");
+            textStart = WEEKDAYS.length();
+        } else if (startsWithWord(text, WEEKLY)) {
+            cron = cron(first, "*", dayOfWeek(first.getDayOfWeek()));
+            textStart = WEEKLY.length();
+        } else if (startsWithWord(text, MONTHLY)) {
+            // в коротких месяцах 29-го и 30-го нет, такие месяцы пропускаются, как и в cron
+            int day = first.getDayOfMonth();
+            cron = cron(first, day == 31 ? "L" : Integer.toString(day), "*");
+            textStart = MONTHLY.length();
+        } else if (text.regionMatches(true, 0, CRON_PREFIX, 0, CRON_PREFIX.length())) {
+            int close = text.indexOf(')', CRON_PREFIX.length());
+            if (close < 0) {
+                return null;
+            }
+            cron = text.substring(CRON_PREFIX.length(), close).trim();
+            if (!isValid(cron)) {
+                return null;
+            }
+            textStart = close + 1;
+        } else {
+            return new Parsed(null, text);
+        }
+
+        String rest = text.substring(textStart).trim();
+        return rest.isEmpty() ? null : new Parsed(cron, rest);
+    }
+
+    /**
+     * Выражение помещается в колонку и разбирается {@link CronExpression}.
+     */
+    public static boolean isValid(String cron) {
+        return cron.length() <= MAX_EXPRESSION_LENGTH && CronExpression.isValidExpression(cron);
+    }
+
+    /**
+     * Следующее срабатывание строго после {@code after} в зоне чата.
+     *
+     * @return {@code null}, если расписание больше не срабатывает
+     */
+    public static Instant next(String cron, Instant after, ZoneId zone) {
+        ZonedDateTime next = CronExpression.parse(cron).next(after.atZone(zone));
+        return next == null ? null : next.toInstant();
+    }
+
+    private static String cron(LocalDateTime first, String dayOfMonth, String dayOfWeek) {
+        return first.getSecond() + " " + first.getMinute() + " " + first.getHour() + " "
+                + dayOfMonth + " * " + dayOfWeek;
+    }
+
+    private static String dayOfWeek(DayOfWeek day) {
+        return day.name().substring(0, 3);
+    }
+
+    private static boolean startsWithWord(String text, String word) {
+        int length = word.length();
+        return text.length() > length
+                && text.regionMatches(true, 0, word, 0, length)
+                && Character.isWhitespace(text.charAt(length));
+    }
+
+    @Value
+    public static class Parsed {
+
+        /**
+         * Cron-выражение или {@code null} для разового напоминания.
+         */
+        String cron;
+
+        String text;
+    }
+}
@@ -0,0 +1,473 @@
+package pro.sky.telegrambot.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import pro.sky.telegrambot.Reminder;
+import pro.sky.telegrambot.ReminderDelivery;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ReminderDispatcher {
+
+    private final ReminderTimeline timeline;
+    private final ReminderService reminderService;
+    private final DeliveryService deliveryService;
+    private final MessageSender messageSender;
+    private final BotMetrics metrics;
+
+    @Value("${telegram.bot.dispatcher.batch-size:100}")
+    private int batchSize = 100;
+
+    @Value("${telegram.bot.dispatcher.mode:timeline}")
+    private DispatchMode mode = DispatchMode.TIMELINE;
+
+    @Value("${telegram.bot.dispatcher.node-id:}")
+    private String nodeId;
+
+    @Value("${telegram.bot.dispatcher.claim-lease:PT5M}")
+    private Duration claimLease = Duration.ofMinutes(5);
+
+    @Value("${telegram.bot.dispatcher.claim-interval-ms:1000}")
+    private long claimIntervalMs = 1000;
+
+    @Value("${telegram.bot.dispatcher.coalesce.enabled:false}")
+    private boolean coalesce;
+
+    @Value("${telegram.bot.dispatcher.coalesce.window:PT0S}")
+    private Duration coalesceWindow = Duration.ZERO;
+
+    @Value("${telegram.bot.dispatcher.catch-up.order:oldest-first}")
+    private CatchUpOrder catchUpOrder = CatchUpOrder.OLDEST_FIRST;
+
+    /**
+     * Напоминаний в секунду при догоне; остаток общего лимита отправителя остаётся наступающим напоминаниям.
+     */
+    @Value("${telegram.bot.dispatcher.catch-up.rate:10}")
+    private double catchUpRate = 10;
+
+    /**
+     * Просрочка, после которой напоминание считается устаревшим; {@code PT0S} - не устаревают.
+     */
+    @Value("${telegram.bot.dispatcher.catch-up.stale-after:PT0S}")
+    private Duration staleAfter = Duration.ZERO;
+
+    @Value("${telegram.bot.dispatcher.catch-up.stale-action:send}")
+    private StaleAction staleAction = StaleAction.SEND;
+
+    /**
+     * Задержка перед повторной передачей наступивших напоминаний в outbox после ошибки БД;
+     * удваивается с каждой ошибкой подряд, но не больше {@code retry-max}.
+     */
+    @Value("${telegram.bot.dispatcher.retry-base:PT1S}")
+    private Duration retryBase = Duration.ofSeconds(1);
+
+    @Value("${telegram.bot.dispatcher.retry-max:PT1M}")
+    private Duration retryMax = Duration.ofMinutes(1);
+
+    // ошибок передачи в outbox подряд, меняется только потоком диспетчера
+    private int dispatchFailures;
+
+    private final CompletableFuture<Void> loaded = new CompletableFuture<>();
+
+    private final AtomicInteger catchUpRemaining = new AtomicInteger();
+
+    private Thread worker;
+
+    private Thread catchUpWorker;
+
+    @PostConstruct
+    public void start() {
+        if (nodeId == null || nodeId.isBlank()) {
+            nodeId = UUID.randomUUID().toString();
+        }
+        worker = new Thread(this::run, "reminder-dispatcher");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (worker != null) {
+            worker.interrupt();
+        }
+        if (catchUpWorker != null) {
+            catchUpWorker.interrupt();
+        }
+    }
+
+    /**
+     * Сколько просроченных за время простоя напоминаний ещё не обработано.
+     */
+    public int catchUpRemaining() {
+        return catchUpRemaining.get();
+    }
+
+    /**
+     * Ждёт, пока ожидающие напоминания будут загружены из БД в очередь по времени
+     * (в режиме захвата загружать нечего).
+     *
+     * @return {@code false}, если загрузка не закончилась за {@code timeout}
+     */
+    public boolean awaitLoaded(Duration timeout) throws InterruptedException {
+        try {
+            loaded.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+            return true;
+        } catch (TimeoutException e) {
+            return false;
+        } catch (ExecutionException e) {
+            return true;
+        }
+    }
+
+    /**
+     * Читает будущие неотправленные напоминания страницами по {@code batchSize} в очередь по времени.
+     * Просроченные за время простоя только подсчитываются: их по страницам прочитает {@link #catchUp}.
+     *
+     * @return граница просрочки: напоминания не позже неё догоняются, более поздние уже в очереди
+     */
+    Instant loadPending() {
+        Instant now = Instant.now();
+        long overdue = reminderService.countPendingUntil(now);
+        int scheduled = 0;
+
+        List<Reminder> page = reminderService.getPendingPage(cursor(now, Long.MAX_VALUE), batchSize);
+        while (!page.isEmpty()) {
+            for (Reminder reminder : page) {
+                timeline.schedule(reminder);
+                scheduled++;
+            }
+            if (page.size() < batchSize) {
+                break;
+            }
+            page = reminderService.getPendingPage(page.get(page.size() - 1), batchSize);
+        }
+        catchUpRemaining.set((int) Math.min(overdue, Integer.MAX_VALUE));
+        log.info("Запланировано {} напоминаний, просрочено за время простоя {}", scheduled, overdue);
+        return now;
+    }
+
+    /**
+     * Догоняет напоминания, просроченные за время простоя (не позже {@code cutoff}), параллельно с наступающими:
+     * в порядке {@code catch-up.order} и не быстрее {@code catch-up.rate} в секунду, поэтому после долгого простоя
+     * наступающие напоминания не ждут всего отставания, а Telegram не получает всплеск сообщений.
+     * Устаревшие больше чем на {@code stale-after} обрабатываются первыми по {@code stale-action}.
+     * Отставание читается keyset-страницами по {@code batchSize}, в памяти держится одна страница.
+     */
+    void catchUp(Instant cutoff) throws InterruptedException {
+        Instant staleBefore = staleAction != StaleAction.SEND && !staleAfter.isZero() ? cutoff.minus(staleAfter) : null;
+        log.info("Догон после простоя: {} напоминаний", catchUpRemaining.get());
+
+        int chunkSize = Math.max(1, Math.min(batchSize, (int) catchUpRate));
+        TokenBucket rate = new TokenBucket(catchUpRate, chunkSize);
+        if (staleBefore != null && staleAction == StaleAction.SUMMARIZE) {
+            summarizeStale(staleBefore, chunkSize, rate);
+        } else if (staleBefore != null) {
+            catchUpRange(null, false, reminder -> reminder.getReminderDateTime().isBefore(staleBefore),
+                    true, chunkSize, rate);
+        }
+        if (catchUpOrder == CatchUpOrder.NEWEST_FIRST) {
+            catchUpRange(cursor(cutoff, Long.MAX_VALUE), true,
+                    reminder -> staleBefore == null || !reminder.getReminderDateTime().isBefore(staleBefore),
+                    false, chunkSize, rate);
+        } else {
+            catchUpRange(staleBefore != null ? cursor(staleBefore, Long.MIN_VALUE) : null, false,
+                    reminder -> !reminder.getReminderDateTime().isAfter(cutoff), false, chunkSize, rate);
+        }
+        catchUpRemaining.set(0);
+        log.info("Догон после простоя завершён");
+    }
+
+    /**
+     * Идёт по неотправленным напоминаниям от {@code from} (исключительно) вперёд или назад по времени,
+     * пока они удовлетворяют {@code inRange}, и обрабатывает каждую страницу пачками по {@code chunkSize}.
+     */
+    private void catchUpRange(Reminder from, boolean descending, Predicate<Reminder> inRange, boolean stale,
+                              int chunkSize, TokenBucket rate) throws InterruptedException {
+        Reminder after = from;
+        while (true) {
+            List<Reminder> page = descending
+                    ? reminderService.getPendingPageBefore(after, batchSize)
+                    : reminderService.getPendingPage(after, batchSize);
+            int inside = 0;
+            while (inside < page.size() && inRange.test(page.get(inside))) {
+                inside++;
+            }
+            for (int start = 0; start < inside; start += chunkSize) {
+                catchUpChunk(page.subList(start, Math.min(start + chunkSize, inside)), stale, rate);
+            }
+            if (inside < page.size() || page.size() < batchSize) {
+                return;
+            }
+            after = page.get(page.size() - 1);
+        }
+    }
+
+    /**
+     * Устаревшие напоминания читаются по чатам, поэтому напоминания одного чата идут подряд и попадают
+     * в одну пачку, а значит и в одну сводку, даже если растянулись на несколько страниц. В пачку попадают
+     * только целые чаты, не больше {@code chatsPerChunk}, а лимит догона расходуется на каждое сводное сообщение.
+     */
+    private void summarizeStale(Instant staleBefore, int chatsPerChunk, TokenBucket rate) throws InterruptedException {
+        List<Reminder> chunk = new ArrayList<>();
+        int chats = 0;
+        Reminder after = null;
+        while (true) {
+            List<Reminder> page = reminderService.getOverdueByChat(after, staleBefore, batchSize);
+            for (Reminder reminder : page) {
+                Reminder previous = chunk.isEmpty() ? null : chunk.get(chunk.size() - 1);
+                if (previous == null || !previous.getChatId().equals(reminder.getChatId())) {
+                    if (chats >= chatsPerChunk) {
+                        catchUpChunk(chunk, true, rate);
+                        chunk = new ArrayList<>();
+                        chats = 0;
+                    }
+                    chats++;
+                }
+                chunk.add(reminder);
+            }
+            if (page.size() < batchSize) {
+                break;
+            }
+            after = page.get(page.size() - 1);
+        }
+        if (!chunk.isEmpty()) {
+            catchUpChunk(chunk, true, rate);
+        }
+    }
+
+    // граница keyset-страницы: id Long.MAX_VALUE - после всех напоминаний этого момента, Long.MIN_VALUE - до них
+    private static Reminder cursor(Instant time, long id) {
+        return new Reminder(id, null, null, time, null);
+    }
+
+    /**
+     * Ошибка пачки не останавливает догон: доставки, уже попавшие в outbox, повторит {@link #retryDeliveries},
+     * а напоминания, не дошедшие до outbox, останутся в БД и будут догнаны при следующем запуске.
+     */
+    private void catchUpChunk(List<Reminder> chunk, boolean stale, TokenBucket rate) throws InterruptedException {
+        try {
+            if (!stale) {
+                acquire(rate, chunk.size());
+                deliver(deliveryService.enqueue(chunk, nodeId, Instant.now(), claimLease)).join();
+                metrics.recordCatchUp("sent", chunk.size());
+                return;
+            }
+            List<ReminderDelivery> deliveries = deliveryService.enqueue(chunk, nodeId, Instant.now(), claimLease);
+            if (staleAction == StaleAction.SKIP) {
+                deliveryService.markSkipped(deliveries);
+                metrics.recordCatchUp("skipped", chunk.size());
+            } else {
+                List<CoalescedMessage> messages = CoalescedMessage.summarize(deliveries);
+                acquire(rate, messages.size());
+                send(messages).join();
+                metrics.recordCatchUp("summarized", chunk.size());
+            }
+        } catch (RuntimeException e) {
+            log.error("Ошибка при догоне пачки из {} просроченных напоминаний", chunk.size(), e);
+        } finally {
+            catchUpRemaining.addAndGet(-chunk.size());
+        }
+    }
+
+    private static void acquire(TokenBucket rate, int permits) throws InterruptedException {
+        long delay = 0;
+        for (int i = 0; i < permits; i++) {
+            delay = rate.reserve();
+        }
+        TimeUnit.NANOSECONDS.sleep(delay);
+    }
+
+    /**
+     * Захватывает пачку наступивших напоминаний и отправляет её, дожидаясь результата,
+     * чтобы аренда не истекла, пока сообщения стоят в очереди отправки.
+     *
+     * @return количество захваченных напоминаний
+     */
+    int claimAndDispatch() {
+        List<ReminderDelivery> claimed = deliveryService.claimDue(nodeId, Instant.now(), claimLease, batchSize);
+        if (!claimed.isEmpty()) {
+            deliver(claimed).join();
+        }
+        return claimed.size();
+    }
+
+    /**
+     * Повторяет неудавшиеся доставки и подбирает брошенные упавшими узлами. Не ждёт отправки:
+     * захваченные доставки арендованы и до истечения аренды повторно не выбираются.
+     */
+    @Scheduled(fixedDelayString = "${telegram.bot.outbox.poll-interval-ms:5000}")
+    public void retryDeliveries() {
+        try {
+            List<ReminderDelivery> retries = deliveryService.claimRetries(nodeId, Instant.now(), claimLease, batchSize);
+            if (!retries.isEmpty()) {
+                log.info("Повторная отправка {} напоминаний", retries.size());
+                deliver(retries);
+            }
+        } catch (Exception e) {
+            log.error("Ошибка при повторной отправке напоминаний", e);
+        }
+    }
+
+    private void run() {
+        if (mode == DispatchMode.CLAIM) {
+            runClaiming();
+        } else {
+            runTimeline();
+        }
+    }
+
+    private void runClaiming() {
+        log.info("Диспетчер в режиме захвата, узел {}", nodeId);
+        loaded.complete(null);
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                if (claimAndDispatch() == 0) {
+                    Thread.sleep(claimIntervalMs);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                log.error("Ошибка при захвате напоминаний", e);
+                try {
+                    Thread.sleep(claimIntervalMs);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+
+    private void runTimeline() {
+        Instant cutoff = null;
+        try {
+            cutoff = loadPending();
+        } catch (Exception e) {
+            log.error("Не удалось загрузить ожидающие напоминания", e);
+        } finally {
+            loaded.complete(null);
+        }
+        if (cutoff != null && catchUpRemaining.get() > 0) {
+            startCatchUp(cutoff);
+        }
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                dispatchOrRetry(awaitDue());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                log.error("Ошибка при отправке напоминаний", e);
+            }
+        }
+    }
+
+    /**
+     * Если наступившие напоминания не удалось перевести в outbox (например, БД временно недоступна),
+     * они уже извлечены из очереди: без возврата они не были бы отправлены до перезапуска.
+     * Поэтому они возвращаются в очередь с экспоненциальной задержкой.
+     */
+    void dispatchOrRetry(List<Reminder> due) {
+        try {
+            dispatch(due);
+            dispatchFailures = 0;
+        } catch (RuntimeException e) {
+            dispatchFailures++;
+            Duration delay = retryDelay(dispatchFailures);
+            log.error("Не удалось передать в outbox {} напоминаний, повтор через {}", due.size(), delay, e);
+            timeline.retryLater(due, delay);
+        }
+    }
+
+    private Duration retryDelay(int failures) {
+        Duration delay = retryBase.multipliedBy(1L << Math.min(failures - 1, 20));
+        return delay.compareTo(retryMax) > 0 ? retryMax : delay;
+    }
+
+    private void startCatchUp(Instant cutoff) {
+        catchUpWorker = new Thread(() -> {
+            try {
+                catchUp(cutoff);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, "reminder-catch-up");
+        catchUpWorker.setDaemon(true);
+        catchUpWorker.start();
+    }
+
+    /**
+     * С объединением по чатам после первого наступившего напоминания ждёт ещё {@code coalesce.window}
+     * и добирает всё, что наступило за это время: напоминания одного чата с разницей в секунды
+     * уйдут одним сообщением ценой задержки не больше окна.
+     */
+    List<Reminder> awaitDue() throws InterruptedException {
+        List<Reminder> due = timeline.awaitDue(batchSize);
+        if (!coalesce || coalesceWindow.isZero() || due.size() >= batchSize) {
+            return due;
+        }
+        Thread.sleep(coalesceWindow.toMillis());
+        List<Reminder> batch = new ArrayList<>(due);
+        batch.addAll(timeline.drainDue(batchSize - due.size()));
+        return batch;
+    }
+
+    /**
+     * Переводит наступившие напоминания в outbox и отправляет созданные доставки.
+     */
+    CompletableFuture<Void> dispatch(List<Reminder> due) {
+        log.info("Наступило {} напоминаний для отправки.", due.size());
+        return deliver(deliveryService.enqueue(due, nodeId, Instant.now(), claimLease));
+    }
+
+    /**
+     * Отправляет доставки параллельно (в пределах лимитов {@link MessageSender}) и фиксирует
+     * результат каждой сразу по получении ответа, а не после всей пачки. С {@code coalesce.enabled}
+     * доставки одного чата уходят одним сообщением, результат которого записывается в каждую из них.
+     */
+    private CompletableFuture<Void> deliver(List<ReminderDelivery> deliveries) {
+        return send(coalesce ? CoalescedMessage.coalesce(deliveries) : CoalescedMessage.separate(deliveries));
+    }
+
+    private CompletableFuture<Void> send(List<CoalescedMessage> messages) {
+        CompletableFuture<?>[] sends = new CompletableFuture<?>[messages.size()];
+        for (int i = 0; i < messages.size(); i++) {
+            CoalescedMessage message = messages.get(i);
+            sends[i] = messageSender.submit(message.getChatId(), message.getText())
+                    .whenComplete((ignored, error) -> message.getDeliveries()
+                            .forEach(delivery -> complete(delivery, error)));
+        }
+        return CompletableFuture.allOf(sends).handle((ignored, error) -> null);
+    }
+
+    private void complete(ReminderDelivery delivery, Throwable error) {
+        try {
+            if (error == null) {
+                deliveryService.markSent(delivery);
+                metrics.recordDelivered(delivery.getReminderDateTime());
+            } else {
+                deliveryService.markFailed(delivery, error);
+                metrics.recordUndelivered(1);
+            }
+        } catch (Exception e) {
+            // доставка останется IN_FLIGHT и будет повторена после истечения аренды
+            log.error("Не удалось сохранить результат доставки напоминания {}", delivery.getReminderId(), e);
+        }
+    }
+}
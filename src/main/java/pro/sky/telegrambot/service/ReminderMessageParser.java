@@ -0,0 +1,150 @@
+package pro.sky.telegrambot.service;
+
+import lombok.Value;
+
+import java.time.LocalDateTime;
+import java.time.Month;
+import java.time.Year;
+
+/**
+ * Разбор сообщения вида {@code dd.MM.yyyy HH:mm текст} без регулярных выражений.
+ * <p>
+ * Повторяет прежнюю связку {@code Pattern.compile("(\\d{2}\\.\\d{2}\\.\\d{4} \\d{2}:\\d{2})\\s+(.+)").find()}
+ * и {@code DateTimeFormatter.ofPattern("dd.MM.yyyy HH:mm")} (ResolverStyle.SMART):
+ * <ul>
+ *     <li>дата ищется в любом месте строки, берётся первое совпадение;</li>
+ *     <li>текст идёт до конца строки (до первого перевода строки);</li>
+ *     <li>день прижимается к концу месяца: 31.04 → 30.04, 29.02.2023 → 28.02.2023;</li>
+ *     <li>24:00 означает полночь следующего дня.</li>
+ * </ul>
+ * На ошибочном вводе ничего не создаётся: ни Matcher, ни подстрок, ни исключений.
+ */
+public final class ReminderMessageParser {
+
+    // dd.MM.yyyy HH:mm
+    private static final int DATE_TIME_LENGTH = 16;
+
+    // дата, хотя бы один пробельный символ и хотя бы один символ текста
+    private static final int MIN_MESSAGE_LENGTH = DATE_TIME_LENGTH + 2;
+
+    private ReminderMessageParser() {
+    }
+
+    /**
+     * @return дата и текст напоминания или {@code null}, если формат не распознан или дата недопустима
+     */
+    public static ParsedReminder parse(String message) {
+        int length = message.length();
+        for (int start = 0; start + MIN_MESSAGE_LENGTH <= length; start++) {
+            if (!isDateTimeAt(message, start)) {
+                continue;
+            }
+            int textStart = textStart(message, start + DATE_TIME_LENGTH);
+            if (textStart < 0) {
+                continue;
+            }
+            // как и раньше, неверная дата в первом совпадении не ведёт к поиску следующего
+            LocalDateTime dateTime = resolve(message, start);
+            if (dateTime == null) {
+                return null;
+            }
+            return new ParsedReminder(dateTime, message.substring(textStart, lineEnd(message, textStart)));
+        }
+        return null;
+    }
+
+    /**
+     * Разбирает строку, состоящую только из даты {@code dd.MM.yyyy HH:mm}, по тем же правилам, что и {@link #parse}.
+     *
+     * @return дата или {@code null}
+     */
+    public static LocalDateTime parseDateTime(String value) {
+        if (value.length() != DATE_TIME_LENGTH || !isDateTimeAt(value, 0)) {
+            return null;
+        }
+        return resolve(value, 0);
+    }
+
+    private static boolean isDateTimeAt(String s, int i) {
+        return isDigit(s.charAt(i)) && isDigit(s.charAt(i + 1)) && s.charAt(i + 2) == '.'
+                && isDigit(s.charAt(i + 3)) && isDigit(s.charAt(i + 4)) && s.charAt(i + 5) == '.'
+                && isDigit(s.charAt(i + 6)) && isDigit(s.charAt(i + 7))
+                && isDigit(s.charAt(i + 8)) && isDigit(s.charAt(i + 9)) && s.charAt(i + 10) == ' '
+                && isDigit(s.charAt(i + 11)) && isDigit(s.charAt(i + 12)) && s.charAt(i + 13) == ':'
+                && isDigit(s.charAt(i + 14)) && isDigit(s.charAt(i + 15));
+    }
+
+    /**
+     * Начало текста после {@code \s+}: жадный квантификатор отдаёт пробельные символы с конца,
+     * пока следующий символ не подойдёт под {@code .}.
+     *
+     * @return индекс начала текста или -1
+     */
+    private static int textStart(String s, int from) {
+        int length = s.length();
+        int end = from;
+        while (end < length && isWhitespace(s.charAt(end))) {
+            end++;
+        }
+        for (int candidate = end; candidate > from; candidate--) {
+            if (candidate < length && !isLineTerminator(s.charAt(candidate))) {
+                return candidate;
+            }
+        }
+        return -1;
+    }
+
+    private static int lineEnd(String s, int from) {
+        int length = s.length();
+        for (int i = from; i < length; i++) {
+            if (isLineTerminator(s.charAt(i))) {
+                return i;
+            }
+        }
+        return length;
+    }
+
+    private static LocalDateTime resolve(String s, int i) {
+        int day = twoDigits(s, i);
+        int month = twoDigits(s, i + 3);
+        int year = twoDigits(s, i + 6) * 100 + twoDigits(s, i + 8);
+        int hour = twoDigits(s, i + 11);
+        int minute = twoDigits(s, i + 14);
+
+        if (year < 1 || month < 1 || month > 12 || day < 1 || day > 31
+                || minute > 59 || hour > 24 || (hour == 24 && minute != 0)) {
+            return null;
+        }
+        day = Math.min(day, Month.of(month).length(Year.isLeap(year)));
+        if (hour == 24) {
+            return LocalDateTime.of(year, month, day, 0, 0).plusDays(1);
+        }
+        return LocalDateTime.of(year, month, day, hour, minute);
+    }
+
+    private static int twoDigits(String s, int i) {
+        return (s.charAt(i) - '0') * 10 + (s.charAt(i + 1) - '0');
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    // \s без флага UNICODE_CHARACTER_CLASS
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+
+    // символы, на которых останавливается . без флага DOTALL
+    private static boolean isLineTerminator(char c) {
+        return c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029';
+    }
+
+    @Value
+    public static class ParsedReminder {
+
+        LocalDateTime dateTime;
+
+        String text;
+    }
+}
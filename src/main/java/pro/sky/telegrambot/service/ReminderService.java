@@ -1,81 +1,249 @@
 package pro.sky.telegrambot.service;
 
-import com.pengrad.telegrambot.TelegramBot;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import pro.sky.telegrambot.Reminder;
+import pro.sky.telegrambot.ReminderView;
+import pro.sky.telegrambot.configuration.SamplingTurboFilter;
 import pro.sky.telegrambot.repository.ReminderRepository;
 
 import javax.transaction.Transactional;
+import java.time.Instant;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
-import java.time.format.DateTimeParseException;
+import java.time.ZoneId;
 
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class ReminderService {
 
-    private final TelegramBot telegramBot;
+    private static final int MARK_SENT_CHUNK = 1000;
+
+    static final int TASKS_PAGE_SIZE = 10;
+
+    // длина колонки message_text
+    static final int MAX_TEXT_LENGTH = 1000;
 
     private final ReminderRepository repository;
 
-    public List<Reminder> getRemindersToSend(LocalDateTime time) {
-        return repository.findRemindersForSending(time);
+    private final ReminderTimeline timeline;
+
+    private final PendingRemindersCache pendingCache;
+
+    private final ChatSettingsService chatSettings;
+
+    private final ReminderWriteBuffer writeBuffer;
+
+    /**
+     * Страница неотправленных напоминаний в порядке (reminderDateTime, id), следующая за {@code after}.
+     * Keyset-пагинация не зависит от глубины страницы и не держит в памяти весь результат.
+     */
+    public List<Reminder> getPendingPage(Reminder after, int size) {
+        Pageable page = PageRequest.of(0, size);
+        if (after == null) {
+            return repository.findPendingPage(page);
+        }
+        return repository.findPendingPageAfter(after.getReminderDateTime(), after.getId(), page);
+    }
+
+    /**
+     * Как {@link #getPendingPage}, но от новых к старым: страница неотправленных напоминаний,
+     * предшествующих {@code before} в порядке (reminderDateTime, id).
+     */
+    public List<Reminder> getPendingPageBefore(Reminder before, int size) {
+        return repository.findPendingPageBefore(before.getReminderDateTime(), before.getId(), PageRequest.of(0, size));
+    }
+
+    /**
+     * Страница неотправленных напоминаний раньше {@code before} в порядке (chatId, reminderDateTime, id),
+     * следующая за {@code after}: напоминания одного чата идут подряд.
+     */
+    public List<Reminder> getOverdueByChat(Reminder after, Instant before, int size) {
+        Pageable page = PageRequest.of(0, size);
+        if (after == null) {
+            return repository.findOverdueByChat(before, page);
+        }
+        return repository.findOverdueByChatAfter(before, after.getChatId(), after.getReminderDateTime(),
+                after.getId(), page);
+    }
+
+    public long countPendingUntil(Instant until) {
+        return repository.countPendingUntil(until);
     }
 
+    /**
+     * Отмечает напоминания отправленными одним UPDATE ... WHERE id IN (...) на каждые
+     * {@value #MARK_SENT_CHUNK} записей вместо построчного saveAll.
+     */
     @Transactional
     public void markAsSent(List<Reminder> reminders) {
-        reminders.forEach(r -> r.setSent(true));
-        repository.saveAll(reminders);
+        List<Long> ids = new ArrayList<>(reminders.size());
+        Set<Long> chatIds = new HashSet<>();
+        for (Reminder reminder : reminders) {
+            reminder.setSent(true);
+            chatIds.add(reminder.getChatId());
+            if (reminder.getId() != null) {
+                ids.add(reminder.getId());
+            }
+        }
+        for (int from = 0; from < ids.size(); from += MARK_SENT_CHUNK) {
+            repository.markSent(ids.subList(from, Math.min(ids.size(), from + MARK_SENT_CHUNK)));
+        }
+        chatIds.forEach(pendingCache::invalidate);
     }
 
-    private static final Pattern MESSAGE_PATTERN = Pattern.compile("(\\d{2}\\.\\d{2}\\.\\d{4} \\d{2}:\\d{2})\\s+(.+)");
+    /**
+     * Завершает наступившее срабатывание: разовые напоминания отмечаются отправленными,
+     * повторяющиеся переносятся на следующее срабатывание в той же строке. Пропущенные
+     * за время простоя срабатывания не догоняются — берётся ближайшее после {@code now}.
+     */
+    @Transactional
+    public void completeDue(List<Reminder> due, Instant now) {
+        List<Reminder> finished = new ArrayList<>(due.size());
+        for (Reminder reminder : due) {
+            if (reminder.getRecurrence() == null || !reschedule(reminder, now)) {
+                finished.add(reminder);
+            }
+        }
+        markAsSent(finished);
+    }
 
-    private static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern("dd.MM.yyyy HH:mm");
+    private boolean reschedule(Reminder reminder, Instant now) {
+        Instant after = reminder.getReminderDateTime().isAfter(now) ? reminder.getReminderDateTime() : now;
+        Instant next;
+        try {
+            next = Recurrence.next(reminder.getRecurrence(), after, chatSettings.zoneOf(reminder.getChatId()));
+        } catch (IllegalArgumentException e) {
+            log.error("Некорректное расписание напоминания {}: {}", reminder.getId(), reminder.getRecurrence());
+            return false;
+        }
+        if (next == null || reminder.getId() == null) {
+            return false;
+        }
+        repository.reschedule(reminder.getId(), next);
+        reminder.setReminderDateTime(next);
+        timeline.schedule(reminder);
+        pendingCache.invalidate(reminder.getChatId());
+        log.debug("Напоминание {} перенесено на {}", reminder.getId(), next);
+        return true;
+    }
 
     public boolean parseAndSaveReminder(Long chatId, String message) {
-        Matcher matcher = MESSAGE_PATTERN.matcher(message);
-
-        if (matcher.find()) {
-            String dataTimeString = matcher.group(1);
-            String taskText = matcher.group(2);
+        Reminder reminder = parseReminder(chatId, message);
+        if (reminder == null) {
+            return false;
+        }
+        created(reminder, repository.save(reminder));
+        return true;
+    }
 
-            try {
-                LocalDateTime reminderDataTime = LocalDateTime.parse(dataTimeString, DATE_TIME_FORMATTER);
+    /**
+     * Как {@link #parseAndSaveReminder}, но сохраняет через {@link ReminderWriteBuffer}: будущее завершается
+     * после фиксации транзакции, {@code false} - сообщение не разобрано или не прошло проверку.
+     */
+    public CompletableFuture<Boolean> parseAndSaveReminderAsync(Long chatId, String message) {
+        Reminder reminder = parseReminder(chatId, message);
+        if (reminder == null) {
+            return CompletableFuture.completedFuture(false);
+        }
+        return writeBuffer.save(reminder).thenApply(saved -> {
+            created(reminder, saved);
+            return true;
+        });
+    }
 
-                LocalDateTime now = LocalDateTime.now();
+    private Reminder parseReminder(Long chatId, String message) {
+        ReminderMessageParser.ParsedReminder parsed = ReminderMessageParser.parse(message);
+        if (parsed == null) {
+            log.warn(SamplingTurboFilter.SAMPLED, "Неверный формат сообщения или дата chat_id={}", chatId);
+            return null;
+        }
+        try {
+            return newReminder(chatId, parsed.getDateTime(), parsed.getText(), Instant.now());
+        } catch (IllegalArgumentException e) {
+            log.warn(SamplingTurboFilter.SAMPLED, "Напоминание отклонено chat_id={} reason=\"{}\"", chatId,
+                    e.getMessage());
+            return null;
+        }
+    }
 
-                log.debug("Reminder time: {}", reminderDataTime);
-                log.debug("Current time: {}", now);
-                log.debug("Is reminder in future? {}", reminderDataTime.isAfter(now));
+    // JPA и буфер записи возвращают тот же экземпляр с проставленным id
+    private void created(Reminder reminder, Reminder saved) {
+        timeline.schedule(saved);
+        pendingCache.invalidate(reminder.getChatId());
+        log.info(SamplingTurboFilter.SAMPLED, "Напоминание создано id={} chat_id={} at={} recurring={}", reminder.getId(),
+                reminder.getChatId(), reminder.getReminderDateTime(), reminder.getRecurrence() != null);
+    }
 
-                if (reminderDataTime.isBefore(LocalDateTime.now())) {
-                    log.warn("Попытка создать напоминание в прошлом: {}", reminderDataTime);
-                    return false;
-                }
+    /**
+     * Напоминание по местному времени чата, как в сообщении пользователю. Несуществующее при переходе
+     * на летнее время сдвигается вперёд на величину перехода, неоднозначное берётся по раннему смещению.
+     * Первое слово текста может задавать повтор, см. {@link Recurrence}.
+     *
+     * @throws IllegalArgumentException если напоминание не проходит проверки; сообщение пригодно для пользователя
+     */
+    public Reminder newReminder(Long chatId, LocalDateTime localDateTime, String text, Instant now) {
+        if (chatId == null) {
+            throw new IllegalArgumentException("Не указан чат");
+        }
+        if (text == null) {
+            throw new IllegalArgumentException("Пустой текст напоминания");
+        }
+        Recurrence.Parsed recurrence = Recurrence.extract(text, localDateTime);
+        if (recurrence == null) {
+            throw new IllegalArgumentException("Неверное расписание повтора");
+        }
+        ZoneId zone = chatSettings.zoneOf(chatId);
+        return newReminder(chatId, localDateTime.atZone(zone).toInstant(), recurrence.getText(),
+                recurrence.getCron(), now);
+    }
 
-                Reminder reminder = new Reminder(chatId, taskText, reminderDataTime);
-                repository.save(reminder);
-                log.info("Напоминание создано: {}", reminder);
-                return true;
-            } catch (DateTimeParseException e) {
-                log.error("Не верно указана дата или время: {}", dataTimeString, e);
-                return false;
-            }
+    /**
+     * Напоминание на точный момент. Те же проверки, что и для сообщений из чата:
+     * время в будущем, непустой текст не длиннее {@value #MAX_TEXT_LENGTH} символов, корректный cron.
+     *
+     * @throws IllegalArgumentException если напоминание не проходит проверки
+     */
+    public Reminder newReminder(Long chatId, Instant reminderDateTime, String text, String cron, Instant now) {
+        if (chatId == null) {
+            throw new IllegalArgumentException("Не указан чат");
         }
-        log.warn("Не верный формат сообщения: {}", message);
-        return false;
+        if (text == null || text.isBlank()) {
+            throw new IllegalArgumentException("Пустой текст напоминания");
+        }
+        if (text.length() > MAX_TEXT_LENGTH) {
+            throw new IllegalArgumentException("Текст длиннее " + MAX_TEXT_LENGTH + " символов");
+        }
+        if (cron != null && !Recurrence.isValid(cron)) {
+            throw new IllegalArgumentException("Неверное расписание повтора");
+        }
+        if (reminderDateTime.isBefore(now)) {
+            throw new IllegalArgumentException("Попытка создать напоминание в прошлом");
+        }
+        Reminder reminder = new Reminder(chatId, text, reminderDateTime);
+        reminder.setRecurrence(cron);
+        return reminder;
     }
 
-    //все напоминания пользователя
-    public List<Reminder> getUserReminders(Long chatId) {
-        return repository.findByChatId(chatId);
+    /**
+     * Страница неотправленных напоминаний пользователя по {@value #TASKS_PAGE_SIZE} штук.
+     * Первая страница, которую открывает /my_tasks, берётся из кэша.
+     */
+    public Slice<ReminderView> getUserReminders(Long chatId, int page) {
+        if (page == 0) {
+            return pendingCache.get(chatId, id -> repository.findPendingViews(id, PageRequest.of(0, TASKS_PAGE_SIZE)));
+        }
+        return repository.findPendingViews(chatId, PageRequest.of(page, TASKS_PAGE_SIZE));
     }
 }
@@ -0,0 +1,135 @@
+package pro.sky.telegrambot.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import pro.sky.telegrambot.Reminder;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Очередь ожидающих напоминаний, упорядоченная по времени срабатывания (min-heap).
+ * Поток-диспетчер спит до ближайшего напоминания, поэтому пустые такты не стоят ничего,
+ * а добавление более раннего напоминания сразу будит ожидающий поток.
+ */
+@Component
+public class ReminderTimeline {
+
+    private final DelayQueue<ScheduledReminder> queue = new DelayQueue<>();
+
+    private final Set<Long> scheduledIds = ConcurrentHashMap.newKeySet();
+
+    private final boolean enabled;
+
+    public ReminderTimeline(@Value("${telegram.bot.dispatcher.mode:timeline}") DispatchMode mode) {
+        // в режиме захвата напоминания выбираются из БД, держать их в памяти не нужно
+        this.enabled = mode == DispatchMode.TIMELINE;
+    }
+
+    public void schedule(Reminder reminder) {
+        if (!enabled || reminder == null || reminder.getId() == null) {
+            return;
+        }
+        if (scheduledIds.add(reminder.getId())) {
+            queue.put(new ScheduledReminder(reminder, reminder.getReminderDateTime()));
+        }
+    }
+
+    /**
+     * Возвращает в очередь напоминания, которые не удалось передать в outbox: они наступят снова
+     * через {@code delay}, время срабатывания самих напоминаний не меняется.
+     */
+    public void retryLater(List<Reminder> reminders, Duration delay) {
+        Instant dueAt = Instant.now().plus(delay);
+        for (Reminder reminder : reminders) {
+            if (enabled && reminder.getId() != null && scheduledIds.add(reminder.getId())) {
+                queue.put(new ScheduledReminder(reminder, dueAt));
+            }
+        }
+    }
+
+    /**
+     * Блокирует поток до наступления ближайшего напоминания и возвращает его
+     * вместе с остальными уже наступившими, но не более {@code maxBatch} штук.
+     */
+    public List<Reminder> awaitDue(int maxBatch) throws InterruptedException {
+        List<ScheduledReminder> due = new ArrayList<>();
+        due.add(queue.take());
+        queue.drainTo(due, maxBatch - 1);
+        return release(due);
+    }
+
+    /**
+     * Забирает уже наступившие напоминания, не дожидаясь следующих, но не более {@code maxBatch} штук.
+     */
+    public List<Reminder> drainDue(int maxBatch) {
+        List<ScheduledReminder> due = new ArrayList<>();
+        queue.drainTo(due, maxBatch);
+        return release(due);
+    }
+
+    private List<Reminder> release(List<ScheduledReminder> due) {
+        List<Reminder> reminders = new ArrayList<>(due.size());
+        for (ScheduledReminder scheduled : due) {
+            scheduledIds.remove(scheduled.reminder.getId());
+            reminders.add(scheduled.reminder);
+        }
+        return reminders;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Все напоминания в памяти, в том числе ещё не наступившие.
+     */
+    public int size() {
+        return queue.size();
+    }
+
+    /**
+     * На сколько самое раннее наступившее напоминание ждёт выдачи диспетчеру; ноль, если наступивших нет.
+     * Голова очереди - самое раннее напоминание, поэтому хватает одного peek.
+     */
+    public Duration dueLag() {
+        ScheduledReminder head = queue.peek();
+        if (head == null) {
+            return Duration.ZERO;
+        }
+        Duration lag = Duration.between(head.dueAt, Instant.now());
+        return lag.isNegative() ? Duration.ZERO : lag;
+    }
+
+    private static final class ScheduledReminder implements Delayed {
+
+        private final Reminder reminder;
+
+        // момент выдачи из очереди: время срабатывания или время повтора после ошибки
+        private final Instant dueAt;
+
+        private ScheduledReminder(Reminder reminder, Instant dueAt) {
+            this.reminder = reminder;
+            this.dueAt = dueAt;
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(Duration.between(Instant.now(), dueAt));
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            ScheduledReminder that = (ScheduledReminder) other;
+            int byTime = dueAt.compareTo(that.dueAt);
+            return byTime != 0 ? byTime : reminder.getId().compareTo(that.reminder.getId());
+        }
+    }
+}
@@ -0,0 +1,261 @@
+package pro.sky.telegrambot.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import pro.sky.telegrambot.Reminder;
+import pro.sky.telegrambot.ReminderImportResult;
+import pro.sky.telegrambot.ReminderRecord;
+import pro.sky.telegrambot.repository.ReminderJdbcRepository;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Массовый импорт и экспорт напоминаний. Обе стороны потоковые: импорт разбирает по одной строке
+ * и сохраняет JDBC-пакетами по {@code batchSize}, экспорт читает keyset-страницами, поэтому
+ * память не зависит от объёма данных. Строки проверяются по тем же правилам, что и сообщения из чата.
+ * <p>
+ * Импорт не атомарен: сохранённые пакеты остаются, отклонённые строки перечисляются в ответе.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ReminderTransferService {
+
+    static final int MAX_REPORTED_ERRORS = 100;
+
+    private static final String[] CSV_HEADER = {"chat_id", "reminder_date_time", "message_text", "recurrence"};
+
+    private final ReminderService reminderService;
+
+    private final ChatSettingsService chatSettings;
+
+    private final ReminderJdbcRepository jdbcRepository;
+
+    private final ReminderTimeline timeline;
+
+    private final PendingRemindersCache pendingCache;
+
+    private final ObjectMapper objectMapper;
+
+    @Value("${telegram.bot.transfer.batch-size:1000}")
+    private int batchSize = 1000;
+
+    /**
+     * CSV с колонками {@code chat_id,reminder_date_time,message_text[,recurrence]}; строка заголовка необязательна.
+     */
+    public ReminderImportResult importCsv(Reader reader) throws IOException {
+        Import run = new Import();
+        CsvReader csv = new CsvReader(reader);
+        while (true) {
+            List<String> fields;
+            try {
+                fields = csv.next();
+            } catch (IllegalArgumentException e) {
+                run.reject(csv.recordLine(), e.getMessage());
+                break;
+            }
+            if (fields == null) {
+                break;
+            }
+            if (fields.size() == 1 && fields.get(0).isEmpty()) {
+                continue;
+            }
+            if (csv.recordLine() == 1 && CSV_HEADER[0].equals(fields.get(0))) {
+                continue;
+            }
+            if (fields.size() < 3 || fields.size() > 4) {
+                run.reject(csv.recordLine(), "Ожидается 3 или 4 колонки, получено " + fields.size());
+                continue;
+            }
+            Long chatId = parseChatId(fields.get(0));
+            if (chatId == null) {
+                run.reject(csv.recordLine(), "Неверный chat_id: " + fields.get(0));
+                continue;
+            }
+            run.accept(csv.recordLine(), new ReminderRecord(chatId, fields.get(1), fields.get(2),
+                    fields.size() == 4 ? fields.get(3) : null));
+        }
+        return run.finish();
+    }
+
+    /**
+     * По одному JSON-объекту {@link ReminderRecord} на строку.
+     */
+    public ReminderImportResult importNdjson(Reader reader) throws IOException {
+        Import run = new Import();
+        BufferedReader lines = reader instanceof BufferedReader ? (BufferedReader) reader : new BufferedReader(reader);
+        long lineNumber = 0;
+        String line;
+        while ((line = lines.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            ReminderRecord record;
+            try {
+                record = objectMapper.readValue(line, ReminderRecord.class);
+            } catch (JsonProcessingException e) {
+                run.reject(lineNumber, "Неверный JSON: " + e.getOriginalMessage());
+                continue;
+            }
+            run.accept(lineNumber, record);
+        }
+        return run.finish();
+    }
+
+    public void exportCsv(Long chatId, Writer writer) throws IOException {
+        CsvWriter csv = new CsvWriter(writer);
+        csv.writeRow(CSV_HEADER);
+        export(chatId, writer, record -> csv.writeRow(String.valueOf(record.getChatId()), record.getReminderDateTime(),
+                record.getMessageText(), record.getRecurrence()));
+    }
+
+    public void exportNdjson(Long chatId, Writer writer) throws IOException {
+        export(chatId, writer, record -> {
+            writer.write(objectMapper.writeValueAsString(record));
+            writer.write('\n');
+        });
+    }
+
+    /**
+     * Время выгружается моментом в UTC, чтобы файл загружался одинаково в любой зоне.
+     */
+    private void export(Long chatId, Writer writer, RecordWriter out) throws IOException {
+        Reminder after = null;
+        List<Reminder> page;
+        do {
+            page = jdbcRepository.findPendingPage(chatId, after, batchSize);
+            for (Reminder reminder : page) {
+                out.write(new ReminderRecord(reminder.getChatId(), reminder.getReminderDateTime().toString(),
+                        reminder.getMessageText(), reminder.getRecurrence()));
+            }
+            writer.flush();
+            if (!page.isEmpty()) {
+                after = page.get(page.size() - 1);
+            }
+        } while (page.size() == batchSize);
+    }
+
+    /**
+     * Момент ISO-8601 берётся как есть, местное время — в зоне чата; без колонки повтора,
+     * как и в чате, повтор может задаваться первым словом текста.
+     */
+    Reminder toReminder(ReminderRecord record, Instant now) {
+        String time = record.getReminderDateTime();
+        if (time == null || time.isBlank()) {
+            throw new IllegalArgumentException("Не указано время напоминания");
+        }
+        String recurrence = record.getRecurrence() == null || record.getRecurrence().isBlank()
+                ? null
+                : record.getRecurrence().trim();
+        if (time.indexOf('T') >= 0) {
+            Instant instant;
+            try {
+                instant = Instant.parse(time.trim());
+            } catch (DateTimeParseException e) {
+                throw new IllegalArgumentException("Неверное время: " + time);
+            }
+            return reminderService.newReminder(record.getChatId(), instant, record.getMessageText(), recurrence, now);
+        }
+        LocalDateTime local = ReminderMessageParser.parseDateTime(time.trim());
+        if (local == null) {
+            throw new IllegalArgumentException("Неверное время: " + time);
+        }
+        if (recurrence == null) {
+            return reminderService.newReminder(record.getChatId(), local, record.getMessageText(), now);
+        }
+        if (record.getChatId() == null) {
+            throw new IllegalArgumentException("Не указан чат");
+        }
+        Instant instant = local.atZone(chatSettings.zoneOf(record.getChatId())).toInstant();
+        return reminderService.newReminder(record.getChatId(), instant, record.getMessageText(), recurrence, now);
+    }
+
+    private static Long parseChatId(String value) {
+        try {
+            return Long.valueOf(value.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    @FunctionalInterface
+    private interface RecordWriter {
+
+        void write(ReminderRecord record) throws IOException;
+    }
+
+    /**
+     * Состояние одного импорта: текущий пакет, счётчики и затронутые чаты.
+     */
+    private final class Import {
+
+        private final Instant now = Instant.now();
+
+        private final List<Reminder> batch = new ArrayList<>(batchSize);
+
+        private final Set<Long> chatIds = new HashSet<>();
+
+        private final List<String> errors = new ArrayList<>();
+
+        private long imported;
+
+        private long rejected;
+
+        void accept(long line, ReminderRecord record) {
+            Reminder reminder;
+            try {
+                reminder = toReminder(record, now);
+            } catch (IllegalArgumentException e) {
+                reject(line, e.getMessage());
+                return;
+            }
+            batch.add(reminder);
+            chatIds.add(reminder.getChatId());
+            if (batch.size() >= batchSize) {
+                flush();
+            }
+        }
+
+        void reject(long line, String reason) {
+            rejected++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add("строка " + line + ": " + reason);
+            }
+        }
+
+        ReminderImportResult finish() {
+            flush();
+            chatIds.forEach(pendingCache::invalidate);
+            log.info("Импортировано {} напоминаний, отклонено {}", imported, rejected);
+            return new ReminderImportResult(imported, rejected, errors);
+        }
+
+        private void flush() {
+            if (batch.isEmpty()) {
+                return;
+            }
+            jdbcRepository.insertBatch(batch);
+            // insertBatch проставляет id из последовательности, дочитывать новые строки не нужно
+            if (timeline.isEnabled()) {
+                batch.forEach(timeline::schedule);
+            }
+            imported += batch.size();
+            batch.clear();
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package pro.sky.telegrambot.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import pro.sky.telegrambot.Reminder;
+import pro.sky.telegrambot.repository.ReminderJdbcRepository;
+import pro.sky.telegrambot.repository.ReminderRepository;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Отложенная запись новых напоминаний. Напоминания из сообщений копятся в ограниченной очереди
+ * и сохраняются одним JDBC-пакетом в одной транзакции, как только набралось {@code max-batch}
+ * строк или прошло {@code flush-interval} с первой строки пачки. Будущее каждого напоминания
+ * завершается только после фиксации транзакции, поэтому ответ пользователю не опережает запись.
+ * <p>
+ * Если отложенная запись выключена, напоминание сохраняется сразу через JPA.
+ */
+@Slf4j
+@Component
+public class ReminderWriteBuffer {
+
+    private final ReminderRepository repository;
+    private final ReminderJdbcRepository jdbcRepository;
+    private final TransactionTemplate transaction;
+    private final BotMetrics metrics;
+    private final boolean enabled;
+    private final int maxBatch;
+    private final long flushIntervalNanos;
+    private final BlockingQueue<PendingWrite> queue;
+
+    private Thread flusher;
+
+    public ReminderWriteBuffer(ReminderRepository repository,
+                               ReminderJdbcRepository jdbcRepository,
+                               PlatformTransactionManager transactionManager,
+                               BotMetrics metrics,
+                               @Value("${telegram.bot.write-behind.enabled:false}") boolean enabled,
+                               @Value("${telegram.bot.write-behind.max-batch:500}") int maxBatch,
+                               @Value("${telegram.bot.write-behind.flush-interval:PT0.05S}") Duration flushInterval,
+                               @Value("${telegram.bot.write-behind.capacity:10000}") int capacity) {
+        this.repository = repository;
+        this.jdbcRepository = jdbcRepository;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.metrics = metrics;
+        this.enabled = enabled;
+        this.maxBatch = maxBatch;
+        this.flushIntervalNanos = flushInterval.toNanos();
+        this.queue = new LinkedBlockingQueue<>(capacity);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        flusher = new Thread(this::run, "reminder-write-behind");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    /**
+     * Останавливает поток записи; то, что осталось в очереди, сохраняется перед выходом.
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (flusher != null) {
+            flusher.interrupt();
+            flusher.join(TimeUnit.SECONDS.toMillis(10));
+        }
+    }
+
+    /**
+     * Ставит напоминание в очередь записи. Если очередь заполнена, вызывающий поток ждёт места.
+     *
+     * @return сохранённое напоминание с идентификатором, после фиксации транзакции
+     */
+    public CompletableFuture<Reminder> save(Reminder reminder) {
+        if (!enabled) {
+            try {
+                return CompletableFuture.completedFuture(repository.save(reminder));
+            } catch (RuntimeException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        }
+        PendingWrite write = new PendingWrite(reminder);
+        try {
+            queue.put(write);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            write.future.completeExceptionally(e);
+        }
+        return write.future;
+    }
+
+    public int size() {
+        return queue.size();
+    }
+
+    private void run() {
+        List<PendingWrite> batch = new ArrayList<>(maxBatch);
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                collect(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            flush(batch);
+        }
+        queue.drainTo(batch);
+        while (!batch.isEmpty()) {
+            List<PendingWrite> part = new ArrayList<>(batch.subList(0, Math.min(maxBatch, batch.size())));
+            batch.subList(0, part.size()).clear();
+            flush(part);
+        }
+    }
+
+    /**
+     * Ждёт первую запись, затем добирает пачку до {@code maxBatch} или до истечения интервала.
+     */
+    private void collect(List<PendingWrite> batch) throws InterruptedException {
+        batch.add(queue.take());
+        long deadline = System.nanoTime() + flushIntervalNanos;
+        while (batch.size() < maxBatch) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                queue.drainTo(batch, maxBatch - batch.size());
+                return;
+            }
+            PendingWrite next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+        }
+    }
+
+    private void flush(List<PendingWrite> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        List<Reminder> reminders = new ArrayList<>(batch.size());
+        for (PendingWrite write : batch) {
+            reminders.add(write.reminder);
+        }
+        long start = System.nanoTime();
+        try {
+            transaction.executeWithoutResult(status -> jdbcRepository.insertBatch(reminders));
+        } catch (RuntimeException e) {
+            log.error("Не удалось сохранить пачку из {} напоминаний", batch.size(), e);
+            batch.forEach(write -> write.future.completeExceptionally(e));
+            batch.clear();
+            return;
+        }
+        long committed = System.nanoTime();
+        metrics.recordWriteFlush(batch.size(), committed - start);
+        for (PendingWrite write : batch) {
+            metrics.recordWriteAck(committed - write.enqueuedAt);
+            write.future.complete(write.reminder);
+        }
+        batch.clear();
+    }
+
+    private static final class PendingWrite {
+
+        private final Reminder reminder;
+        private final long enqueuedAt = System.nanoTime();
+        private final CompletableFuture<Reminder> future = new CompletableFuture<>();
+
+        PendingWrite(Reminder reminder) {
+            this.reminder = reminder;
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package pro.sky.telegrambot.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Политика хранения: отправленные напоминания старше {@code sent-days} дней уходят в архив,
+ * завершённые доставки того же возраста удаляются. В рабочей таблице остаются только
+ * ожидающие и недавно отправленные напоминания. Отключается {@code telegram.bot.retention.cron=-}.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RetentionJob {
+
+    private final ArchiveService archiveService;
+
+    @Value("${telegram.bot.retention.sent-days:30}")
+    private int sentDays = 30;
+
+    @Value("${telegram.bot.retention.batch-size:500}")
+    private int batchSize = 500;
+
+    @Value("${telegram.bot.retention.partitioned:false}")
+    private boolean partitioned;
+
+    @Scheduled(cron = "${telegram.bot.retention.cron:0 30 3 * * *}")
+    public void run() {
+        Instant cutoff = Instant.now().minus(Duration.ofDays(sentDays));
+        try {
+            if (partitioned) {
+                Instant oldest = archiveService.oldestSent();
+                if (oldest != null && oldest.isBefore(cutoff)) {
+                    archiveService.ensureArchivePartitions(oldest, cutoff);
+                }
+            }
+
+            long archived = 0;
+            int moved;
+            do {
+                moved = archiveService.archiveSentBefore(cutoff, batchSize);
+                archived += moved;
+            } while (moved == batchSize);
+
+            long purged = 0;
+            int deleted;
+            do {
+                deleted = archiveService.purgeDeliveriesBefore(cutoff, batchSize);
+                purged += deleted;
+            } while (deleted == batchSize);
+
+            log.info("Перенесено в архив {} напоминаний, удалено {} доставок старше {}", archived, purged, cutoff);
+        } catch (Exception e) {
+            log.error("Ошибка при архивации напоминаний", e);
+        }
+    }
+}
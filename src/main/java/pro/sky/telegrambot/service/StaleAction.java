@@ -0,0 +1,22 @@
+package pro.sky.telegrambot.service;
+
+/**
+ * Что делать с напоминанием, просроченным за время простоя больше {@code telegram.bot.dispatcher.catch-up.stale-after}.
+ */
+public enum StaleAction {
+
+    /**
+     * Отправить как обычно.
+     */
+    SEND,
+
+    /**
+     * Не отправлять: доставка сразу получает статус {@link pro.sky.telegrambot.DeliveryStatus#SKIPPED}.
+     */
+    SKIP,
+
+    /**
+     * Одно сообщение-сводка на чат вместо отдельного сообщения на каждое напоминание.
+     */
+    SUMMARIZE
+}
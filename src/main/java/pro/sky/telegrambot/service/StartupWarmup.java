@@ -0,0 +1,135 @@
+package pro.sky.telegrambot.service;
+
+import com.pengrad.telegrambot.BotUtils;
+import com.pengrad.telegrambot.Callback;
+import com.pengrad.telegrambot.TelegramBot;
+import com.pengrad.telegrambot.request.GetMe;
+import com.pengrad.telegrambot.response.GetMeResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import pro.sky.telegrambot.repository.ChatSettingsRepository;
+import pro.sky.telegrambot.repository.ReminderJdbcRepository;
+import pro.sky.telegrambot.repository.ReminderRepository;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Прогрев перед приёмом трафика. {@link ApplicationRunner} выполняется до {@code ApplicationReadyEvent},
+ * поэтому {@code /actuator/health/readiness} сообщает о готовности только после прогрева.
+ * <p>
+ * Первые запросы к репозиториям строят SQL-планы Hibernate и открывают соединения пула, первый вызов
+ * Bot API устанавливает TLS-соединение и загружает классы клиента, а диспетчер загружает ожидающие
+ * напоминания. Без прогрева всё это доставалось первому пользователю после выкладки.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class StartupWarmup implements ApplicationRunner {
+
+    // идентификатор чата, которого не бывает в Telegram: запросы прогрева ничего не находят
+    private static final long WARMUP_CHAT_ID = 0L;
+
+    private static final String SAMPLE_UPDATE = "{\"update_id\":0,\"message\":{\"message_id\":0,\"date\":0," +
+            "\"chat\":{\"id\":0,\"type\":\"private\"},\"text\":\"01.01.2099 10:00 Прогрев\"}}";
+
+    private final ReminderRepository reminderRepository;
+    private final ReminderJdbcRepository jdbcRepository;
+    private final ChatSettingsRepository chatSettingsRepository;
+    private final TelegramBot telegramBot;
+    private final ReminderDispatcher dispatcher;
+    private final ConfigurableApplicationContext context;
+
+    @Value("${telegram.bot.warmup.enabled:true}")
+    private boolean enabled = true;
+
+    /**
+     * Сколько ждать ответа Bot API и загрузки напоминаний диспетчером; по истечении бот всё равно становится готов.
+     */
+    @Value("${telegram.bot.warmup.timeout:PT10S}")
+    private Duration timeout = Duration.ofSeconds(10);
+
+    /**
+     * Завершить приложение после прогрева: тренировочный запуск для архива AppCDS.
+     */
+    @Value("${telegram.bot.warmup.exit:false}")
+    private boolean exitAfterWarmup;
+
+    @Override
+    public void run(ApplicationArguments args) throws InterruptedException {
+        if (!enabled) {
+            return;
+        }
+        long start = System.nanoTime();
+        CompletableFuture<String> botName = callBotApi();
+        warmRepositories();
+        warmParsing();
+        if (!dispatcher.awaitLoaded(timeout)) {
+            log.warn("Диспетчер не загрузил ожидающие напоминания за {}", timeout);
+        }
+        awaitBotApi(botName);
+        log.info("Прогрев завершён за {} мс", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+
+        if (exitAfterWarmup) {
+            log.info("telegram.bot.warmup.exit=true, приложение завершается после прогрева");
+            System.exit(SpringApplication.exit(context));
+        }
+    }
+
+    /**
+     * Запросы горячего пути: список задач (/my_tasks), настройки чата и keyset-страница экспорта.
+     */
+    void warmRepositories() {
+        reminderRepository.findPendingViews(WARMUP_CHAT_ID, PageRequest.of(0, ReminderService.TASKS_PAGE_SIZE));
+        chatSettingsRepository.findById(WARMUP_CHAT_ID);
+        jdbcRepository.findPendingPage(WARMUP_CHAT_ID, null, 1);
+    }
+
+    /**
+     * Разбор JSON обновления (Gson) и текста напоминания ({@link ReminderMessageParser}): классы разбора
+     * загружаются до первого сообщения.
+     */
+    void warmParsing() {
+        ReminderMessageParser.parse(BotUtils.parseUpdate(SAMPLE_UPDATE).message().text());
+    }
+
+    /**
+     * getMe не меняет состояния бота, но проходит весь путь клиента: DNS, TLS, HTTP/2 и разбор ответа.
+     */
+    private CompletableFuture<String> callBotApi() {
+        CompletableFuture<String> botName = new CompletableFuture<>();
+        telegramBot.execute(new GetMe(), new Callback<GetMe, GetMeResponse>() {
+            @Override
+            public void onResponse(GetMe request, GetMeResponse response) {
+                botName.complete(response.isOk() ? response.user().username() : response.description());
+            }
+
+            @Override
+            public void onFailure(GetMe request, IOException e) {
+                botName.completeExceptionally(e);
+            }
+        });
+        return botName;
+    }
+
+    private void awaitBotApi(CompletableFuture<String> botName) throws InterruptedException {
+        try {
+            log.info("Bot API отвечает: {}", botName.get(timeout.toMillis(), TimeUnit.MILLISECONDS));
+        } catch (TimeoutException e) {
+            log.warn("Bot API не ответил за {}", timeout);
+        } catch (ExecutionException e) {
+            log.warn("Bot API недоступен при прогреве: {}", e.getCause().getMessage());
+        }
+    }
+}
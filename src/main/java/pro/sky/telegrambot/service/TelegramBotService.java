@@ -1,54 +1,273 @@
 package pro.sky.telegrambot.service;
 
+import com.pengrad.telegrambot.Callback;
 import com.pengrad.telegrambot.TelegramBot;
 import com.pengrad.telegrambot.UpdatesListener;
+import com.pengrad.telegrambot.model.CallbackQuery;
+import com.pengrad.telegrambot.model.Message;
 import com.pengrad.telegrambot.model.Update;
+import com.pengrad.telegrambot.model.request.InlineKeyboardButton;
+import com.pengrad.telegrambot.model.request.InlineKeyboardMarkup;
+import com.pengrad.telegrambot.request.AnswerCallbackQuery;
+import com.pengrad.telegrambot.request.EditMessageText;
 import com.pengrad.telegrambot.request.SendMessage;
+import com.pengrad.telegrambot.request.SetWebhook;
+import com.pengrad.telegrambot.response.BaseResponse;
+import com.pengrad.telegrambot.response.SendResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
-import pro.sky.telegrambot.Reminder;
+import pro.sky.telegrambot.ReminderView;
+import pro.sky.telegrambot.configuration.SamplingTurboFilter;
 
 import javax.annotation.PostConstruct;
 
-import java.time.LocalDateTime;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.DateTimeException;
+import java.time.Duration;
+import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
-import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Base64;
 import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class TelegramBotService {
 
+    private static final String TASKS_PAGE_CALLBACK = "tasks:";
+
+    private static final String TIMEZONE_COMMAND = "/timezone";
+
+    private static final String REMINDER_COMMAND = "reminder";
+
+    //длинные тексты обрезаются, чтобы страница не превысила лимит Telegram в 4096 символов
+    private static final int MAX_TASK_PREVIEW = 300;
+
+    private static final DateTimeFormatter TASK_TIME_FORMATTER = DateTimeFormatter.ofPattern("dd.MM.yyyy HH:mm");
+
     private final TelegramBot telegramBot;
     private final ReminderService reminderService;
+    private final ChatLaneExecutor chatLanes;
+    private final ChatSettingsService chatSettings;
+    private final BotMetrics metrics;
+
+    // ответы на напоминания, запись которых ещё не подтверждена, в порядке сообщений чата
+    private final ConcurrentMap<Long, Queue<PendingReply>> pendingReplies = new ConcurrentHashMap<>();
+
+    /**
+     * Сколько /my_tasks ждёт фиксации только что отправленных напоминаний чата.
+     */
+    @Value("${telegram.bot.write-behind.read-timeout:PT5S}")
+    private Duration pendingWriteTimeout = Duration.ofSeconds(5);
+
+    @Value("${telegram.bot.mode:polling}")
+    private UpdateMode mode = UpdateMode.POLLING;
+
+    @Value("${telegram.bot.webhook-url:}")
+    private String webhookUrl;
+
+    @Value("${telegram.bot.webhook-path:/webhook}")
+    private String webhookPath;
+
+    /**
+     * Секрет, который Telegram присылает в {@value #SECRET_TOKEN_HEADER}; пусто - случайный на время работы процесса.
+     */
+    @Value("${telegram.bot.webhook-secret:}")
+    private String webhookSecret;
+
+    public static final String SECRET_TOKEN_HEADER = "X-Telegram-Bot-Api-Secret-Token";
 
     @PostConstruct
     public void init() {
-        telegramBot.setUpdatesListener(updates -> {
-            processUpdates(updates);
-            return UpdatesListener.CONFIRMED_UPDATES_ALL;
-        });
+        if (mode == UpdateMode.WEBHOOK) {
+            if (webhookSecret == null || webhookSecret.isBlank()) {
+                webhookSecret = randomSecret();
+            }
+            return;
+        }
+        telegramBot.setUpdatesListener(this::processUpdates);
         log.info("Telegram bot инициализирован");
     }
 
-    void processUpdates(List<Update> updates) {
-        updates.forEach(update -> {
-            if (update.message() != null && update.message().text() != null) {
-                processMesage(update.message().chat().id(), update.message().text());
+    /**
+     * Регистрирует webhook после старта и не задерживает запуск сетевым вызовом.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void registerWebhook() {
+        if (mode != UpdateMode.WEBHOOK) {
+            return;
+        }
+        String url = webhookUrl + webhookPath;
+        telegramBot.execute(new SecretSetWebhook(url, webhookSecret), new Callback<SetWebhook, BaseResponse>() {
+            @Override
+            public void onResponse(SetWebhook request, BaseResponse response) {
+                if (response.isOk()) {
+                    log.info("Telegram bot инициализирован, webhook {}", url);
+                } else {
+                    log.error("Не удалось зарегистрировать webhook {}: {}", url, response.description());
+                }
+            }
+
+            @Override
+            public void onFailure(SetWebhook request, IOException e) {
+                log.error("Не удалось зарегистрировать webhook {}: {}", url, e.getMessage());
             }
         });
     }
 
+    /**
+     * Проверяет заголовок {@value #SECRET_TOKEN_HEADER}: без него любой, кто знает путь webhook,
+     * мог бы прислать поддельное обновление от имени произвольного чата.
+     */
+    public boolean isWebhookSecretValid(String token) {
+        return token != null && webhookSecret != null && MessageDigest.isEqual(
+                token.getBytes(StandardCharsets.UTF_8), webhookSecret.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String randomSecret() {
+        byte[] bytes = new byte[32];
+        new SecureRandom().nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    /**
+     * Ставит обновление из webhook в очередь обработки.
+     *
+     * @return {@code false}, если очередь переполнена
+     */
+    public boolean submitUpdate(Update update) {
+        try {
+            submit(update);
+            return true;
+        } catch (RejectedExecutionException e) {
+            log.warn("Очередь обработки обновлений переполнена, обновление {} отклонено", update.updateId());
+            return false;
+        }
+    }
+
+    /**
+     * Раскладывает пачку long polling по полосам чатов и ждёт её обработки, включая фиксацию
+     * новых напоминаний из буфера отложенной записи: после сбоя незаписанное Telegram пришлёт повторно.
+     * Если полоса переполнена, пачка обрезается: подтверждаются только обновления,
+     * поставленные в обработку, остальные Telegram пришлёт повторно.
+     *
+     * @return идентификатор последнего подтверждаемого обновления для {@link UpdatesListener}
+     */
+    int processUpdates(List<Update> updates) {
+        List<CompletableFuture<Void>> submitted = new ArrayList<>(updates.size());
+        int confirmed = UpdatesListener.CONFIRMED_UPDATES_NONE;
+        for (Update update : updates) {
+            try {
+                submitted.add(submit(update));
+            } catch (RejectedExecutionException e) {
+                log.warn("Очередь обработки обновлений переполнена, обновление {} будет получено повторно",
+                        update.updateId());
+                break;
+            }
+            confirmed = update.updateId();
+        }
+        CompletableFuture.allOf(submitted.toArray(new CompletableFuture<?>[0])).join();
+        return submitted.size() == updates.size() ? UpdatesListener.CONFIRMED_UPDATES_ALL : confirmed;
+    }
+
+    // завершается, когда полоса обработала обновление и новое напоминание зафиксировано
+    private CompletableFuture<Void> submit(Update update) {
+        AtomicReference<CompletableFuture<Void>> saved = new AtomicReference<>(CompletableFuture.completedFuture(null));
+        return chatLanes.submit(chatIdOf(update), () -> saved.set(processUpdate(update)))
+                .thenCompose(ignored -> saved.get());
+    }
+
+    private static Long chatIdOf(Update update) {
+        if (update.message() != null) {
+            return update.message().chat().id();
+        }
+        if (update.callbackQuery() != null && update.callbackQuery().message() != null) {
+            return update.callbackQuery().message().chat().id();
+        }
+        return null;
+    }
+
+    /**
+     * Для напоминаний время в {@code telegram.updates} считается до фиксации записи и постановки ответа,
+     * а не до передачи в буфер отложенной записи.
+     *
+     * @return завершается, когда новое напоминание зафиксировано в БД или отклонено; для остальных
+     * обновлений уже завершён
+     */
+    CompletableFuture<Void> processUpdate(Update update) {
+        long start = System.nanoTime();
+        String command = null;
+        try {
+            if (update.message() != null && update.message().text() != null) {
+                command = commandOf(update.message().text());
+                if (REMINDER_COMMAND.equals(command)) {
+                    command = null;
+                    PendingReply reply = processReminderMessage(update.message().chat().id(),
+                            update.message().text());
+                    reply.replied.whenComplete((ignored, error) ->
+                            metrics.recordUpdate(REMINDER_COMMAND, System.nanoTime() - start));
+                    return reply.saved.handle((success, error) -> null);
+                } else {
+                    processMesage(update.message().chat().id(), update.message().text());
+                }
+            } else if (update.callbackQuery() != null) {
+                command = "callback";
+                processCallbackQuery(update.callbackQuery());
+            }
+        } catch (Exception e) {
+            log.error("Ошибка обработки обновления {}", update.updateId(), e);
+        } finally {
+            if (command != null) {
+                metrics.recordUpdate(command, System.nanoTime() - start);
+            }
+        }
+        return CompletableFuture.completedFuture(null);
+    }
+
+    //ограниченный набор значений тега, чтобы произвольный текст не плодил временные ряды
+    private static String commandOf(String text) {
+        if ("/start".equals(text)) {
+            return "start";
+        }
+        if ("/my_tasks".equals(text)) {
+            return "my_tasks";
+        }
+        if (text.startsWith(TIMEZONE_COMMAND)) {
+            return "timezone";
+        }
+        return REMINDER_COMMAND;
+    }
+
     void processMesage(Long chatId, String text) {
-        log.info("Получено сообщение: {} из чата {}", text, chatId);
+        log.debug(SamplingTurboFilter.SAMPLED, "Получено сообщение chat_id={} length={}", chatId, text.length());
 
         if ("/start".equals(text)) {
             sendWelcomeMessage(chatId);
         } else if ("/my_tasks".equals(text)) {
             showUserReminders(chatId);
+        } else if (text.startsWith(TIMEZONE_COMMAND)) {
+            processTimezoneCommand(chatId, text.substring(TIMEZONE_COMMAND.length()).trim());
         } else {
             processReminderMessage(chatId, text);
         }
@@ -59,14 +278,118 @@ public class TelegramBotService {
                 "Отправь мне сообщение в формате:\n" +
                 "01.01.2022 20:00 Сделать домашнюю работу\n\n" +
                 "И я напомню тебе в указанное время!\n\n" +
+                "Для повтора начни текст с ежедневно, по будням, еженедельно, ежемесячно или cron(...):\n" +
+                "01.01.2022 09:00 ежедневно Выпить витамины\n\n" +
                 "Команды:\n" +
                 "/start - показать это сообщение\n" +
-                "/my_tasks - показать мои напоминания";
+                "/my_tasks - показать мои напоминания\n" +
+                "/timezone Europe/Moscow - указать свой часовой пояс";
         sendMessage(chatId, message);
     }
 
-    void processReminderMessage(Long chatId, String text) {
-        boolean success = reminderService.parseAndSaveReminder(chatId, text);
+    void processTimezoneCommand(Long chatId, String zoneId) {
+        if (zoneId.isEmpty()) {
+            sendMessage(chatId, "Ваш часовой пояс: " + chatSettings.zoneOf(chatId).getId() + "\n\n" +
+                    "Чтобы изменить, отправьте, например:\n/timezone Europe/Moscow");
+            return;
+        }
+        try {
+            ZoneId zone = chatSettings.setZone(chatId, zoneId);
+            sendMessage(chatId, "Часовой пояс изменён на " + zone.getId() +
+                    ". Время новых напоминаний будет считаться по нему.");
+        } catch (DateTimeException e) {
+            sendMessage(chatId, "Неизвестный часовой пояс: " + zoneId + "\n" +
+                    "Используйте название из базы IANA, например Europe/Moscow или Asia/Yekaterinburg");
+        }
+    }
+
+    /**
+     * Напоминание сохраняется через буфер отложенной записи, поэтому полоса чата не ждёт фиксации
+     * транзакции: ответ ставится в ту же полосу, когда запись подтверждена. Ответы чата уходят в порядке
+     * сообщений, а /my_tasks сначала дожидается их, см. {@link #awaitPendingReplies}.
+     *
+     * @return запись и ответ: {@code saved} завершается при фиксации, {@code replied} - после ответа пользователю
+     */
+    private PendingReply processReminderMessage(Long chatId, String text) {
+        PendingReply reply = new PendingReply(reminderService.parseAndSaveReminderAsync(chatId, text));
+        pendingReplies.compute(chatId, (id, queue) -> {
+            Queue<PendingReply> replies = queue != null ? queue : new ConcurrentLinkedQueue<>();
+            replies.add(reply);
+            return replies;
+        });
+        if (reply.saved.isDone()) {
+            sendReadyReplies(chatId);
+            return reply;
+        }
+        reply.saved.whenComplete((success, error) -> {
+            try {
+                chatLanes.submit(chatId, () -> sendReadyReplies(chatId));
+            } catch (RejectedExecutionException e) {
+                replyToReminder(chatId, reply);
+                pendingReplies.computeIfPresent(chatId, (id, queue) -> {
+                    queue.remove(reply);
+                    return queue.isEmpty() ? null : queue;
+                });
+            }
+        });
+        return reply;
+    }
+
+    // ответы отправляются по порядку сообщений: подтверждённая запись ждёт, пока ответят на более ранние
+    private void sendReadyReplies(Long chatId) {
+        Queue<PendingReply> replies = pendingReplies.get(chatId);
+        if (replies == null) {
+            return;
+        }
+        PendingReply head;
+        while ((head = replies.peek()) != null && head.saved.isDone()) {
+            replyToReminder(chatId, head);
+            replies.remove(head);
+        }
+        pendingReplies.computeIfPresent(chatId, (id, queue) -> queue.isEmpty() ? null : queue);
+    }
+
+    /**
+     * Дожидается фиксации ещё не записанных напоминаний чата и отправляет ответы на них, чтобы список
+     * задач показал только что созданные напоминания и пришёл после подтверждений. Вызывается из полосы чата.
+     */
+    void awaitPendingReplies(Long chatId) {
+        Queue<PendingReply> replies = pendingReplies.get(chatId);
+        if (replies == null) {
+            return;
+        }
+        for (PendingReply reply : replies) {
+            try {
+                reply.saved.get(pendingWriteTimeout.toMillis(), TimeUnit.MILLISECONDS);
+            } catch (ExecutionException e) {
+                // ошибка записи сообщается в ответе на само напоминание
+            } catch (TimeoutException e) {
+                log.warn("Запись напоминаний chat_id={} не подтверждена за {}", chatId, pendingWriteTimeout);
+                break;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        sendReadyReplies(chatId);
+    }
+
+    private void replyToReminder(Long chatId, PendingReply reply) {
+        if (reply.claim()) {
+            replyToReminder(chatId, reply.saved);
+            reply.replied.complete(null);
+        }
+    }
+
+    private void replyToReminder(Long chatId, CompletableFuture<Boolean> saved) {
+        boolean success;
+        try {
+            success = saved.join();
+        } catch (CompletionException e) {
+            log.error("Не удалось сохранить напоминание для chat_id={}", chatId, e.getCause());
+            sendMessage(chatId, "Не удалось сохранить напоминание, попробуйте ещё раз");
+            return;
+        }
 
         if (success) {
             sendMessage(chatId, "Напоминание успешно создано!");
@@ -78,47 +401,134 @@ public class TelegramBotService {
     }
 
     void showUserReminders(Long chatId) {
-        var reminders = reminderService.getUserReminders(chatId);
+        awaitPendingReplies(chatId);
+        Slice<ReminderView> reminders = reminderService.getUserReminders(chatId, 0);
 
         if (reminders.isEmpty()) {
             sendMessage(chatId, "Нет активных напоминаний");
             return;
         }
-        StringBuilder message = new StringBuilder("Напоминания: \n\n");
-        for (Reminder reminder : reminders) {
-            message.append(String.format("%s: %s\n",
-                    reminder.getReminderDateTime().format(DateTimeFormatter.ofPattern("dd.MM.yyyy HH:mm")),
-                    reminder.getMessageText()));
-        }
-        sendMessage(chatId, message.toString());
+        sendMessage(chatId, formatReminders(reminders, chatSettings.zoneOf(chatId)), reminders.hasNext() ? pagingKeyboard(reminders) : null);
     }
 
-    @Scheduled(cron = "0 * * * * *") //проверка каждую минуту
-    public void scheduleCheckAndSendReminders() {
-        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MINUTES);
-        List<Reminder> remindersToSend = reminderService.getRemindersToSend(now);
+    void processCallbackQuery(CallbackQuery callbackQuery) {
+        String data = callbackQuery.data();
+        Message message = callbackQuery.message();
+        if (data == null || !data.startsWith(TASKS_PAGE_CALLBACK) || message == null) {
+            return;
+        }
+        Long chatId = message.chat().id();
+        int page;
+        try {
+            page = Math.max(0, Integer.parseInt(data.substring(TASKS_PAGE_CALLBACK.length())));
+        } catch (NumberFormatException e) {
+            log.warn("Некорректные данные кнопки: {}", data);
+            return;
+        }
 
-        log.info("Найдено {} напоминаний для отправки.", remindersToSend.size());
+        awaitPendingReplies(chatId);
+        Slice<ReminderView> reminders = reminderService.getUserReminders(chatId, page);
+        if (reminders.isEmpty() && page > 0) {
+            // часть напоминаний уже отправлена, страница опустела
+            reminders = reminderService.getUserReminders(chatId, 0);
+        }
+        String text = reminders.isEmpty()
+                ? "Нет активных напоминаний"
+                : formatReminders(reminders, chatSettings.zoneOf(chatId));
+        try {
+            long start = System.nanoTime();
+            BaseResponse edited = telegramBot.execute(new EditMessageText(chatId, message.messageId(), text)
+                    .replyMarkup(pagingKeyboard(reminders)));
+            metrics.recordApiCall("editMessageText", edited != null && edited.isOk(), System.nanoTime() - start);
+            telegramBot.execute(new AnswerCallbackQuery(callbackQuery.id()));
+        } catch (Exception e) {
+            log.error("Не удалось обновить список напоминаний в чате {}", chatId, e);
+        }
+    }
 
-        if (!remindersToSend.isEmpty()) {
-            for (Reminder reminder : remindersToSend) {
-                String message = String.format("Напоминание: %s", reminder.getMessageText());
-                sendMessage(reminder.getChatId(), message);
+    private static String formatReminders(Slice<ReminderView> reminders, ZoneId zone) {
+        StringBuilder message = new StringBuilder(64 * (reminders.getNumberOfElements() + 1));
+        message.append("Напоминания (страница ").append(reminders.getNumber() + 1).append("): \n\n");
+        for (ReminderView reminder : reminders) {
+            TASK_TIME_FORMATTER.formatTo(reminder.getReminderDateTime().atZone(zone), message);
+            message.append(": ");
+            String text = reminder.getMessageText();
+            if (text.length() > MAX_TASK_PREVIEW) {
+                message.append(text, 0, MAX_TASK_PREVIEW).append('…');
+            } else {
+                message.append(text);
+            }
+            if (reminder.getRecurrence() != null) {
+                message.append(" 🔁");
             }
-            reminderService.markAsSent(remindersToSend); //отмечаем отправленные
+            message.append('\n');
+        }
+        return message.toString();
+    }
+
+    private static InlineKeyboardMarkup pagingKeyboard(Slice<ReminderView> reminders) {
+        List<InlineKeyboardButton> buttons = new ArrayList<>(2);
+        if (reminders.hasPrevious()) {
+            buttons.add(new InlineKeyboardButton("◀ Назад")
+                    .callbackData(TASKS_PAGE_CALLBACK + (reminders.getNumber() - 1)));
+        }
+        if (reminders.hasNext()) {
+            buttons.add(new InlineKeyboardButton("Вперёд ▶")
+                    .callbackData(TASKS_PAGE_CALLBACK + (reminders.getNumber() + 1)));
+        }
+        if (buttons.isEmpty()) {
+            // пустая клавиатура убирает кнопки у редактируемого сообщения
+            return new InlineKeyboardMarkup(new InlineKeyboardButton[0][]);
         }
+        return new InlineKeyboardMarkup(buttons.toArray(new InlineKeyboardButton[0]));
     }
 
     public void sendMessage(Long chatId, String message) {
+        sendMessage(chatId, message, null);
+    }
+
+    void sendMessage(Long chatId, String message, InlineKeyboardMarkup keyboard) {
         try {
             SendMessage sendMessage = new SendMessage(chatId, message);
-            telegramBot.execute(sendMessage);
-            log.info("Напоминание отправленное в чат {}: {}", chatId, message);
+            if (keyboard != null) {
+                sendMessage.replyMarkup(keyboard);
+            }
+            long start = System.nanoTime();
+            SendResponse response = telegramBot.execute(sendMessage);
+            metrics.recordApiCall("sendMessage", response != null && response.isOk(), System.nanoTime() - start);
+            log.debug(SamplingTurboFilter.SAMPLED, "Сообщение отправлено chat_id={} length={}", chatId, message.length());
         } catch (Exception e) {
             log.error("Не удалось отправить напоминание в чат {}: {}", chatId, e);
         }
 
     }
 
+    /**
+     * setWebhook с secret_token: в java-telegram-bot-api 5.7.0 у {@link SetWebhook} нет метода для этого параметра.
+     */
+    static final class SecretSetWebhook extends SetWebhook {
+
+        SecretSetWebhook(String url, String secretToken) {
+            url(url);
+            add("secret_token", secretToken);
+        }
+    }
+
+    private static final class PendingReply {
 
+        private final CompletableFuture<Boolean> saved;
+
+        private final CompletableFuture<Void> replied = new CompletableFuture<>();
+
+        // ответ может отправить полоса чата или, если полоса отказала, поток записи - но только один раз
+        private final AtomicBoolean claimed = new AtomicBoolean();
+
+        private PendingReply(CompletableFuture<Boolean> saved) {
+            this.saved = saved;
+        }
+
+        private boolean claim() {
+            return claimed.compareAndSet(false, true);
+        }
+    }
 }
@@ -0,0 +1,55 @@
+package pro.sky.telegrambot.service;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Непрерывно пополняемый токен-бакет. {@link #reserve()} всегда забирает токен
+ * (баланс может уйти в минус) и возвращает, сколько нужно подождать до его наступления,
+ * поэтому последовательные резервирования выстраиваются в очередь без потери порядка.
+ */
+class TokenBucket {
+
+    private final double capacity;
+    private final double tokensPerNano;
+
+    private double tokens;
+    private long lastRefill;
+
+    TokenBucket(double permitsPerSecond, double capacity) {
+        this.capacity = capacity;
+        this.tokensPerNano = permitsPerSecond / TimeUnit.SECONDS.toNanos(1);
+        this.tokens = capacity;
+        this.lastRefill = System.nanoTime();
+    }
+
+    /**
+     * @return задержка в наносекундах, после которой зарезервированный токен можно использовать
+     */
+    synchronized long reserve() {
+        refill();
+        tokens -= 1;
+        return tokens >= 0 ? 0 : (long) Math.ceil(-tokens / tokensPerNano);
+    }
+
+    /**
+     * Запрещает выдачу токенов на заданное время (ответ 429 с retry_after).
+     */
+    synchronized void pause(long nanos) {
+        refill();
+        tokens = Math.min(tokens, 0) - nanos * tokensPerNano;
+    }
+
+    /**
+     * Бакет полон и ничем не отличается от только что созданного.
+     */
+    synchronized boolean isIdle() {
+        refill();
+        return tokens >= capacity;
+    }
+
+    private void refill() {
+        long now = System.nanoTime();
+        tokens = Math.min(capacity, tokens + (now - lastRefill) * tokensPerNano);
+        lastRefill = now;
+    }
+}
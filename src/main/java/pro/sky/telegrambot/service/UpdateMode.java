@@ -0,0 +1,17 @@
+package pro.sky.telegrambot.service;
+
+/**
+ * Способ получения обновлений от Telegram ({@code telegram.bot.mode}).
+ */
+public enum UpdateMode {
+
+    /**
+     * Long polling через {@code getUpdates}.
+     */
+    POLLING,
+
+    /**
+     * Telegram сам присылает обновления на {@code telegram.bot.webhook-path}.
+     */
+    WEBHOOK
+}
@@ -0,0 +1,79 @@
+package pro.sky.telegrambot;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.availability.ApplicationAvailability;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import pro.sky.telegrambot.service.TelegramBotService;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Время от старта приложения до первого ответа пользователю: подъём контекста с прогревом,
+ * затем /start через webhook и ожидание sendMessage на заглушке Bot API.
+ * Запуск: {@code ./mvnw test -Pbenchmark -Dtest=BootToFirstReplyBenchmarkTest}; сравнение без прогрева -
+ * тот же запуск с {@code -Dtelegram.bot.warmup.enabled=false} (в отдельной JVM, иначе классы уже загружены).
+ */
+@Tag("benchmark")
+public class BootToFirstReplyBenchmarkTest {
+
+    private static final long REPLY_TIMEOUT_MS = TimeUnit.SECONDS.toMillis(30);
+
+    @Test
+    void measureBootToFirstReply() throws Exception {
+        try (StubTelegramApi telegram = new StubTelegramApi(0)) {
+            long start = System.nanoTime();
+            ConfigurableApplicationContext context = new SpringApplicationBuilder(TelegramBotApplication.class)
+                    .properties(
+                            "server.port=0",
+                            "telegram.bot.token=123456:boot-test",
+                            "telegram.bot.mode=webhook",
+                            "telegram.bot.webhook-url=http://127.0.0.1",
+                            "telegram.bot.webhook-path=/webhook",
+                            "telegram.bot.webhook-secret=boot-test-secret",
+                            "telegram.bot.http.api-url=" + telegram.apiUrl(),
+                            "logging.level.pro.sky.telegrambot=WARN")
+                    .run();
+            try {
+                long ready = System.nanoTime();
+                assertEquals(ReadinessState.ACCEPTING_TRAFFIC,
+                        context.getBean(ApplicationAvailability.class).getReadinessState());
+
+                int port = context.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+                String update = "{\"update_id\":1,\"message\":{\"message_id\":1,\"date\":0," +
+                        "\"chat\":{\"id\":1,\"type\":\"private\"},\"text\":\"/start\"}}";
+                HttpResponse<Void> response = HttpClient.newHttpClient().send(
+                        HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + port + "/webhook"))
+                                .header("Content-Type", "application/json")
+                                .header(TelegramBotService.SECRET_TOKEN_HEADER, "boot-test-secret")
+                                .POST(HttpRequest.BodyPublishers.ofString(update))
+                                .build(),
+                        HttpResponse.BodyHandlers.discarding());
+                assertEquals(200, response.statusCode());
+
+                long deadline = System.currentTimeMillis() + REPLY_TIMEOUT_MS;
+                while (telegram.requestCount("sendMessage") == 0 && System.currentTimeMillis() < deadline) {
+                    Thread.sleep(1);
+                }
+                long replied = System.nanoTime();
+                assertTrue(telegram.requestCount("sendMessage") > 0, "Ответ на /start не отправлен");
+
+                System.out.printf("Готовность через %d мс, первый ответ через %d мс после готовности, всего %d мс%n",
+                        TimeUnit.NANOSECONDS.toMillis(ready - start),
+                        TimeUnit.NANOSECONDS.toMillis(replied - ready),
+                        TimeUnit.NANOSECONDS.toMillis(replied - start));
+            } finally {
+                context.close();
+            }
+        }
+    }
+}
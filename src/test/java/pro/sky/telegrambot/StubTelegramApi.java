@@ -0,0 +1,86 @@
+package pro.sky.telegrambot;
+
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Локальная заглушка Bot API для нагрузочных тестов: на любой метод отвечает успешным SendMessage.
+ * Подключается через {@code new TelegramBot.Builder(token).apiUrl(stub.apiUrl())}.
+ */
+public class StubTelegramApi implements AutoCloseable {
+
+    private static final byte[] OK_RESPONSE = ("{\"ok\":true,\"result\":{\"message_id\":1,\"date\":0," +
+            "\"chat\":{\"id\":1,\"type\":\"private\"},\"text\":\"ok\"}}").getBytes(StandardCharsets.UTF_8);
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final AtomicInteger requests = new AtomicInteger();
+    private final ConcurrentMap<String, AtomicInteger> requestsByMethod = new ConcurrentHashMap<>();
+
+    public StubTelegramApi(long latencyMillis) throws IOException {
+        this(latencyMillis, Executors.newFixedThreadPool(64));
+    }
+
+    /**
+     * @param executor обработчик запросов; от него зависит, сколько ответов заглушка задерживает одновременно
+     */
+    public StubTelegramApi(long latencyMillis, ExecutorService executor) throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 16_384);
+        this.executor = executor;
+        server.setExecutor(executor);
+        server.createContext("/", exchange -> {
+            try (InputStream body = exchange.getRequestBody()) {
+                body.readAllBytes();
+            }
+            if (latencyMillis > 0) {
+                try {
+                    Thread.sleep(latencyMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            requests.incrementAndGet();
+            String path = exchange.getRequestURI().getPath();
+            requestsByMethod.computeIfAbsent(path.substring(path.lastIndexOf('/') + 1), method -> new AtomicInteger())
+                    .incrementAndGet();
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, OK_RESPONSE.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(OK_RESPONSE);
+            }
+        });
+        server.start();
+    }
+
+    public String apiUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/bot";
+    }
+
+    public int requestCount() {
+        return requests.get();
+    }
+
+    /**
+     * @param method метод Bot API, например {@code sendMessage}
+     */
+    public int requestCount(String method) {
+        AtomicInteger count = requestsByMethod.get(method);
+        return count == null ? 0 : count.get();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+}
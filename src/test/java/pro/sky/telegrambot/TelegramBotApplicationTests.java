@@ -3,7 +3,11 @@ package pro.sky.telegrambot;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 
-@SpringBootTest
+// Bot API направлен на закрытый локальный порт: опрос и прогрев не выходят в сеть
+@SpringBootTest(properties = {
+		"telegram.bot.token=123456:test-token",
+		"telegram.bot.http.api-url=http://127.0.0.1:9/bot"
+})
 class TelegramBotApplicationTests {
 
 	@Test
@@ -0,0 +1,47 @@
+package pro.sky.telegrambot.configuration;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.core.spi.FilterReply;
+import org.junit.jupiter.api.Test;
+import org.slf4j.MarkerFactory;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SamplingTurboFilterTest {
+
+    private final SamplingTurboFilter filter = new SamplingTurboFilter();
+
+    @Test
+    void testDecide_SamplesMarkedEvents() {
+        // Arrange
+        filter.setEvery(10);
+        int passed = 0;
+
+        // Act
+        for (int i = 0; i < 100_000; i++) {
+            if (filter.decide(SamplingTurboFilter.SAMPLED, null, Level.INFO, "", null, null) == FilterReply.NEUTRAL) {
+                passed++;
+            }
+        }
+
+        // Assert: около 10 000 из 100 000
+        assertTrue(passed > 9_000 && passed < 11_000, "прошло " + passed);
+    }
+
+    @Test
+    void testDecide_IgnoresUnmarkedEventsAndErrors() {
+        // Arrange
+        filter.setEvery(1_000_000);
+
+        // Act & Assert
+        assertEquals(FilterReply.NEUTRAL, filter.decide(null, null, Level.INFO, "", null, null));
+        assertEquals(FilterReply.NEUTRAL,
+                filter.decide(MarkerFactory.getMarker("OTHER"), null, Level.INFO, "", null, null));
+        assertEquals(FilterReply.NEUTRAL, filter.decide(SamplingTurboFilter.SAMPLED, null, Level.ERROR, "", null, null));
+    }
+
+    @Test
+    void testDecide_EveryOnePassesAll() {
+        assertEquals(FilterReply.NEUTRAL, filter.decide(SamplingTurboFilter.SAMPLED, null, Level.DEBUG, "", null, null));
+    }
+}
@@ -0,0 +1,63 @@
+package pro.sky.telegrambot.configuration;
+
+import com.pengrad.telegrambot.TelegramBot;
+import com.pengrad.telegrambot.request.SendMessage;
+import com.pengrad.telegrambot.response.SendResponse;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import pro.sky.telegrambot.StubTelegramApi;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TelegramBotConfigurationTest {
+
+    private final TelegramBotConfiguration configuration = new TelegramBotConfiguration();
+
+    @Test
+    void testHttpClient_LimitsFollowSenderInFlight() {
+        // Act
+        OkHttpClient client = configuration.httpClient();
+
+        // Assert
+        assertEquals(65, client.dispatcher().getMaxRequestsPerHost());
+        assertTrue(client.dispatcher().getMaxRequests() >= 65);
+        assertEquals(List.of(Protocol.HTTP_2, Protocol.HTTP_1_1), client.protocols());
+        assertEquals(10_000, client.connectTimeoutMillis());
+    }
+
+    @Test
+    void testHttpClient_ExplicitSettings() {
+        // Arrange
+        ReflectionTestUtils.setField(configuration, "maxRequestsPerHost", 200);
+        ReflectionTestUtils.setField(configuration, "http2", false);
+
+        // Act
+        OkHttpClient client = configuration.httpClient();
+
+        // Assert
+        assertEquals(200, client.dispatcher().getMaxRequestsPerHost());
+        assertEquals(200, client.dispatcher().getMaxRequests());
+        assertEquals(List.of(Protocol.HTTP_1_1), client.protocols());
+    }
+
+    @Test
+    void testTelegramBot_UsesCustomApiUrl() throws Exception {
+        try (StubTelegramApi stub = new StubTelegramApi(0)) {
+            // Arrange
+            ReflectionTestUtils.setField(configuration, "token", "123456:test-token");
+            ReflectionTestUtils.setField(configuration, "apiUrl", stub.apiUrl());
+
+            // Act
+            TelegramBot bot = configuration.telegramBot();
+            SendResponse response = bot.execute(new SendMessage(1L, "Проверка"));
+
+            // Assert
+            assertTrue(response.isOk());
+            assertEquals(1, stub.requestCount());
+        }
+    }
+}
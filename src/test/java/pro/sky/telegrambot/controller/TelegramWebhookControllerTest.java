@@ -0,0 +1,101 @@
+package pro.sky.telegrambot.controller;
+
+import com.pengrad.telegrambot.model.Update;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import pro.sky.telegrambot.service.TelegramBotService;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ExtendWith(MockitoExtension.class)
+public class TelegramWebhookControllerTest {
+
+    private static final String UPDATE_JSON = "{\"update_id\":1,\"message\":{\"message_id\":1,\"date\":0," +
+            "\"chat\":{\"id\":123456789,\"type\":\"private\"},\"text\":\"/start\"}}";
+    private static final String SECRET = "webhook-secret";
+
+    @Mock
+    private TelegramBotService telegramBotService;
+
+    @InjectMocks
+    private TelegramWebhookController controller;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.standaloneSetup(controller)
+                .addPlaceholderValue("telegram.bot.webhook-path", "/webhook")
+                .build();
+    }
+
+    @Test
+    void testReceiveUpdate_AcceptsUpdate() throws Exception {
+        // Arrange
+        when(telegramBotService.isWebhookSecretValid(SECRET)).thenReturn(true);
+        when(telegramBotService.submitUpdate(any(Update.class))).thenReturn(true);
+
+        // Act & Assert
+        mockMvc.perform(webhook().content(UPDATE_JSON))
+                .andExpect(status().isOk());
+        verify(telegramBotService, times(1)).submitUpdate(any(Update.class));
+    }
+
+    @Test
+    void testReceiveUpdate_QueueFull_ReturnsServiceUnavailable() throws Exception {
+        // Arrange
+        when(telegramBotService.isWebhookSecretValid(SECRET)).thenReturn(true);
+        when(telegramBotService.submitUpdate(any(Update.class))).thenReturn(false);
+
+        // Act & Assert
+        mockMvc.perform(webhook().content(UPDATE_JSON))
+                .andExpect(status().isServiceUnavailable());
+    }
+
+    @Test
+    void testReceiveUpdate_MalformedJson_ReturnsBadRequest() throws Exception {
+        // Arrange
+        when(telegramBotService.isWebhookSecretValid(SECRET)).thenReturn(true);
+
+        // Act & Assert
+        mockMvc.perform(webhook().content("{not json"))
+                .andExpect(status().isBadRequest());
+        verify(telegramBotService, never()).submitUpdate(any(Update.class));
+    }
+
+    @Test
+    void testReceiveUpdate_WrongSecret_ReturnsUnauthorized() throws Exception {
+        // Arrange
+        when(telegramBotService.isWebhookSecretValid("forged")).thenReturn(false);
+
+        // Act & Assert
+        mockMvc.perform(post("/webhook").contentType(MediaType.APPLICATION_JSON)
+                        .header(TelegramBotService.SECRET_TOKEN_HEADER, "forged").content(UPDATE_JSON))
+                .andExpect(status().isUnauthorized());
+        verify(telegramBotService, never()).submitUpdate(any(Update.class));
+    }
+
+    @Test
+    void testReceiveUpdate_MissingSecret_ReturnsUnauthorized() throws Exception {
+        // Act & Assert
+        mockMvc.perform(post("/webhook").contentType(MediaType.APPLICATION_JSON).content(UPDATE_JSON))
+                .andExpect(status().isUnauthorized());
+        verify(telegramBotService, never()).submitUpdate(any(Update.class));
+    }
+
+    private static MockHttpServletRequestBuilder webhook() {
+        return post("/webhook").contentType(MediaType.APPLICATION_JSON)
+                .header(TelegramBotService.SECRET_TOKEN_HEADER, SECRET);
+    }
+}
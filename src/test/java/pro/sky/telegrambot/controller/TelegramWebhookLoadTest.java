@@ -0,0 +1,80 @@
+package pro.sky.telegrambot.controller;
+
+import com.pengrad.telegrambot.TelegramBot;
+import com.pengrad.telegrambot.request.SendMessage;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import pro.sky.telegrambot.service.TelegramBotService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Нагрузочный тест webhook: синтетические обновления /start от разных чатов.
+ * Запуск: {@code ./mvnw test -Pbenchmark -Dtest=TelegramWebhookLoadTest}
+ */
+@Tag("benchmark")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "telegram.bot.token=123456:load-test",
+        "telegram.bot.mode=webhook",
+        "telegram.bot.webhook-path=/webhook",
+        "telegram.bot.webhook-secret=load-test-secret",
+        "telegram.bot.updates.queue-capacity=100000",
+        "telegram.bot.warmup.enabled=false",
+        "logging.level.pro.sky.telegrambot=WARN"
+})
+public class TelegramWebhookLoadTest {
+
+    private static final int UPDATES = 5_000;
+    private static final int CLIENTS = 16;
+
+    @MockBean
+    private TelegramBot telegramBot;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Test
+    void loadTestWebhook() throws Exception {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.set(TelegramBotService.SECRET_TOKEN_HEADER, "load-test-secret");
+        ExecutorService clients = Executors.newFixedThreadPool(CLIENTS);
+
+        long start = System.nanoTime();
+        List<Future<ResponseEntity<Void>>> responses = new ArrayList<>(UPDATES);
+        for (int i = 1; i <= UPDATES; i++) {
+            String body = "{\"update_id\":" + i + ",\"message\":{\"message_id\":" + i + ",\"date\":0," +
+                    "\"chat\":{\"id\":" + i + ",\"type\":\"private\"},\"text\":\"/start\"}}";
+            responses.add(clients.submit(() ->
+                    restTemplate.postForEntity("/webhook", new HttpEntity<>(body, headers), Void.class)));
+        }
+        for (Future<ResponseEntity<Void>> response : responses) {
+            assertEquals(200, response.get().getStatusCodeValue());
+        }
+        double acceptSeconds = (System.nanoTime() - start) / 1e9;
+        verify(telegramBot, timeout(TimeUnit.MINUTES.toMillis(2)).times(UPDATES)).execute(any(SendMessage.class));
+        double replySeconds = (System.nanoTime() - start) / 1e9;
+        clients.shutdown();
+
+        System.out.printf("Принято %d обновлений за %.2f с (%.0f req/s), ответы отправлены за %.2f с%n",
+                UPDATES, acceptSeconds, UPDATES / acceptSeconds, replySeconds);
+    }
+}
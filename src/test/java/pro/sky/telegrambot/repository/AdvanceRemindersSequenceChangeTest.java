@@ -0,0 +1,119 @@
+package pro.sky.telegrambot.repository;
+
+import liquibase.database.Database;
+import liquibase.database.DatabaseFactory;
+import liquibase.database.jvm.JdbcConnection;
+import liquibase.exception.CustomChangeException;
+import liquibase.util.ObjectUtil;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import pro.sky.telegrambot.Reminder;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AdvanceRemindersSequenceChangeTest {
+
+    private Connection connection;
+
+    private Database database;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        connection = DriverManager.getConnection("jdbc:h2:mem:advance-seq;DB_CLOSE_DELAY=-1");
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE SEQUENCE reminders_seq START WITH 50 INCREMENT BY 50");
+            statement.execute("CREATE TABLE reminders (id BIGINT PRIMARY KEY)");
+        }
+        database = DatabaseFactory.getInstance().findCorrectDatabaseImplementation(new JdbcConnection(connection));
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP ALL OBJECTS");
+        }
+        connection.close();
+    }
+
+    @Test
+    void testExecute_NextBlockStartsAfterIdentityIdsOfLegacyTable() throws Exception {
+        // Arrange
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE reminder (id BIGINT PRIMARY KEY)");
+            statement.execute("INSERT INTO reminder VALUES (1), (2), (137)");
+            statement.execute("INSERT INTO reminders VALUES (40)");
+        }
+        AdvanceRemindersSequenceChange change = new AdvanceRemindersSequenceChange();
+        change.setTableNames("reminder, reminders");
+
+        // Act
+        change.execute(database);
+
+        // Assert
+        long hi = nextValue();
+        assertEquals(137 + Reminder.ID_ALLOCATION_SIZE, hi);
+        assertEquals(138, hi - Reminder.ID_ALLOCATION_SIZE + 1);
+    }
+
+    @Test
+    void testExecute_SkipsMissingTables() throws Exception {
+        // Arrange
+        AdvanceRemindersSequenceChange change = new AdvanceRemindersSequenceChange();
+        change.setTableNames("reminder, reminders");
+
+        // Act
+        change.execute(database);
+
+        // Assert
+        assertEquals(Reminder.ID_ALLOCATION_SIZE, nextValue());
+    }
+
+    @Test
+    void testExecute_DoesNotMoveSequenceBackwards() throws Exception {
+        // Arrange: узлы уже разобрали блоки до 150, а строк с такими id ещё нет
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("INSERT INTO reminders VALUES (40)");
+        }
+        nextValue();
+        nextValue();
+        nextValue();
+        AdvanceRemindersSequenceChange change = new AdvanceRemindersSequenceChange();
+        change.setTableNames("reminders");
+
+        // Act
+        change.execute(database);
+
+        // Assert
+        assertEquals(200, nextValue());
+    }
+
+    @Test
+    void testTableNames_IsBoundByLiquibase() {
+        // Act & Assert: параметр changeSet попадает только в свойство с геттером и сеттером
+        assertTrue(ObjectUtil.hasProperty(new AdvanceRemindersSequenceChange(), "tableNames"));
+    }
+
+    @Test
+    void testValidate_AcceptsCallBeforeParametersAndExecuteRejectsMissingTables() {
+        // Arrange
+        AdvanceRemindersSequenceChange change = new AdvanceRemindersSequenceChange();
+
+        // Act & Assert
+        assertFalse(change.validate(database).hasErrors());
+        assertThrows(CustomChangeException.class, () -> change.execute(database));
+    }
+
+    private long nextValue() throws Exception {
+        try (Statement statement = connection.createStatement();
+             ResultSet result = statement.executeQuery("SELECT NEXT VALUE FOR reminders_seq")) {
+            result.next();
+            return result.getLong(1);
+        }
+    }
+}
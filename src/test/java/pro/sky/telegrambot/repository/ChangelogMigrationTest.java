@@ -0,0 +1,134 @@
+package pro.sky.telegrambot.repository;
+
+import liquibase.Contexts;
+import liquibase.Liquibase;
+import liquibase.database.Database;
+import liquibase.database.DatabaseFactory;
+import liquibase.database.jvm.JdbcConnection;
+import liquibase.resource.ClassLoaderResourceAccessor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import pro.sky.telegrambot.Reminder;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Прогоняет весь changelog на H2 так же, как при старте приложения, вместе с проверкой changeSet:
+ * ошибка в параметрах customChange или в SQL миграции не даст Spring подняться, и тест это поймает.
+ */
+public class ChangelogMigrationTest {
+
+    private static final String CHANGELOG = "db/changelog/changelog-master.yaml";
+
+    private static final String BASELINE_REMINDER_TABLE = "CREATE TABLE reminder (" +
+            "id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, chat_id BIGINT NOT NULL, " +
+            "message_text VARCHAR(1000) NOT NULL, reminder_date_time TIMESTAMP NOT NULL, " +
+            "created TIMESTAMP NOT NULL, sent BOOLEAN NOT NULL)";
+
+    private Connection connection;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        connection = DriverManager.getConnection("jdbc:h2:mem:changelog;DB_CLOSE_DELAY=-1");
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP ALL OBJECTS");
+        }
+        connection.close();
+    }
+
+    @Test
+    void testUpdate_EmptyDatabase_AppliesWholeChangelog() throws Exception {
+        // Act
+        update();
+
+        // Assert
+        assertEquals(0, count("SELECT COUNT(*) FROM reminders"));
+        assertEquals("MARK_RAN", execType("004-convert-legacy-reminder-times-to-utc"));
+        assertEquals("EXECUTED", execType("009-advance-reminders-seq"));
+    }
+
+    @Test
+    void testUpdate_BaselineReminderTable_MovesRowsToReminders() throws Exception {
+        // Arrange: таблица reminder в том виде, в каком её создавал Hibernate до changelog
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(BASELINE_REMINDER_TABLE);
+            statement.execute("INSERT INTO reminder (id, chat_id, message_text, reminder_date_time, created, sent) " +
+                    "VALUES (1, 10, 'Зарядка', TIMESTAMP '2024-01-01 12:00:00', TIMESTAMP '2023-12-31 03:00:00', " +
+                    "FALSE), (137, 11, 'Созвон', TIMESTAMP '2024-01-02 12:00:00', " +
+                    "TIMESTAMP '2023-12-31 03:00:00', TRUE)");
+        }
+
+        // Act
+        update();
+
+        // Assert
+        assertFalse(tableExists("REMINDER"));
+        assertEquals(2, count("SELECT COUNT(*) FROM reminders WHERE recurrence IS NULL"));
+        assertEquals(1, count("SELECT COUNT(*) FROM reminders WHERE id = 1 AND NOT is_sent " +
+                "AND reminder_date_time = TIMESTAMP '2024-01-01 09:00:00' " +
+                "AND created_at = TIMESTAMP '2023-12-31 00:00:00'"));
+        assertEquals(1, count("SELECT COUNT(*) FROM reminders WHERE id = 137 AND is_sent"));
+        assertEquals("MARK_RAN", execType("009-move-legacy-reminder-rows"));
+        assertEquals("EXECUTED", execType("009-move-legacy-reminder-rows-without-recurrence"));
+        assertEquals(137 + Reminder.ID_ALLOCATION_SIZE, count("SELECT NEXT VALUE FOR reminders_seq"));
+    }
+
+    @Test
+    void testUpdate_ReminderTableWithRecurrence_KeepsRecurrence() throws Exception {
+        // Arrange: промежуточный запуск с ddl-auto=update добавил колонку recurrence
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(BASELINE_REMINDER_TABLE);
+            statement.execute("ALTER TABLE reminder ADD COLUMN recurrence VARCHAR(64)");
+            statement.execute("INSERT INTO reminder VALUES (5, 10, 'Полить цветы', " +
+                    "TIMESTAMP '2024-01-01 12:00:00', TIMESTAMP '2023-12-31 03:00:00', FALSE, 'P1D')");
+        }
+
+        // Act
+        update();
+
+        // Assert
+        assertFalse(tableExists("REMINDER"));
+        assertEquals(1, count("SELECT COUNT(*) FROM reminders WHERE id = 5 AND recurrence = 'P1D'"));
+        assertEquals("EXECUTED", execType("009-move-legacy-reminder-rows"));
+        assertEquals("MARK_RAN", execType("009-move-legacy-reminder-rows-without-recurrence"));
+    }
+
+    private void update() throws Exception {
+        Database database = DatabaseFactory.getInstance()
+                .findCorrectDatabaseImplementation(new JdbcConnection(connection));
+        new Liquibase(CHANGELOG, new ClassLoaderResourceAccessor(), database).update(new Contexts());
+    }
+
+    private long count(String sql) throws Exception {
+        try (Statement statement = connection.createStatement();
+             ResultSet result = statement.executeQuery(sql)) {
+            result.next();
+            return result.getLong(1);
+        }
+    }
+
+    private boolean tableExists(String table) throws Exception {
+        try (ResultSet tables = connection.getMetaData().getTables(null, null, table, null)) {
+            return tables.next();
+        }
+    }
+
+    private String execType(String changeSetId) throws Exception {
+        try (Statement statement = connection.createStatement();
+             ResultSet result = statement.executeQuery(
+                     "SELECT EXECTYPE FROM DATABASECHANGELOG WHERE ID = '" + changeSetId + "'")) {
+            assertTrue(result.next(), "changeSet " + changeSetId + " не выполнялся");
+            return result.getString(1);
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package pro.sky.telegrambot.repository;
+
+import liquibase.database.Database;
+import liquibase.database.DatabaseFactory;
+import liquibase.database.jvm.JdbcConnection;
+import liquibase.exception.CustomChangeException;
+import liquibase.util.ObjectUtil;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LegacyReminderTimesToUtcChangeTest {
+
+    private Connection connection;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        connection = DriverManager.getConnection("jdbc:h2:mem:legacy-times;DB_CLOSE_DELAY=-1");
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE reminder (id BIGINT PRIMARY KEY, reminder_date_time TIMESTAMP NOT NULL, " +
+                    "created TIMESTAMP)");
+        }
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE reminder");
+        }
+        connection.close();
+    }
+
+    @Test
+    void testExecute_ConvertsEveryPageFromLegacyZoneToUtc() throws Exception {
+        // Arrange
+        int rows = 2500;
+        try (PreparedStatement insert = connection.prepareStatement("INSERT INTO reminder VALUES (?, ?, ?)")) {
+            for (long id = 1; id <= rows; id++) {
+                insert.setLong(1, id);
+                insert.setObject(2, LocalDateTime.of(2024, 1, 1, 12, 0));
+                insert.setObject(3, id == 1 ? null : LocalDateTime.of(2023, 12, 31, 3, 0));
+                insert.addBatch();
+            }
+            insert.executeBatch();
+        }
+        LegacyReminderTimesToUtcChange change = new LegacyReminderTimesToUtcChange();
+        change.setLegacyTimeZone("Europe/Moscow");
+        Database database = DatabaseFactory.getInstance()
+                .findCorrectDatabaseImplementation(new JdbcConnection(connection));
+
+        // Act
+        change.execute(database);
+
+        // Assert
+        try (Statement statement = connection.createStatement();
+             ResultSet result = statement.executeQuery("SELECT COUNT(*) FROM reminder " +
+                     "WHERE reminder_date_time = TIMESTAMP '2024-01-01 09:00:00' " +
+                     "AND (created IS NULL OR created = TIMESTAMP '2023-12-31 00:00:00')")) {
+            result.next();
+            assertEquals(rows, result.getInt(1));
+        }
+        assertTrue(change.getConfirmationMessage().contains(String.valueOf(rows)));
+    }
+
+    @Test
+    void testToUtc_FollowsDaylightSavingRules() {
+        // Act & Assert
+        ZoneId berlin = ZoneId.of("Europe/Berlin");
+        assertEquals(LocalDateTime.of(2024, 1, 15, 9, 0),
+                LegacyReminderTimesToUtcChange.toUtc(LocalDateTime.of(2024, 1, 15, 10, 0), berlin));
+        assertEquals(LocalDateTime.of(2024, 7, 15, 8, 0),
+                LegacyReminderTimesToUtcChange.toUtc(LocalDateTime.of(2024, 7, 15, 10, 0), berlin));
+        assertNull(LegacyReminderTimesToUtcChange.toUtc(null, berlin));
+    }
+
+    @Test
+    void testLegacyTimeZone_IsBoundByLiquibase() {
+        // Act & Assert: параметр changeSet попадает только в свойство с геттером и сеттером
+        assertTrue(ObjectUtil.hasProperty(new LegacyReminderTimesToUtcChange(), "legacyTimeZone"));
+    }
+
+    @Test
+    void testValidate_AcceptsCallBeforeParametersAndExecuteRejectsMissingZone() throws Exception {
+        // Arrange
+        LegacyReminderTimesToUtcChange change = new LegacyReminderTimesToUtcChange();
+        Database database = DatabaseFactory.getInstance()
+                .findCorrectDatabaseImplementation(new JdbcConnection(connection));
+
+        // Act & Assert
+        assertFalse(change.validate(database).hasErrors());
+        assertThrows(CustomChangeException.class, () -> change.execute(database));
+    }
+
+    @Test
+    void testValidate_RejectsUnknownZone() {
+        // Arrange
+        LegacyReminderTimesToUtcChange change = new LegacyReminderTimesToUtcChange();
+        change.setLegacyTimeZone("Mars/Olympus");
+
+        // Act & Assert
+        assertTrue(change.validate(null).hasErrors());
+    }
+}
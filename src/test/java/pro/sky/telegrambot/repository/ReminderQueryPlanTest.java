@@ -0,0 +1,233 @@
+package pro.sky.telegrambot.repository;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import pro.sky.telegrambot.Reminder;
+import pro.sky.telegrambot.ReminderView;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Планы горячих запросов по таблице напоминаний на схеме из Liquibase и засеянных данных:
+ * если запрос перестанет попадать в свой индекс (переименование колонок, новый фильтр), тест упадёт.
+ * Объясняется SQL, который на самом деле сгенерировал Hibernate для {@link ReminderRepository}
+ * (его перехватывает {@link CapturingStatementInspector}), и SQL {@link ReminderJdbcRepository}.
+ * Планы проверяются на H2; частичные индексы PostgreSQL этот тест не покрывает.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(ReminderJdbcRepository.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:query-plan",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=" +
+                "pro.sky.telegrambot.repository.ReminderQueryPlanTest$CapturingStatementInspector",
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.show_sql=false",
+        "logging.level.org.hibernate.SQL=INFO",
+        "logging.level.org.hibernate.type.descriptor.sql.BasicBinder=INFO"
+})
+public class ReminderQueryPlanTest {
+
+    private static final int CHATS = 20;
+    private static final int SENT_PER_CHAT = 490;
+    private static final int PENDING_PER_CHAT = 10;
+
+    private static final Instant NOW = Instant.parse("2030-01-01T00:00:00Z");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ReminderJdbcRepository jdbcRepository;
+
+    @Autowired
+    private ReminderRepository repository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    void seed() {
+        jdbcTemplate.update("DELETE FROM reminders");
+        List<Reminder> reminders = new ArrayList<>(CHATS * (SENT_PER_CHAT + PENDING_PER_CHAT));
+        for (long chatId = 1; chatId <= CHATS; chatId++) {
+            for (int i = 1; i <= SENT_PER_CHAT; i++) {
+                Reminder sent = new Reminder(chatId, "Отправлено " + i, NOW.minus(i, ChronoUnit.HOURS));
+                sent.setSent(true);
+                reminders.add(sent);
+            }
+            for (int i = 1; i <= PENDING_PER_CHAT; i++) {
+                reminders.add(new Reminder(chatId, "Ожидает " + i, NOW.plus(chatId * 60 + i, ChronoUnit.MINUTES)));
+            }
+        }
+        jdbcRepository.insertBatch(reminders);
+        jdbcTemplate.execute("ANALYZE");
+    }
+
+    @Test
+    void testChatPendingQueries_UseChatPendingIndex() {
+        // Arrange
+        Timestamp after = Timestamp.from(NOW.plus(5, ChronoUnit.HOURS));
+
+        // Act: Slice запрашивает на одну строку больше страницы
+        String views = explainGenerated(() -> repository.findPendingViews(5L, PageRequest.of(0, 10)), 5L, 11);
+        String first = explain(ReminderJdbcRepository.SELECT_PENDING_FIRST, 5L, 1000);
+        String export = explain(ReminderJdbcRepository.SELECT_PENDING_AFTER, 5L, after, after, 1L, 1000);
+
+        // Assert
+        assertUsesIndex(views, "IDX_REMINDERS_CHAT_PENDING");
+        assertUsesIndex(first, "IDX_REMINDERS_CHAT_PENDING");
+        assertUsesIndex(export, "IDX_REMINDERS_CHAT_PENDING");
+    }
+
+    @Test
+    void testPendingByTimeQueries_UsePendingKeysetIndex() {
+        // Arrange
+        Instant cursor = NOW.plus(5, ChronoUnit.HOURS);
+        Timestamp cursorTime = Timestamp.from(cursor);
+        Timestamp claimUntil = Timestamp.from(NOW.plus(6, ChronoUnit.HOURS));
+        Timestamp archiveBefore = Timestamp.from(Instant.parse("2029-12-01T00:00:00Z"));
+
+        // Act
+        String page = explainGenerated(() -> repository.findPendingPage(PageRequest.of(0, 100)), 100);
+        String after = explainGenerated(() -> repository.findPendingPageAfter(cursor, 1L, PageRequest.of(0, 100)),
+                cursorTime, cursorTime, 1L, 100);
+        String before = explainGenerated(() -> repository.findPendingPageBefore(cursor, 1L, PageRequest.of(0, 100)),
+                cursorTime, cursorTime, 1L, 100);
+        String claimable = explainGenerated(() -> repository.findClaimable(NOW.plus(6, ChronoUnit.HOURS),
+                PageRequest.of(0, 100)), claimUntil, 100);
+        String archivable = explainGenerated(() -> repository.findArchivable(Instant.parse("2029-12-01T00:00:00Z"),
+                PageRequest.of(0, 500)), archiveBefore, 500);
+
+        // Assert
+        assertUsesIndex(page, "IDX_REMINDERS_PENDING_KEYSET");
+        assertUsesIndex(after, "IDX_REMINDERS_PENDING_KEYSET");
+        assertUsesIndex(before, "IDX_REMINDERS_PENDING_KEYSET");
+        assertUsesIndex(claimable, "IDX_REMINDERS_PENDING_KEYSET");
+        assertUsesIndex(archivable, "IDX_REMINDERS_PENDING_KEYSET");
+    }
+
+    @Test
+    void testOverdueByChatQueries_DoNotScanTable() {
+        // Arrange
+        Instant before = NOW.plus(5, ChronoUnit.HOURS);
+        Timestamp beforeTime = Timestamp.from(before);
+        Timestamp afterTime = Timestamp.from(NOW.plus(3 * 60 + 1, ChronoUnit.MINUTES));
+
+        // Act
+        String first = explainGenerated(() -> repository.findOverdueByChat(before, PageRequest.of(0, 100)),
+                beforeTime, 100);
+        String next = explainGenerated(() -> repository.findOverdueByChatAfter(before, 3L,
+                NOW.plus(3 * 60 + 1, ChronoUnit.MINUTES), 1L, PageRequest.of(0, 100)),
+                beforeTime, 3L, 3L, afterTime, afterTime, 1L, 100);
+
+        // Assert: H2 может взять любой из двух индексов ожидающих, важно не читать таблицу целиком
+        assertUsesIndex(first, "IDX_REMINDERS_");
+        assertUsesIndex(next, "IDX_REMINDERS_");
+    }
+
+    @Test
+    void testFindPendingPage_ReturnsProjectionsInTimeOrder() {
+        // Act
+        List<Reminder> page = repository.findPendingPage(PageRequest.of(0, 5));
+        Reminder last = page.get(page.size() - 1);
+        List<Reminder> next = repository.findPendingPageAfter(last.getReminderDateTime(), last.getId(),
+                PageRequest.of(0, 5));
+
+        // Assert
+        assertEquals(5, page.size());
+        assertEquals(1L, page.get(0).getChatId());
+        assertEquals("Ожидает 1", page.get(0).getMessageText());
+        assertNull(page.get(0).getCreated());
+        assertFalse(page.get(0).isSent());
+        assertEquals("Ожидает 6", next.get(0).getMessageText());
+    }
+
+    @Test
+    void testFindPendingPageBefore_ReadsOverdueNewestFirst() {
+        // Arrange
+        Instant cutoff = NOW.plus(1 * 60 + 5, ChronoUnit.MINUTES);
+
+        // Act
+        List<Reminder> page = repository.findPendingPageBefore(cutoff, Long.MAX_VALUE, PageRequest.of(0, 10));
+        Reminder last = page.get(page.size() - 1);
+        List<Reminder> next = repository.findPendingPageBefore(last.getReminderDateTime(), last.getId(),
+                PageRequest.of(0, 10));
+
+        // Assert
+        assertEquals(5, repository.countPendingUntil(cutoff));
+        assertEquals(5, page.size());
+        assertEquals("Ожидает 5", page.get(0).getMessageText());
+        assertEquals("Ожидает 1", last.getMessageText());
+        assertTrue(next.isEmpty());
+    }
+
+    @Test
+    void testFindPendingViews_ReturnsOnlyPendingOfChat() {
+        // Act
+        List<ReminderView> views = repository.findPendingViews(5L, PageRequest.of(0, 20)).getContent();
+
+        // Assert
+        assertEquals(PENDING_PER_CHAT, views.size());
+        assertEquals(NOW.plus(5 * 60 + 1, ChronoUnit.MINUTES), views.get(0).getReminderDateTime());
+        assertEquals(PENDING_PER_CHAT, jdbcRepository.findPendingPage(5L, null, 100).size());
+    }
+
+    /**
+     * Выполняет запрос репозитория и объясняет последний SQL, который сгенерировал для него Hibernate,
+     * с теми же параметрами по порядку {@code ?}. Запрос идёт в транзакции, как в сервисах: без неё
+     * не выполнить выборки с блокировкой. FOR UPDATE при объяснении отбрасывается, на план он не влияет.
+     */
+    private String explainGenerated(Runnable query, Object... parameters) {
+        CapturingStatementInspector.STATEMENTS.clear();
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> query.run());
+        List<String> statements = CapturingStatementInspector.STATEMENTS;
+        assertFalse(statements.isEmpty(), "Hibernate не выполнил запрос");
+        String sql = statements.get(statements.size() - 1).replaceAll("(?i)\\s+for update.*$", "");
+        return explain(sql, parameters);
+    }
+
+    private String explain(String sql, Object... parameters) {
+        return jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class, parameters);
+    }
+
+    private static void assertUsesIndex(String plan, String index) {
+        assertTrue(plan.toUpperCase().contains(index), "Ожидался индекс " + index + ", план: " + plan);
+        assertFalse(plan.contains("tableScan"), "Полный просмотр таблицы: " + plan);
+    }
+
+    /**
+     * Запоминает SQL, который Hibernate отправляет в базу. Hibernate создаёт его сам по имени класса,
+     * поэтому запросы складываются в статический список.
+     */
+    public static class CapturingStatementInspector implements StatementInspector {
+
+        static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+}
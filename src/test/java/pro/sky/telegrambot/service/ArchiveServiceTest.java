@@ -0,0 +1,126 @@
+package pro.sky.telegrambot.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import pro.sky.telegrambot.Reminder;
+import pro.sky.telegrambot.repository.ReminderArchiveRepository;
+import pro.sky.telegrambot.repository.ReminderDeliveryRepository;
+import pro.sky.telegrambot.repository.ReminderRepository;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ArchiveServiceTest {
+
+    @Mock
+    private ReminderRepository reminderRepository;
+
+    @Mock
+    private ReminderArchiveRepository archiveRepository;
+
+    @Mock
+    private ReminderDeliveryRepository deliveryRepository;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @InjectMocks
+    private ArchiveService archiveService;
+
+    @Test
+    void testArchiveSentBefore_CopiesThenDeletesBatch() {
+        // Arrange
+        Instant cutoff = Instant.parse("2030-01-01T00:00:00Z");
+        Reminder first = sent(1L);
+        Reminder second = sent(2L);
+        when(reminderRepository.findArchivable(cutoff, PageRequest.of(0, 500))).thenReturn(List.of(first, second));
+        when(reminderRepository.deleteSent(List.of(1L, 2L))).thenReturn(2);
+
+        // Act
+        int archived = archiveService.archiveSentBefore(cutoff, 500);
+
+        // Assert
+        assertEquals(2, archived);
+        var order = inOrder(archiveRepository, reminderRepository);
+        order.verify(archiveRepository).copyFromReminders(List.of(1L, 2L));
+        order.verify(reminderRepository).deleteSent(List.of(1L, 2L));
+    }
+
+    @Test
+    void testArchiveSentBefore_NothingToArchive() {
+        // Arrange
+        when(reminderRepository.findArchivable(any(), any())).thenReturn(List.of());
+
+        // Act
+        int archived = archiveService.archiveSentBefore(Instant.now(), 500);
+
+        // Assert
+        assertEquals(0, archived);
+        verifyNoInteractions(archiveRepository);
+        verify(reminderRepository, never()).deleteSent(any());
+    }
+
+    @Test
+    void testPurgeDeliveriesBefore() {
+        // Arrange
+        Instant cutoff = Instant.now();
+        when(deliveryRepository.findFinishedIdsBefore(any(), eq(cutoff), eq(PageRequest.of(0, 100))))
+                .thenReturn(List.of(5L, 6L));
+        when(deliveryRepository.deleteByIds(List.of(5L, 6L))).thenReturn(2);
+
+        // Act
+        int purged = archiveService.purgeDeliveriesBefore(cutoff, 100);
+
+        // Assert
+        assertEquals(2, purged);
+    }
+
+    @Test
+    void testEnsureArchivePartitions_CreatesEachMonthOnce() {
+        // Act
+        archiveService.ensureArchivePartitions(Instant.parse("2029-11-20T10:00:00Z"), Instant.parse("2030-01-05T00:00:00Z"));
+        archiveService.ensureArchivePartitions(Instant.parse("2029-12-01T00:00:00Z"), Instant.parse("2030-01-31T00:00:00Z"));
+
+        // Assert
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        verify(jdbcTemplate, times(3)).execute(sql.capture());
+        assertEquals("CREATE TABLE IF NOT EXISTS reminders_archive_2029_11 PARTITION OF reminders_archive " +
+                "FOR VALUES FROM ('2029-11-01') TO ('2029-12-01')", sql.getAllValues().get(0));
+        assertTrue(sql.getAllValues().get(2).contains("reminders_archive_2030_01"));
+    }
+
+    @Test
+    void testEnsureArchivePartitions_FailureIsNotFatal() {
+        // Arrange
+        doThrow(new DataIntegrityViolationException("default partition contains rows"))
+                .when(jdbcTemplate).execute(contains("2029_11"));
+
+        // Act
+        archiveService.ensureArchivePartitions(Instant.parse("2029-11-20T10:00:00Z"), Instant.parse("2029-12-05T00:00:00Z"));
+
+        // Assert
+        verify(jdbcTemplate, times(2)).execute(anyString());
+    }
+
+    private static Reminder sent(Long id) {
+        Reminder reminder = new Reminder(100L, "Отправлено", Instant.parse("2029-06-01T10:00:00Z"));
+        reminder.setId(id);
+        reminder.setSent(true);
+        return reminder;
+    }
+}
@@ -0,0 +1,66 @@
+package pro.sky.telegrambot.service;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import com.pengrad.telegrambot.BotUtils;
+import com.pengrad.telegrambot.Callback;
+import com.pengrad.telegrambot.TelegramBot;
+import com.pengrad.telegrambot.model.Update;
+import com.pengrad.telegrambot.request.SendMessage;
+import com.pengrad.telegrambot.response.SendResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.slf4j.LoggerFactory;
+
+import java.time.ZoneId;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Общие заготовки для JMH-бенчмарков. Моки создаются в режиме stubOnly,
+ * чтобы Mockito не копил историю вызовов за миллионы итераций.
+ */
+final class BenchmarkSupport {
+
+    private BenchmarkSupport() {
+    }
+
+    /**
+     * Без Spring Logback пишет DEBUG в консоль, и бенчмарк измеряет вывод, а не код.
+     */
+    static void silenceLogging() {
+        ((Logger) LoggerFactory.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME)).setLevel(Level.OFF);
+    }
+
+    /**
+     * Бот, который мгновенно и успешно отвечает на любой запрос, в том числе асинхронный.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    static TelegramBot stubTelegramBot() {
+        TelegramBot telegramBot = mock(TelegramBot.class, withSettings().stubOnly());
+        SendResponse ok = mock(SendResponse.class, withSettings().stubOnly());
+        when(ok.isOk()).thenReturn(true);
+        when(telegramBot.execute(any(SendMessage.class))).thenReturn(ok);
+        doAnswer(invocation -> {
+            Callback callback = invocation.getArgument(1);
+            callback.onResponse(invocation.getArgument(0), ok);
+            return null;
+        }).when(telegramBot).execute(any(SendMessage.class), any(Callback.class));
+        return telegramBot;
+    }
+
+    static ChatSettingsService chatSettings() {
+        ChatSettingsService chatSettings = mock(ChatSettingsService.class, withSettings().stubOnly());
+        when(chatSettings.zoneOf(any())).thenReturn(ZoneId.of("Europe/Moscow"));
+        return chatSettings;
+    }
+
+    static BotMetrics metrics() {
+        return new BotMetrics(new SimpleMeterRegistry());
+    }
+
+    static Update message(int updateId, long chatId, String text) {
+        return BotUtils.parseUpdate("{\"update_id\":" + updateId + ",\"message\":{\"message_id\":" + updateId +
+                ",\"date\":0,\"chat\":{\"id\":" + chatId + ",\"type\":\"private\"},\"text\":\"" + text + "\"}}");
+    }
+}
@@ -0,0 +1,57 @@
+package pro.sky.telegrambot.service;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BotMetricsTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private final BotMetrics metrics = new BotMetrics(registry);
+
+    @Test
+    void testRecordUpdate_TimerPerCommand() {
+        // Act
+        metrics.recordUpdate("start", TimeUnit.MILLISECONDS.toNanos(5));
+        metrics.recordUpdate("start", TimeUnit.MILLISECONDS.toNanos(7));
+        metrics.recordUpdate("my_tasks", TimeUnit.MILLISECONDS.toNanos(3));
+
+        // Assert
+        Timer start = registry.get("telegram.updates").tag("command", "start").timer();
+        assertEquals(2, start.count());
+        assertEquals(12, start.totalTime(TimeUnit.MILLISECONDS), 0.001);
+        assertEquals(1, registry.get("telegram.updates").tag("command", "my_tasks").timer().count());
+    }
+
+    @Test
+    void testRecordApiCall_SplitsByOutcome() {
+        // Act
+        metrics.recordApiCall("sendMessage", true, 1000);
+        metrics.recordApiCall("sendMessage", false, 1000);
+        metrics.recordApiCall("sendMessage", false, 1000);
+
+        // Assert
+        assertEquals(1, registry.get("telegram.api.requests").tag("outcome", "success").timer().count());
+        assertEquals(2, registry.get("telegram.api.requests").tag("outcome", "error").timer().count());
+    }
+
+    @Test
+    void testRecordDelivered_MeasuresLateness() {
+        // Act
+        metrics.recordDelivered(Instant.now().minus(30, ChronoUnit.SECONDS));
+        metrics.recordDelivered(Instant.now().plus(30, ChronoUnit.SECONDS));
+
+        // Assert
+        Timer lateness = registry.get("reminders.lateness").timer();
+        assertEquals(2, lateness.count());
+        assertTrue(lateness.max(TimeUnit.SECONDS) >= 30);
+        assertTrue(lateness.totalTime(TimeUnit.SECONDS) < 31);
+    }
+}
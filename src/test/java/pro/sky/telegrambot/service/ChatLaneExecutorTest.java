@@ -0,0 +1,92 @@
+package pro.sky.telegrambot.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ChatLaneExecutorTest {
+
+    private final ChatLaneExecutor lanes = new ChatLaneExecutor(4, 100);
+
+    @AfterEach
+    void tearDown() {
+        lanes.shutdown();
+    }
+
+    @Test
+    void testSubmit_KeepsOrderWithinChat() {
+        // Arrange
+        List<Integer> processed = Collections.synchronizedList(new ArrayList<>());
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+
+        // Act
+        for (int i = 0; i < 50; i++) {
+            int step = i;
+            futures.add(lanes.submit(42L, () -> processed.add(step)));
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).join();
+
+        // Assert
+        for (int i = 0; i < 50; i++) {
+            assertEquals(i, processed.get(i));
+        }
+    }
+
+    @Test
+    void testSubmit_SlowChatDoesNotBlockOtherLanes() throws InterruptedException {
+        // Arrange
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch otherChatDone = new CountDownLatch(1);
+
+        // Act
+        CompletableFuture<Void> slow = lanes.submit(0L, () -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        lanes.submit(1L, otherChatDone::countDown);
+
+        // Assert
+        assertTrue(otherChatDone.await(5, TimeUnit.SECONDS));
+        assertFalse(slow.isDone());
+        release.countDown();
+        slow.join();
+    }
+
+    @Test
+    void testSubmit_RejectsWhenLaneQueueIsFull() {
+        // Arrange
+        ChatLaneExecutor singleSlot = new ChatLaneExecutor(1, 1);
+        CountDownLatch release = new CountDownLatch(1);
+        Runnable blocking = () -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+
+        try {
+            // Act
+            singleSlot.submit(1L, blocking);
+            singleSlot.submit(1L, blocking);
+
+            // Assert
+            assertThrows(RejectedExecutionException.class, () -> singleSlot.submit(1L, blocking));
+        } finally {
+            release.countDown();
+            singleSlot.shutdown();
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package pro.sky.telegrambot.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import pro.sky.telegrambot.ChatSettings;
+import pro.sky.telegrambot.repository.ChatSettingsRepository;
+
+import java.time.DateTimeException;
+import java.time.Duration;
+import java.time.ZoneId;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ChatSettingsServiceTest {
+
+    @Mock
+    private ChatSettingsRepository repository;
+
+    private ChatSettingsService chatSettingsService;
+
+    @BeforeEach
+    void setUp() {
+        chatSettingsService = new ChatSettingsService(repository, "Europe/Moscow", 100, Duration.ofMinutes(1));
+    }
+
+    @Test
+    void testZoneOf_DefaultWhenNotConfigured() {
+        // Arrange
+        when(repository.findById(1L)).thenReturn(Optional.empty());
+
+        // Act
+        ZoneId zone = chatSettingsService.zoneOf(1L);
+
+        // Assert
+        assertEquals(ZoneId.of("Europe/Moscow"), zone);
+    }
+
+    @Test
+    void testZoneOf_CachesStoredZone() {
+        // Arrange
+        when(repository.findById(1L)).thenReturn(Optional.of(new ChatSettings(1L, "Asia/Yekaterinburg")));
+
+        // Act
+        chatSettingsService.zoneOf(1L);
+        ZoneId zone = chatSettingsService.zoneOf(1L);
+
+        // Assert
+        assertEquals(ZoneId.of("Asia/Yekaterinburg"), zone);
+        verify(repository, times(1)).findById(1L);
+    }
+
+    @Test
+    void testZoneOf_ExpiredEntryReloadsZoneChangedElsewhere() {
+        // Arrange
+        chatSettingsService = new ChatSettingsService(repository, "Europe/Moscow", 100, Duration.ZERO);
+        when(repository.findById(1L))
+                .thenReturn(Optional.of(new ChatSettings(1L, "Asia/Yekaterinburg")))
+                .thenReturn(Optional.of(new ChatSettings(1L, "Europe/Berlin")));
+
+        // Act
+        chatSettingsService.zoneOf(1L);
+        ZoneId zone = chatSettingsService.zoneOf(1L);
+
+        // Assert
+        assertEquals(ZoneId.of("Europe/Berlin"), zone);
+        verify(repository, times(2)).findById(1L);
+    }
+
+    @Test
+    void testSetZone_SavesAndUpdatesCache() {
+        // Act
+        chatSettingsService.setZone(1L, " Europe/Berlin ");
+
+        // Assert
+        ArgumentCaptor<ChatSettings> captor = ArgumentCaptor.forClass(ChatSettings.class);
+        verify(repository, times(1)).save(captor.capture());
+        assertEquals("Europe/Berlin", captor.getValue().getTimeZone());
+        assertEquals(ZoneId.of("Europe/Berlin"), chatSettingsService.zoneOf(1L));
+        verify(repository, never()).findById(any());
+    }
+
+    @Test
+    void testSetZone_RejectsUnknownZone() {
+        // Act & Assert
+        assertThrows(DateTimeException.class, () -> chatSettingsService.setZone(1L, "Mars/Olympus"));
+        verify(repository, never()).save(any());
+    }
+}
@@ -0,0 +1,95 @@
+package pro.sky.telegrambot.service;
+
+import org.junit.jupiter.api.Test;
+import pro.sky.telegrambot.Reminder;
+import pro.sky.telegrambot.ReminderDelivery;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CoalescedMessageTest {
+
+    private static final Instant NOW = Instant.parse("2030-01-01T09:00:00Z");
+
+    private long nextId;
+
+    @Test
+    void testCoalesce_GroupsByChatInTimeOrder() {
+        // Arrange
+        ReminderDelivery later = delivery(1L, "Позже", NOW.plusSeconds(30));
+        ReminderDelivery other = delivery(2L, "Другой чат", NOW);
+        ReminderDelivery earlier = delivery(1L, "Раньше", NOW);
+
+        // Act
+        List<CoalescedMessage> messages = CoalescedMessage.coalesce(List.of(later, other, earlier));
+
+        // Assert
+        assertEquals(2, messages.size());
+        assertEquals(1L, messages.get(0).getChatId());
+        assertEquals("Напоминания:\n• Раньше\n• Позже", messages.get(0).getText());
+        assertEquals(List.of(earlier, later), messages.get(0).getDeliveries());
+        assertEquals("Напоминание: Другой чат", messages.get(1).getText());
+        assertEquals(List.of(other), messages.get(1).getDeliveries());
+    }
+
+    @Test
+    void testCoalesce_SplitsAtMessageLimit() {
+        // Arrange: 10 напоминаний по 1000 символов не помещаются в одно сообщение
+        List<ReminderDelivery> deliveries = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            deliveries.add(delivery(1L, Character.toString('a' + i).repeat(1000), NOW.plusSeconds(i)));
+        }
+
+        // Act
+        List<CoalescedMessage> messages = CoalescedMessage.coalesce(deliveries);
+
+        // Assert
+        assertEquals(3, messages.size());
+        List<ReminderDelivery> covered = new ArrayList<>();
+        for (CoalescedMessage message : messages) {
+            assertTrue(message.getText().length() <= CoalescedMessage.MAX_MESSAGE_LENGTH);
+            covered.addAll(message.getDeliveries());
+        }
+        assertEquals(deliveries, covered);
+        assertEquals(List.of(4, 4, 2), List.of(messages.get(0).getDeliveries().size(),
+                messages.get(1).getDeliveries().size(), messages.get(2).getDeliveries().size()));
+    }
+
+    @Test
+    void testSummarize_UsesSummaryHeaderEvenForOneReminder() {
+        // Arrange
+        ReminderDelivery only = delivery(1L, "Созвон", NOW);
+
+        // Act
+        List<CoalescedMessage> messages = CoalescedMessage.summarize(List.of(only));
+
+        // Assert
+        assertEquals(1, messages.size());
+        assertEquals("Пока бот был недоступен, наступили напоминания:\n• Созвон", messages.get(0).getText());
+        assertEquals(List.of(only), messages.get(0).getDeliveries());
+    }
+
+    @Test
+    void testSeparate_OneMessagePerDelivery() {
+        // Arrange
+        ReminderDelivery first = delivery(1L, "Первое", NOW);
+        ReminderDelivery second = delivery(1L, "Второе", NOW);
+
+        // Act
+        List<CoalescedMessage> messages = CoalescedMessage.separate(List.of(first, second));
+
+        // Assert
+        assertEquals(2, messages.size());
+        assertEquals("Напоминание: Первое", messages.get(0).getText());
+        assertEquals("Напоминание: Второе", messages.get(1).getText());
+    }
+
+    private ReminderDelivery delivery(Long chatId, String text, Instant time) {
+        Reminder reminder = new Reminder(chatId, text, time);
+        reminder.setId(++nextId);
+        return new ReminderDelivery(reminder, "node-1", NOW, NOW.plusSeconds(300));
+    }
+}
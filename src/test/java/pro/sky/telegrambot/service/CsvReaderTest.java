@@ -0,0 +1,66 @@
+package pro.sky.telegrambot.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CsvReaderTest {
+
+    @Test
+    void testNext_QuotedFieldsAndLineNumbers() throws IOException {
+        // Arrange
+        CsvReader reader = new CsvReader(new StringReader(
+                "\uFEFFchat_id,text\r\n1,\"Купить хлеб, молоко\"\n2,\"Две\nстроки и \"\"кавычки\"\"\"\n3,последняя"));
+
+        // Act & Assert
+        assertEquals(List.of("chat_id", "text"), reader.next());
+        assertEquals(1, reader.recordLine());
+        assertEquals(List.of("1", "Купить хлеб, молоко"), reader.next());
+        assertEquals(2, reader.recordLine());
+        assertEquals(List.of("2", "Две\nстроки и \"кавычки\""), reader.next());
+        assertEquals(3, reader.recordLine());
+        assertEquals(List.of("3", "последняя"), reader.next());
+        assertEquals(5, reader.recordLine());
+        assertNull(reader.next());
+    }
+
+    @Test
+    void testNext_EmptyFields() throws IOException {
+        // Arrange
+        CsvReader reader = new CsvReader(new StringReader(",,\n\n"));
+
+        // Act & Assert
+        assertEquals(List.of("", "", ""), reader.next());
+        assertEquals(List.of(""), reader.next());
+        assertNull(reader.next());
+    }
+
+    @Test
+    void testNext_UnterminatedQuote() {
+        // Arrange
+        CsvReader reader = new CsvReader(new StringReader("1,\"без конца"));
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, reader::next);
+    }
+
+    @Test
+    void testWriteRow_RoundTrip() throws IOException {
+        // Arrange
+        StringWriter out = new StringWriter();
+        CsvWriter writer = new CsvWriter(out);
+        String[] row = {"42", "2030-01-01T09:00:00Z", "Текст с \"кавычками\", запятой\r\nи переводом строки", null};
+
+        // Act
+        writer.writeRow(row);
+        List<String> back = new CsvReader(new StringReader(out.toString())).next();
+
+        // Assert
+        assertEquals(List.of("42", "2030-01-01T09:00:00Z", row[2], ""), back);
+    }
+}
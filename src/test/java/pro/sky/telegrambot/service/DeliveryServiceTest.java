@@ -0,0 +1,257 @@
+package pro.sky.telegrambot.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import pro.sky.telegrambot.DeliveryStatus;
+import pro.sky.telegrambot.Reminder;
+import pro.sky.telegrambot.ReminderDelivery;
+import pro.sky.telegrambot.repository.ReminderDeliveryRepository;
+import pro.sky.telegrambot.repository.ReminderRepository;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class DeliveryServiceTest {
+
+    @Mock
+    private ReminderDeliveryRepository deliveryRepository;
+
+    @Mock
+    private ReminderRepository reminderRepository;
+
+    @Mock
+    private ReminderService reminderService;
+
+    private DeliveryService deliveryService;
+
+    @BeforeEach
+    void setUp() {
+        deliveryService = new DeliveryService(deliveryRepository, reminderRepository, reminderService,
+                3, Duration.ofSeconds(30), Duration.ofMinutes(5));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testEnqueue_CreatesDeliveriesAndMarksRemindersSent() {
+        // Arrange
+        Instant now = Instant.now();
+        Reminder reminder1 = reminder(1L, "Задача 1", now);
+        Reminder reminder2 = reminder(2L, "Задача 2", now);
+        List<Reminder> due = List.of(reminder1, reminder2);
+        when(deliveryRepository.findOccurrences(List.of(1L, 2L), List.of(now, now))).thenReturn(List.of());
+
+        // Act
+        List<ReminderDelivery> deliveries = deliveryService.enqueue(due, "node-1", now, Duration.ofMinutes(5));
+
+        // Assert
+        assertEquals(2, deliveries.size());
+        ReminderDelivery first = deliveries.get(0);
+        assertEquals(1L, first.getReminderId());
+        assertEquals("Задача 1", first.getMessageText());
+        assertEquals(DeliveryStatus.IN_FLIGHT, first.getStatus());
+        assertEquals("node-1", first.getClaimedBy());
+        assertEquals(now.plus(Duration.ofMinutes(5)), first.getClaimedUntil());
+
+        ArgumentCaptor<Iterable<ReminderDelivery>> captor = ArgumentCaptor.forClass(Iterable.class);
+        verify(deliveryRepository, times(1)).saveAll(captor.capture());
+        assertEquals(deliveries, captor.getValue());
+        verify(reminderService, times(1)).completeDue(due, now);
+    }
+
+    @Test
+    void testEnqueue_SkipsOccurrencesThatAlreadyHaveDelivery() {
+        // Arrange
+        Instant now = Instant.now();
+        Reminder alreadyQueued = reminder(1L, "Уже в outbox", now);
+        Reminder fresh = reminder(2L, "Новая", now);
+        ReminderDelivery existing = new ReminderDelivery(alreadyQueued, "node-0", now, now);
+        when(deliveryRepository.findOccurrences(List.of(1L, 2L), List.of(now, now))).thenReturn(List.of(existing));
+
+        // Act
+        List<ReminderDelivery> deliveries = deliveryService.enqueue(List.of(alreadyQueued, fresh), "node-1", now,
+                Duration.ofMinutes(5));
+
+        // Assert
+        assertEquals(1, deliveries.size());
+        assertEquals(2L, deliveries.get(0).getReminderId());
+        verify(reminderService, times(1)).completeDue(List.of(alreadyQueued, fresh), now);
+    }
+
+    @Test
+    void testEnqueue_NextOccurrenceOfRecurringReminderGetsOwnDelivery() {
+        // Arrange
+        Instant yesterday = Instant.now().minus(Duration.ofDays(1));
+        Instant now = Instant.now();
+        Reminder recurring = reminder(1L, "Зарядка", now);
+        recurring.setRecurrence("0 0 7 * * *");
+        // доставка вчерашнего срабатывания того же напоминания
+        ReminderDelivery previous = new ReminderDelivery(reminder(1L, "Зарядка", yesterday), "node-0", yesterday,
+                yesterday);
+        when(deliveryRepository.findOccurrences(List.of(1L), List.of(now))).thenReturn(List.of(previous));
+
+        // Act
+        List<ReminderDelivery> deliveries = deliveryService.enqueue(List.of(recurring), "node-1", now,
+                Duration.ofMinutes(5));
+
+        // Assert
+        assertEquals(1, deliveries.size());
+        assertEquals(now, deliveries.get(0).getReminderDateTime());
+    }
+
+    @Test
+    void testEnqueue_EmptyList() {
+        // Act
+        List<ReminderDelivery> deliveries = deliveryService.enqueue(List.of(), "node-1", Instant.now(),
+                Duration.ofMinutes(5));
+
+        // Assert
+        assertTrue(deliveries.isEmpty());
+        verifyNoInteractions(deliveryRepository, reminderService);
+    }
+
+    @Test
+    void testClaimDue_EnqueuesClaimableReminders() {
+        // Arrange
+        Instant now = Instant.now();
+        Reminder reminder = reminder(1L, "Задача", now);
+        when(reminderRepository.findClaimable(now, PageRequest.of(0, 10))).thenReturn(List.of(reminder));
+        when(deliveryRepository.findOccurrences(List.of(1L), List.of(now))).thenReturn(List.of());
+
+        // Act
+        List<ReminderDelivery> claimed = deliveryService.claimDue("node-1", now, Duration.ofMinutes(5), 10);
+
+        // Assert
+        assertEquals(1, claimed.size());
+        assertEquals("node-1", claimed.get(0).getClaimedBy());
+        assertEquals(now.plus(Duration.ofMinutes(5)), claimed.get(0).getClaimedUntil());
+        verify(reminderService, times(1)).completeDue(List.of(reminder), now);
+    }
+
+    @Test
+    void testClaimRetries_TakesLeaseOnRetryableDeliveries() {
+        // Arrange
+        Instant now = Instant.now();
+        ReminderDelivery failed = delivery(1L);
+        failed.setStatus(DeliveryStatus.FAILED);
+        failed.setClaimedBy(null);
+        failed.setClaimedUntil(null);
+        when(deliveryRepository.findRetryable(any(), eq(DeliveryStatus.IN_FLIGHT), eq(now), eq(PageRequest.of(0, 10))))
+                .thenReturn(List.of(failed));
+
+        // Act
+        List<ReminderDelivery> claimed = deliveryService.claimRetries("node-2", now, Duration.ofMinutes(5), 10);
+
+        // Assert
+        assertEquals(List.of(failed), claimed);
+        assertEquals(DeliveryStatus.IN_FLIGHT, failed.getStatus());
+        assertEquals("node-2", failed.getClaimedBy());
+        assertEquals(now.plus(Duration.ofMinutes(5)), failed.getClaimedUntil());
+    }
+
+    @Test
+    void testMarkSent() {
+        // Arrange
+        ReminderDelivery delivery = delivery(7L);
+
+        // Act
+        deliveryService.markSent(delivery);
+
+        // Assert
+        verify(deliveryRepository, times(1)).markSent(eq(7L), eq(DeliveryStatus.SENT), any());
+    }
+
+    @Test
+    void testMarkSkipped() {
+        // Arrange
+        ReminderDelivery first = delivery(7L);
+        ReminderDelivery second = delivery(8L);
+
+        // Act
+        deliveryService.markSkipped(List.of(first, second));
+
+        // Assert
+        verify(deliveryRepository, times(1)).markSent(eq(7L), eq(DeliveryStatus.SKIPPED), any());
+        verify(deliveryRepository, times(1)).markSent(eq(8L), eq(DeliveryStatus.SKIPPED), any());
+    }
+
+    @Test
+    void testMarkFailed_SchedulesRetryWithBackoff() {
+        // Arrange
+        ReminderDelivery delivery = delivery(7L);
+        Instant before = Instant.now();
+
+        // Act
+        deliveryService.markFailed(delivery, new IllegalStateException("429 Too Many Requests"));
+
+        // Assert
+        ArgumentCaptor<Instant> nextAttempt = ArgumentCaptor.forClass(Instant.class);
+        verify(deliveryRepository, times(1)).markFailed(eq(7L), eq(DeliveryStatus.IN_FLIGHT),
+                eq(DeliveryStatus.FAILED), eq(1), nextAttempt.capture(), eq("429 Too Many Requests"));
+        assertFalse(nextAttempt.getValue().isBefore(before.plusSeconds(30)));
+    }
+
+    @Test
+    void testMarkFailed_DeadAfterMaxAttempts() {
+        // Arrange
+        ReminderDelivery delivery = delivery(7L);
+        delivery.setAttempts(2);
+
+        // Act
+        deliveryService.markFailed(delivery, new IllegalStateException("Forbidden: bot was blocked by the user"));
+
+        // Assert
+        verify(deliveryRepository, times(1)).markFailed(eq(7L), eq(DeliveryStatus.IN_FLIGHT),
+                eq(DeliveryStatus.DEAD), eq(3), any(), anyString());
+    }
+
+    @Test
+    void testMarkFailed_TruncatesLongError() {
+        // Arrange
+        ReminderDelivery delivery = delivery(7L);
+
+        // Act
+        deliveryService.markFailed(delivery, new IllegalStateException("x".repeat(2000)));
+
+        // Assert
+        ArgumentCaptor<String> error = ArgumentCaptor.forClass(String.class);
+        verify(deliveryRepository).markFailed(any(), any(), any(), anyInt(), any(), error.capture());
+        assertEquals(500, error.getValue().length());
+    }
+
+    @Test
+    void testBackoff_DoublesUpToMaximum() {
+        assertEquals(Duration.ofSeconds(30), deliveryService.backoff(1));
+        assertEquals(Duration.ofSeconds(60), deliveryService.backoff(2));
+        assertEquals(Duration.ofSeconds(120), deliveryService.backoff(3));
+        assertEquals(Duration.ofMinutes(5), deliveryService.backoff(5));
+        assertEquals(Duration.ofMinutes(5), deliveryService.backoff(100));
+    }
+
+    private static Reminder reminder(Long id, String text, Instant time) {
+        Reminder reminder = new Reminder(100L + id, text, time);
+        reminder.setId(id);
+        return reminder;
+    }
+
+    private static ReminderDelivery delivery(Long id) {
+        Instant now = Instant.now();
+        ReminderDelivery delivery = new ReminderDelivery(reminder(id, "Задача", now), "node-1", now,
+                now.plusSeconds(300));
+        delivery.setId(id);
+        return delivery;
+    }
+}
@@ -0,0 +1,75 @@
+package pro.sky.telegrambot.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import pro.sky.telegrambot.Reminder;
+import pro.sky.telegrambot.ReminderDelivery;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.*;
+
+/**
+ * Отправка пачки наступивших напоминаний: {@link ReminderDispatcher} → {@link MessageSender} → мгновенно
+ * отвечающий бот. Лимиты Telegram подняты, чтобы измерялись накладные расходы конвейера, а не ожидание.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class DispatchBenchmark {
+
+    private static final double UNLIMITED_RATE = 1e9;
+
+    @Param({"10", "100", "1000"})
+    public int batchSize;
+
+    private MessageSender messageSender;
+    private ReminderDispatcher dispatcher;
+    private List<Reminder> due;
+
+    @Setup
+    public void setUp() {
+        BenchmarkSupport.silenceLogging();
+        messageSender = new MessageSender(BenchmarkSupport.stubTelegramBot(), BenchmarkSupport.metrics(), batchSize, 64,
+                UNLIMITED_RATE, UNLIMITED_RATE, 0);
+        messageSender.start();
+        due = new ArrayList<>(batchSize);
+        List<ReminderDelivery> deliveries = new ArrayList<>(batchSize);
+        Instant now = Instant.now();
+        for (long i = 1; i <= batchSize; i++) {
+            Reminder reminder = new Reminder(i, "Напоминание " + i, now);
+            reminder.setId(i);
+            due.add(reminder);
+            ReminderDelivery delivery = new ReminderDelivery(reminder, "benchmark", now, now.plusSeconds(300));
+            delivery.setId(i);
+            deliveries.add(delivery);
+        }
+
+        // запись в outbox стоит одну транзакцию на пачку и сюда не входит
+        ReminderService reminderService = mock(ReminderService.class, withSettings().stubOnly());
+        DeliveryService deliveryService = mock(DeliveryService.class, withSettings().stubOnly());
+        when(deliveryService.enqueue(any(), any(), any(), any())).thenReturn(deliveries);
+        dispatcher = new ReminderDispatcher(new ReminderTimeline(DispatchMode.CLAIM), reminderService,
+                deliveryService, messageSender, BenchmarkSupport.metrics());
+    }
+
+    @TearDown
+    public void tearDown() {
+        messageSender.stop();
+    }
+
+    @Benchmark
+    public void dispatch() {
+        dispatcher.dispatch(due).join();
+    }
+}
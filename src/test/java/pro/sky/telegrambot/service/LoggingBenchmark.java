@@ -0,0 +1,131 @@
+package pro.sky.telegrambot.service;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.FileAppender;
+import com.pengrad.telegrambot.model.Update;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.slf4j.LoggerFactory;
+import pro.sky.telegrambot.configuration.SamplingTurboFilter;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Пропускная способность обработки обновлений в зависимости от логирования (вывод в файл):
+ * <ul>
+ *     <li>{@code off} - логирование выключено;</li>
+ *     <li>{@code sync} - DEBUG, синхронная запись со сбросом после каждой строки, как было по умолчанию;</li>
+ *     <li>{@code prod} - как в профиле prod: выборка событий на обновление, AsyncAppender, сброс пачками.</li>
+ * </ul>
+ * Запуск: {@code ./mvnw test-compile exec:exec -Pjmh -Djmh.args="Logging"}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class LoggingBenchmark {
+
+    private static final int BATCH_SIZE = 100;
+
+    @Param({"off", "sync", "prod"})
+    public String logging;
+
+    private ChatLaneExecutor chatLanes;
+    private TelegramBotService telegramBotService;
+    private List<Update> batch;
+    private File logFile;
+
+    @Setup
+    public void setUp() throws IOException {
+        logFile = File.createTempFile("logging-benchmark", ".log");
+        configureLogging();
+
+        ReminderService reminderService = mock(ReminderService.class, withSettings().stubOnly());
+        when(reminderService.parseAndSaveReminderAsync(anyLong(), anyString())).thenReturn(CompletableFuture.completedFuture(true));
+        chatLanes = new ChatLaneExecutor(8, BATCH_SIZE);
+        telegramBotService = new TelegramBotService(BenchmarkSupport.stubTelegramBot(), reminderService, chatLanes,
+                BenchmarkSupport.chatSettings(), BenchmarkSupport.metrics());
+
+        batch = new ArrayList<>(BATCH_SIZE);
+        for (int i = 1; i <= BATCH_SIZE; i++) {
+            batch.add(BenchmarkSupport.message(i, i, "01.01.2099 10:00 Напоминание " + i));
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        chatLanes.shutdown();
+        ((LoggerContext) LoggerFactory.getILoggerFactory()).stop();
+        logFile.delete();
+    }
+
+    /**
+     * @return обработано обновлений за вызов, JMH переводит в обновления в секунду
+     */
+    @Benchmark
+    public int processUpdates() {
+        telegramBotService.processUpdates(batch);
+        return BATCH_SIZE;
+    }
+
+    private void configureLogging() {
+        LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+        context.reset();
+        Logger root = context.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME);
+        if ("off".equals(logging)) {
+            root.setLevel(Level.OFF);
+            return;
+        }
+        boolean prod = "prod".equals(logging);
+        root.setLevel(prod ? Level.INFO : Level.DEBUG);
+
+        PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        encoder.setContext(context);
+        encoder.setPattern("%d %level [%thread] %logger{36} - %msg%n");
+        encoder.start();
+
+        FileAppender<ILoggingEvent> file = new FileAppender<>();
+        file.setContext(context);
+        file.setFile(logFile.getAbsolutePath());
+        file.setEncoder(encoder);
+        file.setImmediateFlush(!prod);
+        file.start();
+
+        Appender<ILoggingEvent> appender = file;
+        if (prod) {
+            SamplingTurboFilter sampling = new SamplingTurboFilter();
+            sampling.setEvery(100);
+            sampling.start();
+            context.addTurboFilter(sampling);
+
+            AsyncAppender async = new AsyncAppender();
+            async.setContext(context);
+            async.setQueueSize(8192);
+            async.addAppender(file);
+            async.start();
+            appender = async;
+        }
+        root.addAppender(appender);
+    }
+}
@@ -0,0 +1,105 @@
+package pro.sky.telegrambot.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import pro.sky.telegrambot.Reminder;
+import pro.sky.telegrambot.repository.ReminderJdbcRepository;
+import pro.sky.telegrambot.repository.ReminderRepository;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Скорость отметки отправленных: построчный saveAll против пакетного UPDATE.
+ * H2: {@code ./mvnw test -Pbenchmark -Dtest=MarkAsSentBenchmarkTest}
+ * PostgreSQL (например, {@code docker run -p 5432:5432 -e POSTGRES_PASSWORD=bench postgres:15}):
+ * {@code -Dbenchmark.datasource.url=jdbc:postgresql://localhost:5432/postgres -Dbenchmark.datasource.username=postgres
+ * -Dbenchmark.datasource.password=bench -Dbenchmark.datasource.dialect=org.hibernate.dialect.PostgreSQL10Dialect}
+ */
+@Tag("benchmark")
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({ReminderService.class, ReminderTimeline.class, PendingRemindersCache.class, ChatSettingsService.class,
+        ReminderWriteBuffer.class, ReminderJdbcRepository.class, BotMetrics.class, SimpleMeterRegistry.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestPropertySource(properties = {
+        "spring.datasource.url=${benchmark.datasource.url:jdbc:h2:mem:mark-sent-benchmark}",
+        "spring.datasource.username=${benchmark.datasource.username:sa}",
+        "spring.datasource.password=${benchmark.datasource.password:}",
+        "spring.jpa.database-platform=${benchmark.datasource.dialect:org.hibernate.dialect.H2Dialect}",
+        "spring.liquibase.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.show_sql=false",
+        "logging.level.org.hibernate.SQL=INFO",
+        "logging.level.org.hibernate.type.descriptor.sql.BasicBinder=INFO"
+})
+public class MarkAsSentBenchmarkTest {
+
+    private static final int SEED_CHUNK = 1_000;
+
+    @Autowired
+    private ReminderRepository repository;
+
+    @Autowired
+    private ReminderService reminderService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @ParameterizedTest
+    @ValueSource(ints = {10_000, 100_000})
+    void benchmarkMarkAsSent(int rows) {
+        repository.deleteAllInBatch();
+        seed(rows);
+
+        List<Reminder> reminders = repository.findAll();
+        long start = System.nanoTime();
+        transactionTemplate.executeWithoutResult(status -> {
+            reminders.forEach(r -> r.setSent(true));
+            repository.saveAll(reminders);
+        });
+        report("saveAll", rows, start);
+
+        repository.deleteAllInBatch();
+        seed(rows);
+
+        List<Reminder> fresh = repository.findAll();
+        start = System.nanoTime();
+        reminderService.markAsSent(fresh);
+        report("UPDATE ... WHERE id IN", rows, start);
+
+        assertTrue(repository.findPendingPage(PageRequest.of(0, 1)).isEmpty());
+    }
+
+    private void seed(int rows) {
+        Instant time = Instant.now().plus(1, ChronoUnit.DAYS);
+        for (int from = 0; from < rows; from += SEED_CHUNK) {
+            List<Reminder> chunk = new ArrayList<>(SEED_CHUNK);
+            for (int i = from; i < Math.min(rows, from + SEED_CHUNK); i++) {
+                chunk.add(new Reminder((long) i, "Напоминание " + i, time));
+            }
+            transactionTemplate.executeWithoutResult(status -> repository.saveAll(chunk));
+        }
+    }
+
+    private static void report(String name, int rows, long startNanos) {
+        double seconds = (System.nanoTime() - startNanos) / 1e9;
+        System.out.printf("%s: %d строк за %.2f с (%.0f строк/с)%n", name, rows, seconds, rows / seconds);
+    }
+}
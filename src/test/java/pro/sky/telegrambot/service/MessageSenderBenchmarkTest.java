@@ -0,0 +1,79 @@
+package pro.sky.telegrambot.service;
+
+import com.pengrad.telegrambot.TelegramBot;
+import com.pengrad.telegrambot.request.SendMessage;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.OkHttpClient;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import pro.sky.telegrambot.StubTelegramApi;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Пропускная способность конвейера отправки против последовательного execute, с клиентом OkHttp
+ * по умолчанию (5 запросов на хост) и с лимитами как в TelegramBotConfiguration.
+ * Запуск: {@code ./mvnw test -Pbenchmark -Dtest=MessageSenderBenchmarkTest}
+ */
+@Tag("benchmark")
+public class MessageSenderBenchmarkTest {
+
+    private static final int MESSAGES = 2_000;
+    private static final long API_LATENCY_MS = 20;
+    private static final int IN_FLIGHT = 64;
+
+    @Test
+    void benchmarkSequentialVsPipeline() throws Exception {
+        try (StubTelegramApi stub = new StubTelegramApi(API_LATENCY_MS)) {
+            TelegramBot bot = new TelegramBot.Builder("123456:benchmark").apiUrl(stub.apiUrl()).build();
+
+            long start = System.nanoTime();
+            for (long chatId = 1; chatId <= MESSAGES; chatId++) {
+                bot.execute(new SendMessage(chatId, "Напоминание"));
+            }
+            report("execute последовательно", start);
+
+            pipeline("MessageSender, клиент по умолчанию", bot);
+
+            // как в TelegramBotConfiguration: лимит диспетчера и пул соединений под max-in-flight
+            Dispatcher dispatcher = new Dispatcher();
+            dispatcher.setMaxRequests(IN_FLIGHT + 1);
+            dispatcher.setMaxRequestsPerHost(IN_FLIGHT + 1);
+            OkHttpClient tuned = new OkHttpClient.Builder()
+                    .dispatcher(dispatcher)
+                    .connectionPool(new ConnectionPool(IN_FLIGHT, 5, TimeUnit.MINUTES))
+                    .build();
+            pipeline("MessageSender, настроенный клиент",
+                    new TelegramBot.Builder("123456:benchmark").apiUrl(stub.apiUrl()).okHttpClient(tuned).build());
+            assertEquals(3 * MESSAGES, stub.requestCount());
+        }
+    }
+
+    private static void pipeline(String name, TelegramBot bot) throws Exception {
+        // лимиты подняты, чтобы измерить сам конвейер, а не ограничение Telegram
+        MessageSender sender = new MessageSender(bot, new BotMetrics(new SimpleMeterRegistry()), MESSAGES, IN_FLIGHT,
+                100_000, 100, 3);
+        sender.start();
+        try {
+            long start = System.nanoTime();
+            CompletableFuture<?>[] sends = new CompletableFuture<?>[MESSAGES];
+            for (int i = 0; i < MESSAGES; i++) {
+                sends[i] = sender.submit((long) i + 1, "Напоминание");
+            }
+            CompletableFuture.allOf(sends).get(5, TimeUnit.MINUTES);
+            report(name, start);
+        } finally {
+            sender.stop();
+        }
+    }
+
+    private static void report(String name, long startNanos) {
+        double seconds = (System.nanoTime() - startNanos) / 1e9;
+        System.out.printf("%s: %d сообщений за %.2f с (%.0f msg/s)%n", name, MESSAGES, seconds, MESSAGES / seconds);
+    }
+}
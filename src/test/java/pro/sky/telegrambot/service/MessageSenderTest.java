@@ -0,0 +1,168 @@
+package pro.sky.telegrambot.service;
+
+import com.pengrad.telegrambot.Callback;
+import com.pengrad.telegrambot.TelegramBot;
+import com.pengrad.telegrambot.request.SendMessage;
+import com.pengrad.telegrambot.response.SendResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class MessageSenderTest {
+
+    @Mock
+    private TelegramBot telegramBot;
+
+    private MessageSender messageSender;
+
+    @BeforeEach
+    void setUp() {
+        messageSender = new MessageSender(telegramBot, new BotMetrics(new SimpleMeterRegistry()), 100, 10, 1000, 1000, 2);
+        messageSender.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        messageSender.stop();
+    }
+
+    @Test
+    void testSubmit_CompletesOnSuccessfulResponse() {
+        // Arrange
+        SendResponse response = mock(SendResponse.class);
+        when(response.isOk()).thenReturn(true);
+
+        // Act
+        CompletableFuture<Void> future = messageSender.submit(123L, "Тестовое сообщение");
+        awaitCallback(1).onResponse(new SendMessage(123L, "Тестовое сообщение"), response);
+
+        // Assert
+        assertTrue(future.isDone());
+        assertFalse(future.isCompletedExceptionally());
+    }
+
+    @Test
+    void testSubmit_RetriesAfterTooManyRequests() {
+        // Arrange
+        SendResponse tooManyRequests = mock(SendResponse.class, RETURNS_DEEP_STUBS);
+        when(tooManyRequests.isOk()).thenReturn(false);
+        when(tooManyRequests.errorCode()).thenReturn(429);
+        when(tooManyRequests.parameters().retryAfter()).thenReturn(0);
+        SendResponse ok = mock(SendResponse.class);
+        when(ok.isOk()).thenReturn(true);
+
+        // Act
+        CompletableFuture<Void> future = messageSender.submit(123L, "Тестовое сообщение");
+        awaitCallback(1).onResponse(new SendMessage(123L, "Тестовое сообщение"), tooManyRequests);
+        awaitCallback(2).onResponse(new SendMessage(123L, "Тестовое сообщение"), ok);
+
+        // Assert
+        assertTrue(future.isDone());
+        assertFalse(future.isCompletedExceptionally());
+    }
+
+    @Test
+    void testSubmit_FailsOnApiError() {
+        // Arrange
+        SendResponse badRequest = mock(SendResponse.class);
+        when(badRequest.isOk()).thenReturn(false);
+        when(badRequest.errorCode()).thenReturn(400);
+
+        // Act
+        CompletableFuture<Void> future = messageSender.submit(123L, "Тестовое сообщение");
+        awaitCallback(1).onResponse(new SendMessage(123L, "Тестовое сообщение"), badRequest);
+
+        // Assert
+        assertTrue(future.isCompletedExceptionally());
+    }
+
+    @Test
+    void testSubmit_RetriedMessageKeepsOrderWithinChat() {
+        // Arrange
+        SendResponse tooManyRequests = tooManyRequests(0);
+        SendResponse ok = mock(SendResponse.class);
+        when(ok.isOk()).thenReturn(true);
+
+        // Act
+        CompletableFuture<Void> first = messageSender.submit(123L, "Первое");
+        CompletableFuture<Void> second = messageSender.submit(123L, "Второе");
+        awaitCallback(1).onResponse(new SendMessage(123L, "Первое"), tooManyRequests);
+        awaitCallback(2).onResponse(new SendMessage(123L, "Первое"), ok);
+        awaitCallback(3).onResponse(new SendMessage(123L, "Второе"), ok);
+
+        // Assert
+        assertEquals(List.of("Первое", "Первое", "Второе"), sentTexts(3));
+        assertTrue(first.isDone());
+        assertTrue(second.isDone());
+    }
+
+    @Test
+    void testSubmit_RetryAfterPausesOtherChats() {
+        // Arrange
+        SendResponse tooManyRequests = tooManyRequests(1);
+
+        // Act
+        messageSender.submit(123L, "Первое");
+        awaitCallback(1).onResponse(new SendMessage(123L, "Первое"), tooManyRequests);
+        messageSender.submit(456L, "Другой чат");
+
+        // Assert
+        verify(telegramBot, after(500).times(1)).execute(any(SendMessage.class), any());
+        verify(telegramBot, timeout(5000).times(3)).execute(any(SendMessage.class), any());
+    }
+
+    @Test
+    void testEvictIdleChatLanes_ChatCanBeUsedAgain() {
+        // Arrange
+        SendResponse ok = mock(SendResponse.class);
+        when(ok.isOk()).thenReturn(true);
+        messageSender.submit(123L, "Первое");
+        awaitCallback(1).onResponse(new SendMessage(123L, "Первое"), ok);
+
+        // Act
+        messageSender.evictIdleChatLanes();
+        CompletableFuture<Void> future = messageSender.submit(123L, "Второе");
+        awaitCallback(2).onResponse(new SendMessage(123L, "Второе"), ok);
+
+        // Assert
+        assertTrue(future.isDone());
+        assertEquals(0, messageSender.queueSize());
+    }
+
+    private static SendResponse tooManyRequests(int retryAfter) {
+        SendResponse response = mock(SendResponse.class, RETURNS_DEEP_STUBS);
+        when(response.isOk()).thenReturn(false);
+        when(response.errorCode()).thenReturn(429);
+        when(response.parameters().retryAfter()).thenReturn(retryAfter);
+        return response;
+    }
+
+    private List<Object> sentTexts(int invocations) {
+        ArgumentCaptor<SendMessage> captor = ArgumentCaptor.forClass(SendMessage.class);
+        verify(telegramBot, times(invocations)).execute(captor.capture(), any());
+        return captor.getAllValues().stream()
+                .map(request -> request.getParameters().get("text"))
+                .collect(Collectors.toList());
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private Callback<SendMessage, SendResponse> awaitCallback(int invocation) {
+        ArgumentCaptor<Callback> captor = ArgumentCaptor.forClass(Callback.class);
+        verify(telegramBot, timeout(5000).times(invocation)).execute(any(SendMessage.class), captor.capture());
+        return captor.getValue();
+    }
+}
@@ -0,0 +1,51 @@
+package pro.sky.telegrambot.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import pro.sky.telegrambot.Reminder;
+import pro.sky.telegrambot.repository.ReminderRepository;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Разбор сообщения с напоминанием: регулярное выражение, разбор даты и сохранение в замоканный репозиторий.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ParseReminderBenchmark {
+
+    @Param({
+            "01.01.2099 10:00 Позвонить маме",
+            "Напомни мне завтра позвонить маме",
+            "31.13.2099 25:00 Неверная дата"
+    })
+    public String message;
+
+    private ReminderService reminderService;
+
+    @Setup
+    public void setUp() {
+        BenchmarkSupport.silenceLogging();
+        ReminderRepository repository = mock(ReminderRepository.class, withSettings().stubOnly());
+        when(repository.save(any(Reminder.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        reminderService = new ReminderService(repository,
+                new ReminderTimeline(DispatchMode.CLAIM), new PendingRemindersCache(10_000, Duration.ofMinutes(10)),
+                BenchmarkSupport.chatSettings(), mock(ReminderWriteBuffer.class, withSettings().stubOnly()));
+    }
+
+    @Benchmark
+    public boolean parseAndSave() {
+        return reminderService.parseAndSaveReminder(42L, message);
+    }
+}
@@ -0,0 +1,101 @@
+package pro.sky.telegrambot.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import pro.sky.telegrambot.ReminderView;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class PendingRemindersCacheTest {
+
+    private final PendingRemindersCache cache = new PendingRemindersCache(100, Duration.ofMinutes(10));
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void testInvalidate_WithoutTransaction_DropsEntryImmediately() {
+        // Arrange
+        load();
+
+        // Act
+        cache.invalidate(1L);
+        load();
+
+        // Assert
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void testInvalidate_InTransaction_DropsEntryOnlyAfterCommit() {
+        // Arrange
+        load();
+        TransactionSynchronizationManager.initSynchronization();
+
+        // Act
+        cache.invalidate(1L);
+        load();
+        int loadsBeforeCommit = loads.get();
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        load();
+
+        // Assert
+        assertEquals(1, loadsBeforeCommit);
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void testInvalidate_RolledBackTransaction_KeepsEntry() {
+        // Arrange
+        load();
+        TransactionSynchronizationManager.initSynchronization();
+
+        // Act
+        cache.invalidate(1L);
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        load();
+
+        // Assert
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void testGet_ClaimMode_ExpiresAfterShortTtl() {
+        // Arrange: в режиме claim другие узлы кэш не сбрасывают, спасает только короткий TTL
+        PendingRemindersCache claimCache = new PendingRemindersCache(100, Duration.ofMinutes(10), DispatchMode.CLAIM,
+                Duration.ZERO);
+        AtomicInteger claimLoads = new AtomicInteger();
+
+        // Act
+        for (int i = 0; i < 2; i++) {
+            claimCache.get(1L, chatId -> {
+                claimLoads.incrementAndGet();
+                return new SliceImpl<ReminderView>(List.of());
+            });
+        }
+
+        // Assert
+        assertEquals(2, claimLoads.get());
+    }
+
+    private void load() {
+        cache.get(1L, chatId -> {
+            loads.incrementAndGet();
+            return new SliceImpl<ReminderView>(List.of());
+        });
+    }
+}
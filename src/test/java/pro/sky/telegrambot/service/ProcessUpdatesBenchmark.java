@@ -0,0 +1,65 @@
+package pro.sky.telegrambot.service;
+
+import com.pengrad.telegrambot.model.Update;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Обработка пачки long polling из {@code batchSize} обновлений от разных чатов через полосы {@link ChatLaneExecutor}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ProcessUpdatesBenchmark {
+
+    @Param({"1", "10", "100"})
+    public int batchSize;
+
+    @Param({"8"})
+    public int lanes;
+
+    private ChatLaneExecutor chatLanes;
+    private TelegramBotService telegramBotService;
+    private List<Update> batch;
+
+    @Setup
+    public void setUp() {
+        BenchmarkSupport.silenceLogging();
+        ReminderService reminderService = mock(ReminderService.class, withSettings().stubOnly());
+        when(reminderService.parseAndSaveReminderAsync(anyLong(), anyString())).thenReturn(CompletableFuture.completedFuture(true));
+        chatLanes = new ChatLaneExecutor(lanes, batchSize);
+        telegramBotService = new TelegramBotService(BenchmarkSupport.stubTelegramBot(), reminderService, chatLanes,
+                BenchmarkSupport.chatSettings(), BenchmarkSupport.metrics());
+
+        batch = new ArrayList<>(batchSize);
+        for (int i = 1; i <= batchSize; i++) {
+            batch.add(BenchmarkSupport.message(i, i, "01.01.2099 10:00 Напоминание " + i));
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        chatLanes.shutdown();
+    }
+
+    @Benchmark
+    public int processUpdates() {
+        return telegramBotService.processUpdates(batch);
+    }
+}
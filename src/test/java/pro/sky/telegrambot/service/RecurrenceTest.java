@@ -0,0 +1,88 @@
+package pro.sky.telegrambot.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RecurrenceTest {
+
+    // понедельник
+    private static final LocalDateTime FIRST = LocalDateTime.of(2030, 3, 4, 9, 30);
+
+    @Test
+    void testExtract_OneShot() {
+        // Act
+        Recurrence.Parsed parsed = Recurrence.extract("Позвонить маме", FIRST);
+
+        // Assert
+        assertNotNull(parsed);
+        assertNull(parsed.getCron());
+        assertEquals("Позвонить маме", parsed.getText());
+    }
+
+    @Test
+    void testExtract_Keywords() {
+        assertEquals("0 30 9 * * *", Recurrence.extract("ежедневно Витамины", FIRST).getCron());
+        assertEquals("0 30 9 * * MON-FRI", Recurrence.extract("по будням Планёрка", FIRST).getCron());
+        assertEquals("0 30 9 * * MON", Recurrence.extract("еженедельно Отчёт", FIRST).getCron());
+        assertEquals("0 30 9 4 * *", Recurrence.extract("ежемесячно Квартплата", FIRST).getCron());
+        assertEquals("Витамины", Recurrence.extract("Ежедневно   Витамины", FIRST).getText());
+    }
+
+    @Test
+    void testExtract_MonthlyOnThe31stMeansLastDay() {
+        // Act
+        Recurrence.Parsed parsed = Recurrence.extract("ежемесячно Зарплата", LocalDateTime.of(2030, 1, 31, 10, 0));
+
+        // Assert
+        assertEquals("0 0 10 L * *", parsed.getCron());
+        assertEquals(Instant.parse("2030-02-28T10:00:00Z"),
+                Recurrence.next(parsed.getCron(), Instant.parse("2030-01-31T10:00:00Z"), ZoneId.of("UTC")));
+    }
+
+    @Test
+    void testExtract_CronExpression() {
+        // Act
+        Recurrence.Parsed parsed = Recurrence.extract("cron(0 0 9 * * MON-FRI) Стендап", FIRST);
+
+        // Assert
+        assertEquals("0 0 9 * * MON-FRI", parsed.getCron());
+        assertEquals("Стендап", parsed.getText());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"cron(0 0 25 * * *) Текст", "cron(0 0 9 * * *", "cron(0 0 9 * * *)", "ежедневно "})
+    void testExtract_InvalidRecurrence(String text) {
+        assertNull(Recurrence.extract(text, FIRST));
+    }
+
+    @Test
+    void testExtract_KeywordInsideWordIsText() {
+        // Act
+        Recurrence.Parsed parsed = Recurrence.extract("ежедневник купить", FIRST);
+
+        // Assert
+        assertNull(parsed.getCron());
+        assertEquals("ежедневник купить", parsed.getText());
+    }
+
+    @Test
+    void testNext_KeepsLocalTimeAcrossDaylightSaving() {
+        // Arrange
+        ZoneId berlin = ZoneId.of("Europe/Berlin");
+
+        // Act: 31.03.2030 в Европе переходят на летнее время
+        Instant beforeSwitch = Recurrence.next("0 0 9 * * *", Instant.parse("2030-03-29T08:00:00Z"), berlin);
+        Instant afterSwitch = Recurrence.next("0 0 9 * * *", beforeSwitch, berlin);
+
+        // Assert
+        assertEquals(Instant.parse("2030-03-30T08:00:00Z"), beforeSwitch);
+        assertEquals(Instant.parse("2030-03-31T07:00:00Z"), afterSwitch);
+    }
+}
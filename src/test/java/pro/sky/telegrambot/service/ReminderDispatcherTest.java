@@ -0,0 +1,482 @@
+package pro.sky.telegrambot.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import pro.sky.telegrambot.Reminder;
+import pro.sky.telegrambot.ReminderDelivery;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.ArgumentMatchers.notNull;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ReminderDispatcherTest {
+
+    @Mock
+    private ReminderTimeline timeline;
+
+    @Mock
+    private ReminderService reminderService;
+
+    @Mock
+    private DeliveryService deliveryService;
+
+    @Mock
+    private MessageSender messageSender;
+
+    @Mock
+    private BotMetrics metrics;
+
+    @InjectMocks
+    private ReminderDispatcher reminderDispatcher;
+
+    @Test
+    void testDispatch_EnqueuesAndMarksDeliveriesSent() {
+        // Arrange
+        Instant now = Instant.now();
+        Reminder reminder1 = new Reminder(1L, "Напоминание 1", now);
+        Reminder reminder2 = new Reminder(2L, "Напоминание 2", now);
+        ReminderDelivery delivery1 = delivery(reminder1, 11L);
+        ReminderDelivery delivery2 = delivery(reminder2, 12L);
+
+        when(deliveryService.enqueue(eq(List.of(reminder1, reminder2)), any(), any(), any()))
+                .thenReturn(List.of(delivery1, delivery2));
+        when(messageSender.submit(anyLong(), anyString())).thenReturn(CompletableFuture.completedFuture(null));
+
+        // Act
+        reminderDispatcher.dispatch(List.of(reminder1, reminder2)).join();
+
+        // Assert
+        verify(messageSender, times(1)).submit(1L, "Напоминание: Напоминание 1");
+        verify(messageSender, times(1)).submit(2L, "Напоминание: Напоминание 2");
+        verify(deliveryService, times(1)).markSent(delivery1);
+        verify(deliveryService, times(1)).markSent(delivery2);
+        verify(deliveryService, never()).markFailed(any(), any());
+    }
+
+    @Test
+    void testDispatch_FailedSendIsMarkedFailed() {
+        // Arrange
+        Instant now = Instant.now();
+        ReminderDelivery delivered = delivery(new Reminder(1L, "Доставлено", now), 11L);
+        ReminderDelivery failed = delivery(new Reminder(2L, "Не доставлено", now), 12L);
+        IllegalStateException error = new IllegalStateException("Ошибка");
+
+        when(deliveryService.enqueue(any(), any(), any(), any())).thenReturn(List.of(delivered, failed));
+        when(messageSender.submit(eq(1L), anyString())).thenReturn(CompletableFuture.completedFuture(null));
+        when(messageSender.submit(eq(2L), anyString())).thenReturn(CompletableFuture.failedFuture(error));
+
+        // Act
+        reminderDispatcher.dispatch(List.of()).join();
+
+        // Assert
+        verify(deliveryService, times(1)).markSent(delivered);
+        verify(deliveryService, times(1)).markFailed(failed, error);
+        verify(metrics, times(1)).recordDelivered(now);
+        verify(metrics, times(1)).recordUndelivered(1);
+    }
+
+    @Test
+    void testDispatch_OutcomeStoreFailureDoesNotBreakBatch() {
+        // Arrange
+        ReminderDelivery delivery = delivery(new Reminder(1L, "Задача", Instant.now()), 11L);
+        when(deliveryService.enqueue(any(), any(), any(), any())).thenReturn(List.of(delivery));
+        when(messageSender.submit(anyLong(), anyString())).thenReturn(CompletableFuture.completedFuture(null));
+        doThrow(new IllegalStateException("БД недоступна")).when(deliveryService).markSent(delivery);
+
+        // Act
+        reminderDispatcher.dispatch(List.of()).join();
+
+        // Assert
+        verify(deliveryService, times(1)).markSent(delivery);
+        verify(metrics, never()).recordDelivered(any());
+    }
+
+    @Test
+    void testDispatch_CoalescesRemindersOfOneChat() {
+        // Arrange
+        ReflectionTestUtils.setField(reminderDispatcher, "coalesce", true);
+        Instant now = Instant.now();
+        ReminderDelivery first = delivery(new Reminder(1L, "Первое", now), 11L);
+        ReminderDelivery second = delivery(new Reminder(1L, "Второе", now.plusSeconds(1)), 12L);
+        ReminderDelivery other = delivery(new Reminder(2L, "Другой чат", now), 13L);
+        IllegalStateException error = new IllegalStateException("Ошибка");
+
+        when(deliveryService.enqueue(any(), any(), any(), any())).thenReturn(List.of(second, other, first));
+        when(messageSender.submit(1L, "Напоминания:\n• Первое\n• Второе"))
+                .thenReturn(CompletableFuture.failedFuture(error));
+        when(messageSender.submit(2L, "Напоминание: Другой чат")).thenReturn(CompletableFuture.completedFuture(null));
+
+        // Act
+        reminderDispatcher.dispatch(List.of()).join();
+
+        // Assert
+        verify(messageSender, times(2)).submit(anyLong(), anyString());
+        verify(deliveryService, times(1)).markFailed(first, error);
+        verify(deliveryService, times(1)).markFailed(second, error);
+        verify(deliveryService, times(1)).markSent(other);
+        verify(metrics, times(2)).recordUndelivered(1);
+    }
+
+    @Test
+    void testDispatchOrRetry_EnqueueFailureReturnsRemindersToTimeline() {
+        // Arrange
+        List<Reminder> due = List.of(new Reminder(1L, "Задача", Instant.now()));
+        when(deliveryService.enqueue(eq(due), any(), any(), any()))
+                .thenThrow(new IllegalStateException("БД недоступна"));
+
+        // Act
+        reminderDispatcher.dispatchOrRetry(due);
+        reminderDispatcher.dispatchOrRetry(due);
+
+        // Assert
+        verify(timeline, times(1)).retryLater(due, Duration.ofSeconds(1));
+        verify(timeline, times(1)).retryLater(due, Duration.ofSeconds(2));
+        verifyNoInteractions(messageSender);
+    }
+
+    @Test
+    void testDispatchOrRetry_BackoffIsCappedAndResetAfterSuccess() {
+        // Arrange
+        ReflectionTestUtils.setField(reminderDispatcher, "retryMax", Duration.ofSeconds(3));
+        List<Reminder> due = List.of(new Reminder(1L, "Задача", Instant.now()));
+        when(deliveryService.enqueue(eq(due), any(), any(), any()))
+                .thenThrow(new IllegalStateException("БД недоступна"))
+                .thenThrow(new IllegalStateException("БД недоступна"))
+                .thenThrow(new IllegalStateException("БД недоступна"))
+                .thenReturn(List.of())
+                .thenThrow(new IllegalStateException("БД недоступна"));
+
+        // Act
+        for (int i = 0; i < 5; i++) {
+            reminderDispatcher.dispatchOrRetry(due);
+        }
+
+        // Assert
+        verify(timeline, times(2)).retryLater(due, Duration.ofSeconds(1));
+        verify(timeline, times(1)).retryLater(due, Duration.ofSeconds(2));
+        verify(timeline, times(1)).retryLater(due, Duration.ofSeconds(3));
+    }
+
+    @Test
+    void testAwaitDue_WaitsCoalesceWindowForMoreDueReminders() throws InterruptedException {
+        // Arrange
+        ReflectionTestUtils.setField(reminderDispatcher, "coalesce", true);
+        ReflectionTestUtils.setField(reminderDispatcher, "coalesceWindow", Duration.ofMillis(10));
+        Reminder first = new Reminder(1L, "Первое", Instant.now());
+        Reminder second = new Reminder(1L, "Второе", Instant.now());
+        when(timeline.awaitDue(100)).thenReturn(List.of(first));
+        when(timeline.drainDue(99)).thenReturn(List.of(second));
+
+        // Act
+        List<Reminder> due = reminderDispatcher.awaitDue();
+
+        // Assert
+        assertEquals(List.of(first, second), due);
+    }
+
+    @Test
+    void testLoadPending_SchedulesFutureRemindersAndCountsOverdue() {
+        // Arrange
+        Reminder future = new Reminder(2L, "Будущее", Instant.now().plus(1, ChronoUnit.DAYS));
+        when(reminderService.countPendingUntil(any())).thenReturn(3L);
+        when(reminderService.getPendingPage(any(), eq(100))).thenReturn(List.of(future));
+
+        // Act
+        Instant cutoff = reminderDispatcher.loadPending();
+
+        // Assert
+        verify(reminderService, times(1)).countPendingUntil(cutoff);
+        verify(reminderService, times(1)).getPendingPage(argThat(cursor ->
+                cursor.getReminderDateTime().equals(cutoff) && cursor.getId() == Long.MAX_VALUE), eq(100));
+        verify(timeline, times(1)).schedule(future);
+        assertEquals(3, reminderDispatcher.catchUpRemaining());
+        verifyNoInteractions(deliveryService, messageSender);
+    }
+
+    @Test
+    void testCatchUp_SendsMostOverdueFirst() throws InterruptedException {
+        // Arrange
+        ReflectionTestUtils.setField(reminderDispatcher, "catchUpRate", 1000.0);
+        Instant now = Instant.now();
+        Reminder threeHoursAgo = new Reminder(2L, "Три часа назад", now.minus(3, ChronoUnit.HOURS));
+        Reminder twoHoursAgo = new Reminder(3L, "Два часа назад", now.minus(2, ChronoUnit.HOURS));
+        Reminder hourAgo = new Reminder(1L, "Час назад", now.minus(1, ChronoUnit.HOURS));
+        Reminder afterCutoff = new Reminder(4L, "Уже в очереди", now.plus(1, ChronoUnit.MINUTES));
+        when(reminderService.getPendingPage(null, 100))
+                .thenReturn(List.of(threeHoursAgo, twoHoursAgo, hourAgo, afterCutoff));
+        when(deliveryService.enqueue(any(), any(), any(), any())).thenReturn(List.of());
+
+        // Act
+        reminderDispatcher.catchUp(now);
+
+        // Assert
+        verify(deliveryService, times(1))
+                .enqueue(eq(List.of(threeHoursAgo, twoHoursAgo, hourAgo)), any(), any(), any());
+        verify(metrics, times(1)).recordCatchUp("sent", 3);
+        assertEquals(0, reminderDispatcher.catchUpRemaining());
+    }
+
+    @Test
+    void testCatchUp_NewestFirstOrder() throws InterruptedException {
+        // Arrange
+        ReflectionTestUtils.setField(reminderDispatcher, "catchUpRate", 1000.0);
+        ReflectionTestUtils.setField(reminderDispatcher, "catchUpOrder", CatchUpOrder.NEWEST_FIRST);
+        Instant now = Instant.now();
+        Reminder hourAgo = new Reminder(1L, "Час назад", now.minus(1, ChronoUnit.HOURS));
+        Reminder threeHoursAgo = new Reminder(2L, "Три часа назад", now.minus(3, ChronoUnit.HOURS));
+        when(reminderService.getPendingPageBefore(any(), eq(100))).thenReturn(List.of(hourAgo, threeHoursAgo));
+        when(deliveryService.enqueue(any(), any(), any(), any())).thenReturn(List.of());
+
+        // Act
+        reminderDispatcher.catchUp(now);
+
+        // Assert
+        verify(reminderService, times(1)).getPendingPageBefore(argThat(cursor ->
+                cursor.getReminderDateTime().equals(now) && cursor.getId() == Long.MAX_VALUE), eq(100));
+        verify(deliveryService, times(1)).enqueue(eq(List.of(hourAgo, threeHoursAgo)), any(), any(), any());
+        verify(reminderService, never()).getPendingPage(any(), anyInt());
+    }
+
+    @Test
+    void testCatchUp_SkipsStaleReminders() throws InterruptedException {
+        // Arrange
+        ReflectionTestUtils.setField(reminderDispatcher, "catchUpRate", 1000.0);
+        ReflectionTestUtils.setField(reminderDispatcher, "staleAfter", Duration.ofHours(2));
+        ReflectionTestUtils.setField(reminderDispatcher, "staleAction", StaleAction.SKIP);
+        Instant now = Instant.now();
+        Reminder stale = new Reminder(2L, "Вчерашнее", now.minus(1, ChronoUnit.DAYS));
+        Reminder recent = new Reminder(1L, "Недавнее", now.minus(1, ChronoUnit.HOURS));
+        ReminderDelivery staleDelivery = delivery(stale, 12L);
+        ReminderDelivery recentDelivery = delivery(recent, 11L);
+        when(reminderService.getPendingPage(isNull(), eq(100))).thenReturn(List.of(stale, recent));
+        when(reminderService.getPendingPage(notNull(), eq(100))).thenReturn(List.of(recent));
+        when(deliveryService.enqueue(eq(List.of(stale)), any(), any(), any())).thenReturn(List.of(staleDelivery));
+        when(deliveryService.enqueue(eq(List.of(recent)), any(), any(), any())).thenReturn(List.of(recentDelivery));
+        when(messageSender.submit(anyLong(), anyString())).thenReturn(CompletableFuture.completedFuture(null));
+
+        // Act
+        reminderDispatcher.catchUp(now);
+
+        // Assert
+        verify(reminderService, times(1)).getPendingPage(argThat(cursor -> cursor != null
+                && cursor.getReminderDateTime().equals(now.minus(2, ChronoUnit.HOURS))
+                && cursor.getId() == Long.MIN_VALUE), eq(100));
+        verify(deliveryService, times(1)).markSkipped(List.of(staleDelivery));
+        verify(messageSender, times(1)).submit(1L, "Напоминание: Недавнее");
+        verify(messageSender, never()).submit(eq(2L), anyString());
+        verify(metrics, times(1)).recordCatchUp("skipped", 1);
+        verify(metrics, times(1)).recordCatchUp("sent", 1);
+    }
+
+    @Test
+    void testCatchUp_SummarizesStaleRemindersOncePerChatAcrossPages() throws InterruptedException {
+        // Arrange: страницы по 2 напоминания, три напоминания чата 1 растянулись на две страницы
+        ReflectionTestUtils.setField(reminderDispatcher, "catchUpRate", 1000.0);
+        ReflectionTestUtils.setField(reminderDispatcher, "batchSize", 2);
+        ReflectionTestUtils.setField(reminderDispatcher, "staleAfter", Duration.ofHours(2));
+        ReflectionTestUtils.setField(reminderDispatcher, "staleAction", StaleAction.SUMMARIZE);
+        Instant now = Instant.now();
+        Reminder first = new Reminder(1L, "Зарядка", now.minus(3, ChronoUnit.DAYS));
+        Reminder second = new Reminder(1L, "Созвон", now.minus(2, ChronoUnit.DAYS));
+        Reminder third = new Reminder(1L, "Отчёт", now.minus(1, ChronoUnit.DAYS));
+        Reminder other = new Reminder(2L, "Полить цветы", now.minus(1, ChronoUnit.DAYS));
+        List<ReminderDelivery> deliveries = List.of(delivery(first, 11L), delivery(second, 12L),
+                delivery(third, 13L), delivery(other, 14L));
+        Instant staleBefore = now.minus(2, ChronoUnit.HOURS);
+        when(reminderService.getOverdueByChat(null, staleBefore, 2)).thenReturn(List.of(first, second));
+        when(reminderService.getOverdueByChat(second, staleBefore, 2)).thenReturn(List.of(third, other));
+        when(reminderService.getOverdueByChat(other, staleBefore, 2)).thenReturn(List.of());
+        when(reminderService.getPendingPage(notNull(), eq(2))).thenReturn(List.of());
+        when(deliveryService.enqueue(eq(List.of(first, second, third, other)), any(), any(), any()))
+                .thenReturn(deliveries);
+        when(messageSender.submit(anyLong(), anyString())).thenReturn(CompletableFuture.completedFuture(null));
+
+        // Act
+        reminderDispatcher.catchUp(now);
+
+        // Assert
+        verify(messageSender, times(1))
+                .submit(1L, "Пока бот был недоступен, наступили напоминания:\n• Зарядка\n• Созвон\n• Отчёт");
+        verify(messageSender, times(1))
+                .submit(2L, "Пока бот был недоступен, наступили напоминания:\n• Полить цветы");
+        verify(messageSender, times(2)).submit(anyLong(), anyString());
+        deliveries.forEach(delivery -> verify(deliveryService, times(1)).markSent(delivery));
+        verify(metrics, times(1)).recordCatchUp("summarized", 4);
+        verify(reminderService, never()).getPendingPage(isNull(), anyInt());
+    }
+
+    @Test
+    void testCatchUp_SummaryChunkHoldsAtMostRateChats() throws InterruptedException {
+        // Arrange: при 1 сообщении в секунду в пачке один чат, даже если страница вмещает оба
+        ReflectionTestUtils.setField(reminderDispatcher, "catchUpRate", 1.0);
+        ReflectionTestUtils.setField(reminderDispatcher, "batchSize", 3);
+        ReflectionTestUtils.setField(reminderDispatcher, "staleAfter", Duration.ofHours(2));
+        ReflectionTestUtils.setField(reminderDispatcher, "staleAction", StaleAction.SUMMARIZE);
+        Instant now = Instant.now();
+        Reminder first = new Reminder(1L, "Зарядка", now.minus(1, ChronoUnit.DAYS));
+        Reminder other = new Reminder(2L, "Полить цветы", now.minus(1, ChronoUnit.DAYS));
+        ReminderDelivery firstDelivery = delivery(first, 11L);
+        ReminderDelivery otherDelivery = delivery(other, 12L);
+        Instant staleBefore = now.minus(2, ChronoUnit.HOURS);
+        when(reminderService.getOverdueByChat(null, staleBefore, 3)).thenReturn(List.of(first, other));
+        when(reminderService.getPendingPage(notNull(), eq(3))).thenReturn(List.of());
+        when(deliveryService.enqueue(eq(List.of(first)), any(), any(), any())).thenReturn(List.of(firstDelivery));
+        when(deliveryService.enqueue(eq(List.of(other)), any(), any(), any())).thenReturn(List.of(otherDelivery));
+        when(messageSender.submit(anyLong(), anyString())).thenReturn(CompletableFuture.completedFuture(null));
+
+        // Act
+        reminderDispatcher.catchUp(now);
+
+        // Assert
+        verify(deliveryService, times(2)).enqueue(any(), any(), any(), any());
+        verify(messageSender, times(1)).submit(eq(1L), anyString());
+        verify(messageSender, times(1)).submit(eq(2L), anyString());
+        verify(metrics, times(2)).recordCatchUp("summarized", 1);
+    }
+
+    @Test
+    void testCatchUp_IsRateLimited() throws InterruptedException {
+        // Arrange: 4 напоминания при 2 в секунду - вторая пара уходит не раньше чем через секунду
+        ReflectionTestUtils.setField(reminderDispatcher, "catchUpRate", 2.0);
+        List<Reminder> backlog = new ArrayList<>();
+        for (long i = 4; i >= 1; i--) {
+            backlog.add(new Reminder(i, "Просрочено " + i, Instant.now().minus(i, ChronoUnit.MINUTES)));
+        }
+        when(reminderService.getPendingPage(null, 100)).thenReturn(backlog);
+        when(deliveryService.enqueue(any(), any(), any(), any())).thenReturn(List.of());
+
+        // Act
+        long start = System.nanoTime();
+        reminderDispatcher.catchUp(Instant.now());
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        // Assert
+        verify(deliveryService, times(2)).enqueue(any(), any(), any(), any());
+        assertTrue(elapsedMillis >= 900, "догон занял " + elapsedMillis + " мс");
+    }
+
+    @Test
+    void testCatchUp_ChunkFailureDoesNotStopCatchUp() throws InterruptedException {
+        // Arrange: страницы по одному напоминанию, ошибка первой не останавливает чтение следующих
+        ReflectionTestUtils.setField(reminderDispatcher, "catchUpRate", 1000.0);
+        ReflectionTestUtils.setField(reminderDispatcher, "batchSize", 1);
+        Reminder first = new Reminder(1L, "Первое", Instant.now().minus(2, ChronoUnit.HOURS));
+        Reminder second = new Reminder(2L, "Второе", Instant.now().minus(1, ChronoUnit.HOURS));
+        when(reminderService.getPendingPage(null, 1)).thenReturn(List.of(first));
+        when(reminderService.getPendingPage(first, 1)).thenReturn(List.of(second));
+        when(reminderService.getPendingPage(second, 1)).thenReturn(List.of());
+        when(deliveryService.enqueue(eq(List.of(first)), any(), any(), any()))
+                .thenThrow(new IllegalStateException("БД недоступна"));
+        when(deliveryService.enqueue(eq(List.of(second)), any(), any(), any())).thenReturn(List.of());
+
+        // Act
+        reminderDispatcher.catchUp(Instant.now());
+
+        // Assert
+        verify(deliveryService, times(1)).enqueue(eq(List.of(second)), any(), any(), any());
+        assertEquals(0, reminderDispatcher.catchUpRemaining());
+    }
+
+    @Test
+    void testLoadPending_ReadsNextPageAfterFullPage() {
+        // Arrange
+        List<Reminder> fullPage = new ArrayList<>();
+        for (long i = 0; i < 100; i++) {
+            fullPage.add(new Reminder(i, "Будущее " + i, Instant.now().plus(1, ChronoUnit.DAYS)));
+        }
+        Reminder last = fullPage.get(99);
+        when(reminderService.getPendingPage(argThat(cursor -> cursor != last), eq(100))).thenReturn(fullPage);
+        when(reminderService.getPendingPage(last, 100)).thenReturn(List.of());
+
+        // Act
+        reminderDispatcher.loadPending();
+
+        // Assert
+        verify(reminderService, times(1)).getPendingPage(last, 100);
+        verify(timeline, times(100)).schedule(any());
+    }
+
+    @Test
+    void testClaimAndDispatch_SendsClaimedReminders() {
+        // Arrange
+        ReminderDelivery claimed = delivery(new Reminder(1L, "Захвачено", Instant.now()), 11L);
+        when(deliveryService.claimDue(any(), any(), any(), eq(100))).thenReturn(List.of(claimed));
+        when(messageSender.submit(anyLong(), anyString())).thenReturn(CompletableFuture.completedFuture(null));
+
+        // Act
+        int count = reminderDispatcher.claimAndDispatch();
+
+        // Assert
+        assertEquals(1, count);
+        verify(messageSender, times(1)).submit(1L, "Напоминание: Захвачено");
+        verify(deliveryService, times(1)).markSent(claimed);
+    }
+
+    @Test
+    void testClaimAndDispatch_NothingToClaim() {
+        // Arrange
+        when(deliveryService.claimDue(any(), any(), any(), eq(100))).thenReturn(List.of());
+
+        // Act
+        int count = reminderDispatcher.claimAndDispatch();
+
+        // Assert
+        assertEquals(0, count);
+        verifyNoInteractions(messageSender);
+    }
+
+    @Test
+    void testRetryDeliveries_ResendsClaimedRetries() {
+        // Arrange
+        ReminderDelivery retry = delivery(new Reminder(1L, "Повтор", Instant.now()), 11L);
+        retry.setAttempts(2);
+        when(deliveryService.claimRetries(any(), any(), any(), eq(100))).thenReturn(List.of(retry));
+        when(messageSender.submit(anyLong(), anyString())).thenReturn(CompletableFuture.completedFuture(null));
+
+        // Act
+        reminderDispatcher.retryDeliveries();
+
+        // Assert
+        verify(messageSender, times(1)).submit(1L, "Напоминание: Повтор");
+        verify(deliveryService, times(1)).markSent(retry);
+    }
+
+    @Test
+    void testRetryDeliveries_ClaimErrorIsLogged() {
+        // Arrange
+        when(deliveryService.claimRetries(any(), any(), any(), eq(100)))
+                .thenThrow(new IllegalStateException("БД недоступна"));
+
+        // Act & Assert
+        reminderDispatcher.retryDeliveries();
+        verifyNoInteractions(messageSender);
+    }
+
+    private static ReminderDelivery delivery(Reminder reminder, Long id) {
+        reminder.setId(id - 10);
+        Instant now = Instant.now();
+        ReminderDelivery delivery = new ReminderDelivery(reminder, "node-1", now, now.plusSeconds(300));
+        delivery.setId(id);
+        return delivery;
+    }
+}
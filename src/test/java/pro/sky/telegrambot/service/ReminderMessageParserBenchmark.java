@@ -0,0 +1,54 @@
+package pro.sky.telegrambot.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Сканер {@link ReminderMessageParser} против прежней пары регулярное выражение + DateTimeFormatter.
+ * Запуск с профилем аллокаций: {@code ./mvnw test-compile exec:exec -Pjmh -Djmh.args="ReminderMessageParser -prof gc"}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ReminderMessageParserBenchmark {
+
+    private static final Pattern MESSAGE_PATTERN = Pattern.compile("(\\d{2}\\.\\d{2}\\.\\d{4} \\d{2}:\\d{2})\\s+(.+)");
+    private static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern("dd.MM.yyyy HH:mm");
+
+    @Param({
+            "01.01.2099 10:00 Позвонить маме",
+            "Напомни мне завтра позвонить маме",
+            "31.13.2099 25:00 Неверная дата"
+    })
+    public String message;
+
+    @Benchmark
+    public Object regex() {
+        Matcher matcher = MESSAGE_PATTERN.matcher(message);
+        if (!matcher.find()) {
+            return null;
+        }
+        try {
+            return LocalDateTime.parse(matcher.group(1), DATE_TIME_FORMATTER);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    @Benchmark
+    public Object scanner() {
+        return ReminderMessageParser.parse(message);
+    }
+}
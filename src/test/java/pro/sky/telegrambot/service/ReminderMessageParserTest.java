@@ -0,0 +1,112 @@
+package pro.sky.telegrambot.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReminderMessageParserTest {
+
+    // прежняя реализация, с которой сверяется сканер
+    private static final Pattern MESSAGE_PATTERN = Pattern.compile("(\\d{2}\\.\\d{2}\\.\\d{4} \\d{2}:\\d{2})\\s+(.+)");
+    private static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern("dd.MM.yyyy HH:mm");
+
+    @Test
+    void testParse_ValidMessage() {
+        // Act
+        ReminderMessageParser.ParsedReminder parsed = ReminderMessageParser.parse("01.01.2030 20:00 Сделать домашнюю работу");
+
+        // Assert
+        assertNotNull(parsed);
+        assertEquals(LocalDateTime.of(2030, 1, 1, 20, 0), parsed.getDateTime());
+        assertEquals("Сделать домашнюю работу", parsed.getText());
+    }
+
+    @Test
+    void testParse_DateInsideText() {
+        // Act
+        ReminderMessageParser.ParsedReminder parsed = ReminderMessageParser.parse("Напомни 05.03.2030 09:15   позвонить\nвторая строка");
+
+        // Assert
+        assertNotNull(parsed);
+        assertEquals(LocalDateTime.of(2030, 3, 5, 9, 15), parsed.getDateTime());
+        assertEquals("позвонить", parsed.getText());
+    }
+
+    @Test
+    void testParse_SmartResolverSemantics() {
+        assertEquals(LocalDateTime.of(2030, 4, 30, 10, 0), ReminderMessageParser.parse("31.04.2030 10:00 Т").getDateTime());
+        assertEquals(LocalDateTime.of(2023, 2, 28, 12, 0), ReminderMessageParser.parse("29.02.2023 12:00 Т").getDateTime());
+        assertEquals(LocalDateTime.of(2028, 2, 29, 12, 0), ReminderMessageParser.parse("31.02.2028 12:00 Т").getDateTime());
+        assertEquals(LocalDateTime.of(2031, 1, 1, 0, 0), ReminderMessageParser.parse("31.12.2030 24:00 Т").getDateTime());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "Купить хлеб",
+            "ab.cd.efgh ij:kl Текст",
+            "32.13.2025 25:61 Неверная дата",
+            "00.01.2030 10:00 Нулевой день",
+            "01.00.2030 10:00 Нулевой месяц",
+            "01.01.0000 10:00 Нулевой год",
+            "01.01.2030 24:01 После полуночи",
+            "01.01.2030 10:00",
+            "01.01.2030 10:00 ",
+            "01.01.2030 10:00\n",
+            "01.01.2030 10:00Текст",
+            "32.01.2030 10:00 Т 01.01.2030 10:00 Т"
+    })
+    void testParse_RejectsInvalidMessages(String message) {
+        assertNull(ReminderMessageParser.parse(message));
+    }
+
+    @Test
+    void testParse_MatchesRegexImplementation() {
+        String[] fragments = {" ", "\t", "\n", "\r", "\r\n", "\u000B", "\f", "\u0085", "\u2028", "\u2029",
+                "x", "7", ".", ":", "текст", "  "};
+        Random random = new Random(42);
+        for (int i = 0; i < 200_000; i++) {
+            StringBuilder message = new StringBuilder();
+            int parts = random.nextInt(4);
+            for (int p = 0; p < parts; p++) {
+                if (random.nextInt(3) == 0) {
+                    message.append(fragments[random.nextInt(fragments.length)]);
+                } else {
+                    int hour = random.nextInt(4) == 0 ? 24 : random.nextInt(26);
+                    int year = random.nextInt(5) == 0 ? random.nextInt(10000) : 2020 + random.nextInt(12);
+                    message.append(String.format("%02d.%02d.%04d %02d:%02d", random.nextInt(34),
+                            random.nextInt(14), year, hour, random.nextInt(62)));
+                }
+                for (int f = random.nextInt(4); f > 0; f--) {
+                    message.append(fragments[random.nextInt(fragments.length)]);
+                }
+            }
+            String input = message.toString();
+            assertEquals(parseWithRegex(input), describe(ReminderMessageParser.parse(input)), input);
+        }
+    }
+
+    private static String parseWithRegex(String message) {
+        Matcher matcher = MESSAGE_PATTERN.matcher(message);
+        if (!matcher.find()) {
+            return null;
+        }
+        try {
+            return LocalDateTime.parse(matcher.group(1), DATE_TIME_FORMATTER) + "|" + matcher.group(2);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    private static String describe(ReminderMessageParser.ParsedReminder parsed) {
+        return parsed == null ? null : parsed.getDateTime() + "|" + parsed.getText();
+    }
+}
@@ -1,18 +1,30 @@
 package pro.sky.telegrambot.service;
 
-import com.pengrad.telegrambot.TelegramBot;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import pro.sky.telegrambot.Reminder;
+import pro.sky.telegrambot.ReminderView;
 import pro.sky.telegrambot.repository.ReminderRepository;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -21,15 +33,34 @@ import static org.mockito.Mockito.*;
 @ExtendWith(MockitoExtension.class)
 public class ReminderServiceTest {
 
+    private static final ZoneId ZONE = ZoneId.systemDefault();
+
+    private static final PageRequest FIRST_PAGE = PageRequest.of(0, ReminderService.TASKS_PAGE_SIZE);
+
     @Mock
     private ReminderRepository repository;
 
     @Mock
-    private TelegramBot telegramBot;
+    private ReminderTimeline timeline;
+
+    @Spy
+    private PendingRemindersCache pendingCache = new PendingRemindersCache(100, Duration.ofMinutes(10));
+
+    @Mock
+    private ChatSettingsService chatSettings;
+
+    @Mock
+    private ReminderWriteBuffer writeBuffer;
 
     @InjectMocks
     private ReminderService reminderService;
 
+    @BeforeEach
+    void setUp() {
+        // сообщения в тестах собираются из LocalDateTime.now(), то есть в зоне JVM
+        lenient().when(chatSettings.zoneOf(any())).thenReturn(ZONE);
+    }
+
     @Test
     void testParseAndSaveReminder_ValidMessage_ReturnsTrue() {
         // Arrange
@@ -39,7 +70,7 @@ public class ReminderServiceTest {
         DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd.MM.yyyy HH:mm");
         String validMessage = futureDate.format(formatter) + " Сделать домашнюю работу";
 
-        Reminder savedReminder = new Reminder(chatId, "Сделать домашнюю работу", futureDate);
+        Reminder savedReminder = new Reminder(chatId, "Сделать домашнюю работу", futureDate.atZone(ZONE).toInstant());
 
         when(repository.save(any(Reminder.class))).thenReturn(savedReminder);
 
@@ -49,6 +80,52 @@ public class ReminderServiceTest {
         // Assert
         assertTrue(result);
         verify(repository, times(1)).save(any(Reminder.class));
+        verify(timeline, times(1)).schedule(savedReminder);
+    }
+
+    @Test
+    void testParseAndSaveReminder_UsesChatTimeZone() {
+        // Arrange
+        Long chatId = 123456789L;
+        when(chatSettings.zoneOf(chatId)).thenReturn(ZoneId.of("Asia/Yekaterinburg"));
+        when(repository.save(any(Reminder.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        boolean result = reminderService.parseAndSaveReminder(chatId, "01.01.2099 14:00 Созвон");
+
+        // Assert
+        assertTrue(result);
+        ArgumentCaptor<Reminder> captor = ArgumentCaptor.forClass(Reminder.class);
+        verify(repository, times(1)).save(captor.capture());
+        assertEquals(Instant.parse("2099-01-01T09:00:00Z"), captor.getValue().getReminderDateTime());
+    }
+
+    @Test
+    void testParseAndSaveReminder_RecurringReminder() {
+        // Arrange
+        Long chatId = 123456789L;
+        when(chatSettings.zoneOf(chatId)).thenReturn(ZoneId.of("Europe/Moscow"));
+        when(repository.save(any(Reminder.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        boolean result = reminderService.parseAndSaveReminder(chatId, "01.01.2099 09:30 ежедневно Выпить витамины");
+
+        // Assert
+        assertTrue(result);
+        ArgumentCaptor<Reminder> captor = ArgumentCaptor.forClass(Reminder.class);
+        verify(repository, times(1)).save(captor.capture());
+        assertEquals("Выпить витамины", captor.getValue().getMessageText());
+        assertEquals("0 30 9 * * *", captor.getValue().getRecurrence());
+    }
+
+    @Test
+    void testParseAndSaveReminder_InvalidCron_ReturnsFalse() {
+        // Act
+        boolean result = reminderService.parseAndSaveReminder(1L, "01.01.2099 09:30 cron(каждый час) Проверить почту");
+
+        // Assert
+        assertFalse(result);
+        verify(repository, never()).save(any(Reminder.class));
     }
 
     @Test
@@ -63,6 +140,7 @@ public class ReminderServiceTest {
         // Assert
         assertFalse(result);
         verify(repository, never()).save(any(Reminder.class));
+        verify(timeline, never()).schedule(any());
     }
 
     @Test
@@ -94,65 +172,218 @@ public class ReminderServiceTest {
     }
 
     @Test
-    void testGetRemindersToSend_ReturnsList() {
+    void testParseAndSaveReminderAsync_SchedulesAfterWrite() {
         // Arrange
-        LocalDateTime time = LocalDateTime.now();
+        Long chatId = 123456789L;
+        CompletableFuture<Reminder> written = new CompletableFuture<>();
+        when(writeBuffer.save(any(Reminder.class))).thenReturn(written);
+
+        // Act
+        CompletableFuture<Boolean> result = reminderService.parseAndSaveReminderAsync(chatId, "01.01.2099 14:00 Созвон");
+
+        // Assert
+        assertFalse(result.isDone());
+        verify(timeline, never()).schedule(any());
+
+        ArgumentCaptor<Reminder> captor = ArgumentCaptor.forClass(Reminder.class);
+        verify(writeBuffer).save(captor.capture());
+        Reminder reminder = captor.getValue();
+        reminder.setId(50L);
+        written.complete(reminder);
+
+        assertTrue(result.join());
+        verify(timeline, times(1)).schedule(reminder);
+        verify(repository, never()).save(any(Reminder.class));
+    }
+
+    @Test
+    void testParseAndSaveReminderAsync_InvalidMessage_SkipsWrite() {
+        // Act
+        CompletableFuture<Boolean> result = reminderService.parseAndSaveReminderAsync(1L, "Просто текст без даты");
+
+        // Assert
+        assertFalse(result.join());
+        verifyNoInteractions(writeBuffer);
+    }
+
+    @Test
+    void testGetPendingPage_FirstPage() {
+        // Arrange
+        Instant time = Instant.now();
         Reminder reminder1 = new Reminder(1L, "Тест 1", time);
         Reminder reminder2 = new Reminder(2L, "Тест 2", time);
         List<Reminder> expectedReminders = Arrays.asList(reminder1, reminder2);
 
-        when(repository.findRemindersForSending(time)).thenReturn(expectedReminders);
+        when(repository.findPendingPage(PageRequest.of(0, 2))).thenReturn(expectedReminders);
 
         // Act
-        List<Reminder> result = reminderService.getRemindersToSend(time);
+        List<Reminder> result = reminderService.getPendingPage(null, 2);
 
         // Assert
-        assertEquals(2, result.size());
         assertEquals(expectedReminders, result);
-        verify(repository, times(1)).findRemindersForSending(time);
+        verify(repository, never()).findPendingPageAfter(any(), any(), any());
+    }
+
+    @Test
+    void testGetPendingPage_NextPageStartsAfterLastReminder() {
+        // Arrange
+        Instant time = Instant.now();
+        Reminder last = new Reminder(1L, "Тест 1", time);
+        last.setId(42L);
+        Reminder next = new Reminder(2L, "Тест 2", time);
+
+        when(repository.findPendingPageAfter(time, 42L, PageRequest.of(0, 2))).thenReturn(List.of(next));
+
+        // Act
+        List<Reminder> result = reminderService.getPendingPage(last, 2);
+
+        // Assert
+        assertEquals(List.of(next), result);
+    }
+
+    @Test
+    void testGetPendingPageBefore_ReadsBackwardsFromCursor() {
+        // Arrange
+        Instant time = Instant.now();
+        Reminder cursor = new Reminder(1L, "Тест 1", time);
+        cursor.setId(42L);
+        Reminder previous = new Reminder(2L, "Тест 2", time.minusSeconds(60));
+
+        when(repository.findPendingPageBefore(time, 42L, PageRequest.of(0, 2))).thenReturn(List.of(previous));
+
+        // Act
+        List<Reminder> result = reminderService.getPendingPageBefore(cursor, 2);
+
+        // Assert
+        assertEquals(List.of(previous), result);
+    }
+
+    @Test
+    void testGetOverdueByChat_ContinuesAfterCursorWithinChat() {
+        // Arrange
+        Instant time = Instant.now();
+        Reminder cursor = new Reminder(7L, "Тест 1", time.minusSeconds(3600));
+        cursor.setId(42L);
+        Reminder next = new Reminder(7L, "Тест 2", time.minusSeconds(1800));
+
+        when(repository.findOverdueByChatAfter(time, 7L, time.minusSeconds(3600), 42L, PageRequest.of(0, 2)))
+                .thenReturn(List.of(next));
+
+        // Act
+        List<Reminder> result = reminderService.getOverdueByChat(cursor, time, 2);
+
+        // Assert
+        assertEquals(List.of(next), result);
+        verify(repository, never()).findOverdueByChat(any(), any());
     }
 
     @Test
     void testGetUserReminders_ReturnsUserReminders() {
         // Arrange
         Long chatId = 123456789L;
-        Reminder reminder1 = new Reminder(chatId, "Задача 1", LocalDateTime.now().plusDays(1));
-        Reminder reminder2 = new Reminder(chatId, "Задача 2", LocalDateTime.now().plusDays(2));
-        List<Reminder> expectedReminders = Arrays.asList(reminder1, reminder2);
+        ReminderView reminder1 = new ReminderView(Instant.now().plus(1, ChronoUnit.DAYS), "Задача 1");
+        ReminderView reminder2 = new ReminderView(Instant.now().plus(2, ChronoUnit.DAYS), "Задача 2");
+        List<ReminderView> expectedReminders = Arrays.asList(reminder1, reminder2);
 
-        when(repository.findByChatId(chatId)).thenReturn(expectedReminders);
+        when(repository.findPendingViews(chatId, FIRST_PAGE)).thenReturn(new SliceImpl<>(expectedReminders));
 
         // Act
-        List<Reminder> result = reminderService.getUserReminders(chatId);
+        Slice<ReminderView> result = reminderService.getUserReminders(chatId, 0);
 
         // Assert
-        assertEquals(2, result.size());
-        assertEquals(expectedReminders, result);
-        verify(repository, times(1)).findByChatId(chatId);
+        assertEquals(2, result.getNumberOfElements());
+        assertEquals(expectedReminders, result.getContent());
+        verify(repository, times(1)).findPendingViews(chatId, FIRST_PAGE);
     }
 
     @Test
     void testGetUserReminders_NoReminders_ReturnsEmptyList() {
         // Arrange
         Long chatId = 999999999L;
-        when(repository.findByChatId(chatId)).thenReturn(List.of());
+        when(repository.findPendingViews(chatId, FIRST_PAGE)).thenReturn(new SliceImpl<>(List.of()));
 
         // Act
-        List<Reminder> result = reminderService.getUserReminders(chatId);
+        Slice<ReminderView> result = reminderService.getUserReminders(chatId, 0);
 
         // Assert
         assertTrue(result.isEmpty());
-        verify(repository, times(1)).findByChatId(chatId);
+        verify(repository, times(1)).findPendingViews(chatId, FIRST_PAGE);
+    }
+
+    @Test
+    void testGetUserReminders_RepeatedCallsServedFromCache() {
+        // Arrange
+        Long chatId = 123456789L;
+        when(repository.findPendingViews(chatId, FIRST_PAGE)).thenReturn(new SliceImpl<>(List.of()));
+
+        // Act
+        reminderService.getUserReminders(chatId, 0);
+        reminderService.getUserReminders(chatId, 0);
+
+        // Assert
+        verify(repository, times(1)).findPendingViews(chatId, FIRST_PAGE);
+        assertEquals(1, pendingCache.stats().hitCount());
+        assertEquals(1, pendingCache.stats().missCount());
+    }
+
+    @Test
+    void testGetUserReminders_NextPagesBypassCache() {
+        // Arrange
+        Long chatId = 123456789L;
+        PageRequest secondPage = PageRequest.of(1, ReminderService.TASKS_PAGE_SIZE);
+        when(repository.findPendingViews(chatId, secondPage)).thenReturn(new SliceImpl<>(List.of()));
+
+        // Act
+        reminderService.getUserReminders(chatId, 1);
+        reminderService.getUserReminders(chatId, 1);
+
+        // Assert
+        verify(repository, times(2)).findPendingViews(chatId, secondPage);
+    }
+
+    @Test
+    void testParseAndSaveReminder_InvalidatesChatCache() {
+        // Arrange
+        Long chatId = 123456789L;
+        when(repository.findPendingViews(chatId, FIRST_PAGE)).thenReturn(new SliceImpl<>(List.of()));
+        reminderService.getUserReminders(chatId, 0);
+        String message = LocalDateTime.now().plusDays(1).format(DateTimeFormatter.ofPattern("dd.MM.yyyy HH:mm")) + " Задача";
+
+        // Act
+        reminderService.parseAndSaveReminder(chatId, message);
+        reminderService.getUserReminders(chatId, 0);
+
+        // Assert
+        verify(repository, times(2)).findPendingViews(chatId, FIRST_PAGE);
+    }
+
+    @Test
+    void testMarkAsSent_InvalidatesChatCache() {
+        // Arrange
+        Long chatId = 123456789L;
+        when(repository.findPendingViews(chatId, FIRST_PAGE)).thenReturn(new SliceImpl<>(List.of()));
+        reminderService.getUserReminders(chatId, 0);
+        Reminder reminder = new Reminder(chatId, "Задача", Instant.now());
+        reminder.setId(1L);
+
+        // Act
+        reminderService.markAsSent(List.of(reminder));
+        reminderService.getUserReminders(chatId, 0);
+
+        // Assert
+        verify(repository, times(2)).findPendingViews(chatId, FIRST_PAGE);
     }
 
     @Test
     void testMarkAsSent_MarksRemindersAsSent() {
         // Arrange
-        Reminder reminder1 = new Reminder(1L, "Задача 1", LocalDateTime.now());
-        Reminder reminder2 = new Reminder(2L, "Задача 2", LocalDateTime.now());
+        Reminder reminder1 = new Reminder(1L, "Задача 1", Instant.now());
+        reminder1.setId(10L);
+        Reminder reminder2 = new Reminder(2L, "Задача 2", Instant.now());
+        reminder2.setId(20L);
         List<Reminder> reminders = Arrays.asList(reminder1, reminder2);
 
-        when(repository.saveAll(any())).thenReturn(reminders);
+        when(repository.markSent(any())).thenReturn(2);
 
         // Act
         reminderService.markAsSent(reminders);
@@ -160,7 +391,80 @@ public class ReminderServiceTest {
         // Assert
         assertTrue(reminder1.isSent());
         assertTrue(reminder2.isSent());
-        verify(repository, times(1)).saveAll(reminders);
+        verify(repository, times(1)).markSent(List.of(10L, 20L));
+        verify(repository, never()).saveAll(any());
+    }
+
+    @Test
+    void testMarkAsSent_SplitsLargeBatchesIntoChunks() {
+        // Arrange
+        List<Reminder> reminders = new ArrayList<>();
+        for (long id = 1; id <= 2500; id++) {
+            Reminder reminder = new Reminder(1L, "Задача " + id, Instant.now());
+            reminder.setId(id);
+            reminders.add(reminder);
+        }
+
+        // Act
+        reminderService.markAsSent(reminders);
+
+        // Assert
+        verify(repository, times(3)).markSent(any());
+    }
+
+    @Test
+    void testCompleteDue_OneShotMarkedSentRecurringRescheduled() {
+        // Arrange
+        ZoneId moscow = ZoneId.of("Europe/Moscow");
+        when(chatSettings.zoneOf(2L)).thenReturn(moscow);
+        Instant now = Instant.parse("2030-03-04T06:00:05Z");
+        Reminder oneShot = new Reminder(1L, "Разовое", now);
+        oneShot.setId(1L);
+        Reminder daily = new Reminder(2L, "Ежедневное", Instant.parse("2030-03-04T06:00:00Z"));
+        daily.setId(2L);
+        daily.setRecurrence("0 0 9 * * *");
+
+        // Act
+        reminderService.completeDue(List.of(oneShot, daily), now);
+
+        // Assert
+        verify(repository, times(1)).markSent(List.of(1L));
+        verify(repository, times(1)).reschedule(2L, Instant.parse("2030-03-05T06:00:00Z"));
+        assertTrue(oneShot.isSent());
+        assertFalse(daily.isSent());
+        assertEquals(Instant.parse("2030-03-05T06:00:00Z"), daily.getReminderDateTime());
+        verify(timeline, times(1)).schedule(daily);
+    }
+
+    @Test
+    void testCompleteDue_MissedOccurrencesAreSkipped() {
+        // Arrange
+        Instant now = Instant.parse("2030-03-10T12:00:00Z");
+        Reminder daily = new Reminder(2L, "Ежедневное", Instant.parse("2030-03-04T06:00:00Z"));
+        daily.setId(2L);
+        daily.setRecurrence("0 0 6 * * *");
+        when(chatSettings.zoneOf(2L)).thenReturn(ZoneId.of("UTC"));
+
+        // Act
+        reminderService.completeDue(List.of(daily), now);
+
+        // Assert
+        verify(repository, times(1)).reschedule(2L, Instant.parse("2030-03-11T06:00:00Z"));
+    }
+
+    @Test
+    void testCompleteDue_BrokenScheduleIsMarkedSent() {
+        // Arrange
+        Reminder broken = new Reminder(2L, "Сломанное", Instant.now());
+        broken.setId(2L);
+        broken.setRecurrence("не cron");
+
+        // Act
+        reminderService.completeDue(List.of(broken), Instant.now());
+
+        // Assert
+        verify(repository, never()).reschedule(any(), any());
+        verify(repository, times(1)).markSent(List.of(2L));
     }
 
     @Test
@@ -0,0 +1,129 @@
+package pro.sky.telegrambot.service;
+
+import org.junit.jupiter.api.Test;
+import pro.sky.telegrambot.Reminder;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReminderTimelineTest {
+
+    private final ReminderTimeline timeline = new ReminderTimeline(DispatchMode.TIMELINE);
+
+    @Test
+    void testAwaitDue_ReturnsDueRemindersInTimeOrder() throws InterruptedException {
+        // Arrange
+        Instant now = Instant.now();
+        Reminder later = reminder(1L, now.minus(1, ChronoUnit.MINUTES));
+        Reminder earlier = reminder(2L, now.minus(5, ChronoUnit.MINUTES));
+        Reminder future = reminder(3L, now.plus(1, ChronoUnit.DAYS));
+        timeline.schedule(later);
+        timeline.schedule(earlier);
+        timeline.schedule(future);
+
+        // Act
+        List<Reminder> due = timeline.awaitDue(10);
+
+        // Assert
+        assertEquals(List.of(earlier, later), due);
+        assertEquals(1, timeline.size());
+    }
+
+    @Test
+    void testDrainDue_TakesOnlyDueRemindersWithoutBlocking() {
+        // Arrange
+        Reminder due = reminder(1L, Instant.now().minus(1, ChronoUnit.MINUTES));
+        Reminder future = reminder(2L, Instant.now().plus(1, ChronoUnit.DAYS));
+        timeline.schedule(due);
+        timeline.schedule(future);
+
+        // Act & Assert
+        assertEquals(List.of(due), timeline.drainDue(10));
+        assertEquals(List.of(), timeline.drainDue(10));
+        assertEquals(1, timeline.size());
+    }
+
+    @Test
+    void testDueLag_MeasuresOnlyRemindersThatAreAlreadyDue() {
+        // Arrange
+        timeline.schedule(reminder(1L, Instant.now().plus(1, ChronoUnit.DAYS)));
+        Duration futureOnly = timeline.dueLag();
+        timeline.schedule(reminder(2L, Instant.now().minus(5, ChronoUnit.MINUTES)));
+
+        // Act
+        Duration lag = timeline.dueLag();
+
+        // Assert
+        assertEquals(Duration.ZERO, futureOnly);
+        assertTrue(lag.compareTo(Duration.ofMinutes(5)) >= 0);
+        assertEquals(2, timeline.size());
+    }
+
+    @Test
+    void testSchedule_IgnoresDuplicates() {
+        // Arrange
+        Reminder reminder = reminder(1L, Instant.now().plus(1, ChronoUnit.DAYS));
+
+        // Act
+        timeline.schedule(reminder);
+        timeline.schedule(reminder);
+
+        // Assert
+        assertEquals(1, timeline.size());
+    }
+
+    @Test
+    void testAwaitDue_RespectsBatchLimit() throws InterruptedException {
+        // Arrange
+        Instant past = Instant.now().minus(1, ChronoUnit.MINUTES);
+        for (long id = 1; id <= 5; id++) {
+            timeline.schedule(reminder(id, past));
+        }
+
+        // Act
+        List<Reminder> due = timeline.awaitDue(3);
+
+        // Assert
+        assertEquals(3, due.size());
+        assertEquals(2, timeline.size());
+    }
+
+    @Test
+    void testRetryLater_ReturnsRemindersAfterDelay() throws InterruptedException {
+        // Arrange
+        Instant past = Instant.now().minus(1, ChronoUnit.MINUTES);
+        Reminder reminder = reminder(1L, past);
+        timeline.schedule(reminder);
+        List<Reminder> due = timeline.awaitDue(10);
+
+        // Act
+        timeline.retryLater(due, Duration.ofMillis(50));
+
+        // Assert
+        assertEquals(List.of(), timeline.drainDue(10));
+        assertEquals(List.of(reminder), timeline.awaitDue(10));
+        assertEquals(past, reminder.getReminderDateTime());
+    }
+
+    @Test
+    void testSchedule_DisabledInClaimMode() {
+        // Arrange
+        ReminderTimeline claimModeTimeline = new ReminderTimeline(DispatchMode.CLAIM);
+
+        // Act
+        claimModeTimeline.schedule(reminder(1L, Instant.now().plus(1, ChronoUnit.DAYS)));
+
+        // Assert
+        assertEquals(0, claimModeTimeline.size());
+    }
+
+    private static Reminder reminder(Long id, Instant dateTime) {
+        Reminder reminder = new Reminder(id, "Напоминание " + id, dateTime);
+        reminder.setId(id);
+        return reminder;
+    }
+}
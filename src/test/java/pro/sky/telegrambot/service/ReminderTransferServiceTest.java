@@ -0,0 +1,191 @@
+package pro.sky.telegrambot.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import pro.sky.telegrambot.Reminder;
+import pro.sky.telegrambot.ReminderImportResult;
+import pro.sky.telegrambot.repository.ReminderJdbcRepository;
+import pro.sky.telegrambot.repository.ReminderRepository;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ReminderTransferServiceTest {
+
+    private static final ZoneId MOSCOW = ZoneId.of("Europe/Moscow");
+
+    @Mock
+    private ReminderRepository reminderRepository;
+
+    @Mock
+    private ReminderJdbcRepository jdbcRepository;
+
+    @Mock
+    private ReminderTimeline timeline;
+
+    @Mock
+    private ChatSettingsService chatSettings;
+
+    private final PendingRemindersCache pendingCache = new PendingRemindersCache(100, Duration.ofMinutes(10));
+
+    private ReminderTransferService transferService;
+
+    // insertBatch получает один и тот же список, который потом очищается, поэтому пакеты копируются
+    private final List<List<Reminder>> batches = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        ReminderService reminderService = new ReminderService(reminderRepository, timeline, pendingCache, chatSettings,
+                mock(ReminderWriteBuffer.class));
+        transferService = new ReminderTransferService(reminderService, chatSettings, jdbcRepository, timeline,
+                pendingCache, new ObjectMapper());
+        lenient().when(chatSettings.zoneOf(any())).thenReturn(MOSCOW);
+        lenient().doAnswer(invocation -> batches.add(new ArrayList<>(invocation.getArgument(0))))
+                .when(jdbcRepository).insertBatch(any());
+    }
+
+    @Test
+    void testImportCsv_ValidatesRowsLikeChatMessages() throws IOException {
+        // Arrange
+        String csv = "chat_id,reminder_date_time,message_text,recurrence\n" +
+                "1,01.01.2099 09:00,Созвон\n" +
+                "2,2099-01-01T06:00:00Z,\"Отчёт, итоги\",0 0 9 * * MON\n" +
+                "3,01.01.2099 10:00,ежедневно Зарядка\n" +
+                "4,01.01.2020 09:00,В прошлом\n" +
+                "5,31.13.2099 09:00,Неверная дата\n" +
+                "x,01.01.2099 09:00,Неверный чат\n" +
+                "6,01.01.2099 09:00,\n" +
+                "7,01.01.2099 09:00,Плохой cron,каждый час\n";
+
+        // Act
+        ReminderImportResult result = transferService.importCsv(new StringReader(csv));
+
+        // Assert
+        assertEquals(3, result.getImported());
+        assertEquals(5, result.getRejected());
+        assertEquals("строка 5: Попытка создать напоминание в прошлом", result.getErrors().get(0));
+        assertEquals(1, batches.size());
+        List<Reminder> saved = batches.get(0);
+        assertEquals(Instant.parse("2099-01-01T06:00:00Z"), saved.get(0).getReminderDateTime());
+        assertEquals("Отчёт, итоги", saved.get(1).getMessageText());
+        assertEquals("0 0 9 * * MON", saved.get(1).getRecurrence());
+        assertEquals("Зарядка", saved.get(2).getMessageText());
+        assertEquals("0 0 10 * * *", saved.get(2).getRecurrence());
+    }
+
+    @Test
+    void testImportCsv_InsertsInBatchesAndSchedulesImported() throws IOException {
+        // Arrange
+        StringBuilder csv = new StringBuilder();
+        for (int i = 0; i < 2500; i++) {
+            csv.append(i % 10).append(",2099-01-01T06:00:00Z,Напоминание ").append(i).append('\n');
+        }
+        when(timeline.isEnabled()).thenReturn(true);
+
+        // Act
+        ReminderImportResult result = transferService.importCsv(new StringReader(csv.toString()));
+
+        // Assert
+        assertEquals(2500, result.getImported());
+        assertEquals(List.of(1000, 1000, 500), batches.stream().map(List::size).collect(Collectors.toList()));
+        verify(timeline, times(2500)).schedule(any(Reminder.class));
+    }
+
+    @Test
+    void testImportNdjson() throws IOException {
+        // Arrange
+        String ndjson = "{\"chatId\":1,\"reminderDateTime\":\"2099-01-01T06:00:00Z\",\"messageText\":\"Созвон\"}\n" +
+                "\n" +
+                "{не json}\n" +
+                "{\"chatId\":2,\"reminderDateTime\":\"01.01.2099 09:00\",\"messageText\":\"Отчёт\"," +
+                "\"recurrence\":\"0 0 9 1 * *\"}\n";
+
+        // Act
+        ReminderImportResult result = transferService.importNdjson(new StringReader(ndjson));
+
+        // Assert
+        assertEquals(2, result.getImported());
+        assertEquals(1, result.getRejected());
+        assertTrue(result.getErrors().get(0).startsWith("строка 3: Неверный JSON"));
+        assertEquals(Instant.parse("2099-01-01T06:00:00Z"), batches.get(0).get(1).getReminderDateTime());
+    }
+
+    @Test
+    void testExportCsv_PagesThroughPendingReminders() throws IOException {
+        // Arrange
+        List<Reminder> firstPage = new ArrayList<>();
+        for (long i = 1; i <= 1000; i++) {
+            Reminder reminder = new Reminder(5L, "Напоминание " + i, Instant.parse("2099-01-01T06:00:00Z"));
+            reminder.setId(i);
+            firstPage.add(reminder);
+        }
+        Reminder last = new Reminder(5L, "Последнее, с запятой", Instant.parse("2099-02-01T06:00:00Z"));
+        last.setId(1001L);
+        last.setRecurrence("0 0 9 1 * *");
+        when(jdbcRepository.findPendingPage(eq(5L), isNull(), anyInt())).thenReturn(firstPage);
+        when(jdbcRepository.findPendingPage(5L, firstPage.get(999), 1000)).thenReturn(List.of(last));
+        StringWriter out = new StringWriter();
+
+        // Act
+        transferService.exportCsv(5L, out);
+
+        // Assert
+        String[] lines = out.toString().split("\r\n");
+        assertEquals(1002, lines.length);
+        assertEquals("chat_id,reminder_date_time,message_text,recurrence", lines[0]);
+        assertEquals("5,2099-02-01T06:00:00Z,\"Последнее, с запятой\",0 0 9 1 * *", lines[1001]);
+    }
+
+    @Test
+    void testExportThenImport_RoundTrip() throws IOException {
+        // Arrange
+        Reminder reminder = new Reminder(5L, "Перенос \"между\" окружениями", Instant.parse("2099-03-01T06:30:00Z"));
+        reminder.setId(1L);
+        reminder.setRecurrence("0 30 9 * * *");
+        when(jdbcRepository.findPendingPage(eq(5L), isNull(), anyInt())).thenReturn(List.of(reminder));
+        StringWriter out = new StringWriter();
+
+        // Act
+        transferService.exportNdjson(5L, out);
+        ReminderImportResult result = transferService.importNdjson(new StringReader(out.toString()));
+
+        // Assert
+        assertEquals(1, result.getImported());
+        Reminder copy = batches.get(0).get(0);
+        assertEquals(reminder.getChatId(), copy.getChatId());
+        assertEquals(reminder.getReminderDateTime(), copy.getReminderDateTime());
+        assertEquals(reminder.getMessageText(), copy.getMessageText());
+        assertEquals(reminder.getRecurrence(), copy.getRecurrence());
+    }
+
+    @Test
+    void testImportCsv_UnterminatedQuoteStopsImport() throws IOException {
+        // Act
+        ReminderImportResult result = transferService.importCsv(new StringReader(
+                "1,2099-01-01T06:00:00Z,Нормальная\n2,2099-01-01T06:00:00Z,\"без конца\n"));
+
+        // Assert
+        assertEquals(1, result.getImported());
+        assertEquals(1, result.getRejected());
+        assertEquals(1, batches.size());
+    }
+}
@@ -0,0 +1,121 @@
+package pro.sky.telegrambot.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import pro.sky.telegrambot.Reminder;
+import pro.sky.telegrambot.repository.ReminderJdbcRepository;
+import pro.sky.telegrambot.repository.ReminderRepository;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ReminderWriteBufferTest {
+
+    @Mock
+    private ReminderRepository repository;
+
+    @Mock
+    private ReminderJdbcRepository jdbcRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private ReminderWriteBuffer writeBuffer;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        writeBuffer.stop();
+    }
+
+    @Test
+    void testSave_DisabledSavesImmediately() {
+        // Arrange
+        writeBuffer = buffer(false, 500, Duration.ofMillis(50));
+        Reminder reminder = reminder("Созвон");
+        when(repository.save(reminder)).thenReturn(reminder);
+
+        // Act
+        CompletableFuture<Reminder> result = writeBuffer.save(reminder);
+
+        // Assert
+        assertSame(reminder, result.join());
+        verifyNoInteractions(jdbcRepository);
+    }
+
+    @Test
+    void testSave_FlushesFullBatchInOneTransaction() throws Exception {
+        // Arrange
+        writeBuffer = buffer(true, 3, Duration.ofMinutes(1));
+
+        // Act
+        CompletableFuture<Reminder> first = writeBuffer.save(reminder("Первое"));
+        CompletableFuture<Reminder> second = writeBuffer.save(reminder("Второе"));
+        CompletableFuture<Reminder> third = writeBuffer.save(reminder("Третье"));
+
+        // Assert
+        CompletableFuture.allOf(first, second, third).get(5, TimeUnit.SECONDS);
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Reminder>> captor = ArgumentCaptor.forClass(List.class);
+        verify(jdbcRepository, times(1)).insertBatch(captor.capture());
+        assertEquals(3, captor.getValue().size());
+        verify(transactionManager, times(1)).commit(any());
+        verify(repository, never()).save(any());
+    }
+
+    @Test
+    void testSave_FlushesPartialBatchAfterInterval() throws Exception {
+        // Arrange
+        writeBuffer = buffer(true, 500, Duration.ofMillis(20));
+        Reminder reminder = reminder("Созвон");
+
+        // Act
+        Reminder saved = writeBuffer.save(reminder).get(5, TimeUnit.SECONDS);
+
+        // Assert
+        assertSame(reminder, saved);
+        verify(jdbcRepository, times(1)).insertBatch(List.of(reminder));
+    }
+
+    @Test
+    void testSave_FailsWholeBatchOnError() {
+        // Arrange
+        writeBuffer = buffer(true, 2, Duration.ofMinutes(1));
+        doThrow(new IllegalStateException("БД недоступна")).when(jdbcRepository).insertBatch(any());
+
+        // Act
+        CompletableFuture<Reminder> first = writeBuffer.save(reminder("Первое"));
+        CompletableFuture<Reminder> second = writeBuffer.save(reminder("Второе"));
+
+        // Assert
+        CompletionException error = assertThrows(CompletionException.class, first::join);
+        assertInstanceOf(IllegalStateException.class, error.getCause());
+        assertThrows(CompletionException.class, second::join);
+        verify(transactionManager, times(1)).rollback(any());
+    }
+
+    private ReminderWriteBuffer buffer(boolean enabled, int maxBatch, Duration flushInterval) {
+        ReminderWriteBuffer buffer = new ReminderWriteBuffer(repository, jdbcRepository, transactionManager,
+                new BotMetrics(new SimpleMeterRegistry()), enabled, maxBatch, flushInterval, 100);
+        buffer.start();
+        return buffer;
+    }
+
+    private static Reminder reminder(String text) {
+        return new Reminder(1L, text, Instant.parse("2099-01-01T06:00:00Z"));
+    }
+}
@@ -0,0 +1,64 @@
+package pro.sky.telegrambot.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class RetentionJobTest {
+
+    @Mock
+    private ArchiveService archiveService;
+
+    @InjectMocks
+    private RetentionJob retentionJob;
+
+    @Test
+    void testRun_RepeatsBatchesUntilPartialBatch() {
+        // Arrange
+        when(archiveService.archiveSentBefore(any(), eq(500))).thenReturn(500, 500, 12);
+        when(archiveService.purgeDeliveriesBefore(any(), eq(500))).thenReturn(0);
+
+        // Act
+        retentionJob.run();
+
+        // Assert
+        verify(archiveService, times(3)).archiveSentBefore(any(), eq(500));
+        verify(archiveService, times(1)).purgeDeliveriesBefore(any(), eq(500));
+        verify(archiveService, never()).ensureArchivePartitions(any(), any());
+    }
+
+    @Test
+    void testRun_CutoffIsRetentionPeriodAgo() {
+        // Arrange
+        Instant expected = Instant.now().minus(Duration.ofDays(30));
+
+        // Act
+        retentionJob.run();
+
+        // Assert
+        verify(archiveService).archiveSentBefore(argThat(cutoff ->
+                !cutoff.isBefore(expected) && cutoff.isBefore(expected.plusSeconds(60))), eq(500));
+    }
+
+    @Test
+    void testRun_ErrorIsLogged() {
+        // Arrange
+        when(archiveService.archiveSentBefore(any(), eq(500))).thenThrow(new IllegalStateException("БД недоступна"));
+
+        // Act
+        retentionJob.run();
+
+        // Assert
+        verify(archiveService, never()).purgeDeliveriesBefore(any(), anyInt());
+    }
+}
@@ -0,0 +1,65 @@
+package pro.sky.telegrambot.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+import pro.sky.telegrambot.ReminderView;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+/**
+ * Форматирование ответа на /my_tasks для страницы из {@code size} напоминаний.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ShowRemindersBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int size;
+
+    private ChatLaneExecutor chatLanes;
+    private TelegramBotService telegramBotService;
+
+    @Setup
+    public void setUp() {
+        BenchmarkSupport.silenceLogging();
+        List<ReminderView> reminders = new ArrayList<>(size);
+        Instant start = Instant.parse("2099-01-01T07:00:00Z");
+        for (int i = 0; i < size; i++) {
+            reminders.add(new ReminderView(start.plus(i, ChronoUnit.MINUTES), "Напоминание номер " + i));
+        }
+        ReminderService reminderService = mock(ReminderService.class, withSettings().stubOnly());
+        when(reminderService.getUserReminders(anyLong(), anyInt()))
+                .thenReturn(new SliceImpl<>(reminders, PageRequest.of(0, size), true));
+        chatLanes = new ChatLaneExecutor(1, 1);
+        telegramBotService = new TelegramBotService(BenchmarkSupport.stubTelegramBot(), reminderService, chatLanes,
+                BenchmarkSupport.chatSettings(), BenchmarkSupport.metrics());
+    }
+
+    @TearDown
+    public void tearDown() {
+        chatLanes.shutdown();
+    }
+
+    @Benchmark
+    public void showUserReminders() {
+        telegramBotService.showUserReminders(42L);
+    }
+}
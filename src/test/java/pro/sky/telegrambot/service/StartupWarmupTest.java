@@ -0,0 +1,129 @@
+package pro.sky.telegrambot.service;
+
+import com.pengrad.telegrambot.Callback;
+import com.pengrad.telegrambot.TelegramBot;
+import com.pengrad.telegrambot.request.GetMe;
+import com.pengrad.telegrambot.response.GetMeResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+import pro.sky.telegrambot.repository.ChatSettingsRepository;
+import pro.sky.telegrambot.repository.ReminderJdbcRepository;
+import pro.sky.telegrambot.repository.ReminderRepository;
+
+import java.io.IOException;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class StartupWarmupTest {
+
+    @Mock
+    private ReminderRepository reminderRepository;
+
+    @Mock
+    private ReminderJdbcRepository jdbcRepository;
+
+    @Mock
+    private ChatSettingsRepository chatSettingsRepository;
+
+    @Mock
+    private TelegramBot telegramBot;
+
+    @Mock
+    private ReminderDispatcher dispatcher;
+
+    @Mock
+    private ConfigurableApplicationContext context;
+
+    @InjectMocks
+    private StartupWarmup warmup;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(warmup, "timeout", Duration.ofMillis(100));
+    }
+
+    @Test
+    void testRun_WarmsQueriesAndWaitsForDispatcher() throws Exception {
+        // Arrange
+        GetMeResponse response = mock(GetMeResponse.class, RETURNS_DEEP_STUBS);
+        when(response.isOk()).thenReturn(true);
+        when(response.user().username()).thenReturn("reminder_bot");
+        doAnswer(invocation -> {
+            Callback<GetMe, GetMeResponse> callback = invocation.getArgument(1);
+            callback.onResponse(invocation.getArgument(0), response);
+            return null;
+        }).when(telegramBot).execute(any(GetMe.class), any());
+        when(dispatcher.awaitLoaded(Duration.ofMillis(100))).thenReturn(true);
+
+        // Act
+        warmup.run(null);
+
+        // Assert
+        verify(reminderRepository, times(1)).findPendingViews(eq(0L),
+                eq(PageRequest.of(0, ReminderService.TASKS_PAGE_SIZE)));
+        verify(chatSettingsRepository, times(1)).findById(0L);
+        verify(jdbcRepository, times(1)).findPendingPage(eq(0L), isNull(), anyInt());
+        verify(dispatcher, times(1)).awaitLoaded(any());
+    }
+
+    @Test
+    void testRun_BotApiUnavailable_StillCompletes() throws Exception {
+        // Arrange
+        doAnswer(invocation -> {
+            Callback<GetMe, GetMeResponse> callback = invocation.getArgument(1);
+            callback.onFailure(invocation.getArgument(0), new IOException("Connection refused"));
+            return null;
+        }).when(telegramBot).execute(any(GetMe.class), any());
+        when(dispatcher.awaitLoaded(any())).thenReturn(false);
+
+        // Act & Assert
+        assertDoesNotThrow(() -> warmup.run(null));
+        verify(reminderRepository, times(1)).findPendingViews(anyLong(), any());
+    }
+
+    @Test
+    void testRun_BotApiSilent_WaitsNoLongerThanTimeout() throws Exception {
+        // Arrange
+        when(dispatcher.awaitLoaded(any())).thenReturn(true);
+
+        // Act
+        long start = System.nanoTime();
+        warmup.run(null);
+
+        // Assert
+        assertTrue(System.nanoTime() - start < Duration.ofSeconds(5).toNanos());
+        verify(telegramBot, times(1)).execute(any(GetMe.class), any());
+    }
+
+    @Test
+    void testRun_Disabled() throws Exception {
+        // Arrange
+        ReflectionTestUtils.setField(warmup, "enabled", false);
+
+        // Act
+        warmup.run(null);
+
+        // Assert
+        verifyNoInteractions(reminderRepository, chatSettingsRepository, jdbcRepository, telegramBot, dispatcher);
+    }
+
+    @Test
+    void testWarmParsing_ParsesSampleUpdate() {
+        // Act & Assert
+        assertDoesNotThrow(() -> warmup.warmParsing());
+    }
+}
@@ -1,31 +1,62 @@
 package pro.sky.telegrambot.service;
 
+import com.pengrad.telegrambot.BotUtils;
 import com.pengrad.telegrambot.TelegramBot;
+import com.pengrad.telegrambot.UpdatesListener;
+import com.pengrad.telegrambot.model.Update;
+import com.pengrad.telegrambot.model.request.InlineKeyboardMarkup;
+import com.pengrad.telegrambot.request.AnswerCallbackQuery;
+import com.pengrad.telegrambot.request.BaseRequest;
+import com.pengrad.telegrambot.request.EditMessageText;
 import com.pengrad.telegrambot.request.SendMessage;
+import com.pengrad.telegrambot.request.SetWebhook;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import pro.sky.telegrambot.Reminder;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.test.util.ReflectionTestUtils;
+import pro.sky.telegrambot.ReminderView;
 
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.zone.ZoneRulesException;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 public class TelegramBotServiceTest {
 
+    private static final ZoneId ZONE = ZoneId.of("Europe/Moscow");
+
     @Mock
     private TelegramBot telegramBot;
 
     @Mock
     private ReminderService reminderService;
 
+    @Mock
+    private ChatLaneExecutor chatLanes;
+
+    @Mock
+    private ChatSettingsService chatSettings;
+
+    @Mock
+    private BotMetrics metrics;
+
     @InjectMocks
     private TelegramBotService telegramBotService;
 
@@ -52,10 +83,11 @@ public class TelegramBotServiceTest {
         Long chatId = 123456789L;
         String text = "/my_tasks";
 
-        Reminder reminder = new Reminder(chatId, "Тестовое напоминание",
-                LocalDateTime.of(2025, 1, 1, 12, 0));
+        ReminderView reminder = new ReminderView(LocalDateTime.of(2025, 1, 1, 12, 0).atZone(ZONE).toInstant(),
+                "Тестовое напоминание");
 
-        when(reminderService.getUserReminders(chatId)).thenReturn(List.of(reminder));
+        when(reminderService.getUserReminders(chatId, 0)).thenReturn(new SliceImpl<>(List.of(reminder)));
+        when(chatSettings.zoneOf(chatId)).thenReturn(ZONE);
 
         // Act
         telegramBotService.processMesage(chatId, text);
@@ -74,7 +106,7 @@ public class TelegramBotServiceTest {
         Long chatId = 123456789L;
         String text = "/my_tasks";
 
-        when(reminderService.getUserReminders(chatId)).thenReturn(List.of());
+        when(reminderService.getUserReminders(chatId, 0)).thenReturn(new SliceImpl<>(List.of()));
 
         // Act
         telegramBotService.processMesage(chatId, text);
@@ -93,7 +125,7 @@ public class TelegramBotServiceTest {
         Long chatId = 123456789L;
         String text = "01.01.2025 12:00 Тестовое напоминание";
 
-        when(reminderService.parseAndSaveReminder(chatId, text)).thenReturn(true);
+        when(reminderService.parseAndSaveReminderAsync(chatId, text)).thenReturn(CompletableFuture.completedFuture(true));
 
         // Act
         telegramBotService.processMesage(chatId, text);
@@ -112,7 +144,7 @@ public class TelegramBotServiceTest {
         Long chatId = 123456789L;
         String text = "неправильный формат";
 
-        when(reminderService.parseAndSaveReminder(chatId, text)).thenReturn(false);
+        when(reminderService.parseAndSaveReminderAsync(chatId, text)).thenReturn(CompletableFuture.completedFuture(false));
 
         // Act
         telegramBotService.processMesage(chatId, text);
@@ -126,41 +158,125 @@ public class TelegramBotServiceTest {
     }
 
     @Test
-    void testScheduleCheckAndSendReminders_WithReminders() {
+    void testProcessMesage_RepliesAfterWriteIsCommitted() {
         // Arrange
         Long chatId = 123456789L;
-        LocalDateTime now = LocalDateTime.now().truncatedTo(java.time.temporal.ChronoUnit.MINUTES);
+        String text = "01.01.2025 12:00 Тестовое напоминание";
+        CompletableFuture<Boolean> saved = new CompletableFuture<>();
 
-        Reminder reminder = new Reminder(chatId, "Тестовое напоминание", now);
-        when(reminderService.getRemindersToSend(now)).thenReturn(List.of(reminder));
+        when(reminderService.parseAndSaveReminderAsync(chatId, text)).thenReturn(saved);
+        when(chatLanes.submit(eq(chatId), any())).thenAnswer(invocation -> {
+            invocation.<Runnable>getArgument(1).run();
+            return CompletableFuture.completedFuture(null);
+        });
 
         // Act
-        telegramBotService.scheduleCheckAndSendReminders();
+        telegramBotService.processMesage(chatId, text);
+        verify(telegramBot, never()).execute(any(SendMessage.class));
+        saved.complete(true);
 
         // Assert
-        verify(reminderService, times(1)).getRemindersToSend(now);
-        verify(reminderService, times(1)).markAsSent(List.of(reminder));
-
         ArgumentCaptor<SendMessage> captor = ArgumentCaptor.forClass(SendMessage.class);
         verify(telegramBot, times(1)).execute(captor.capture());
+        assertTrue(captor.getValue().getParameters().get("text").toString().contains("Напоминание успешно создано"));
+    }
 
-        SendMessage sendMessage = captor.getValue();
-        assertTrue(sendMessage.getParameters().get("text").toString().contains("Тестовое напоминание"));
+    @Test
+    void testProcessUpdate_ReminderTimerStopsAfterReplyToCommittedWrite() {
+        // Arrange
+        Long chatId = 123456789L;
+        String text = "01.01.2025 12:00 Тестовое напоминание";
+        CompletableFuture<Boolean> saved = new CompletableFuture<>();
+        when(reminderService.parseAndSaveReminderAsync(chatId, text)).thenReturn(saved);
+        when(chatLanes.submit(eq(chatId), any())).thenAnswer(invocation -> {
+            invocation.<Runnable>getArgument(1).run();
+            return CompletableFuture.completedFuture(null);
+        });
+
+        // Act
+        telegramBotService.processUpdate(update(1, chatId, text));
+        verify(metrics, never()).recordUpdate(anyString(), anyLong());
+        saved.complete(true);
+
+        // Assert
+        verify(metrics, times(1)).recordUpdate(eq("reminder"), anyLong());
+        verify(telegramBot, times(1)).execute(any(SendMessage.class));
     }
 
     @Test
-    void testScheduleCheckAndSendReminders_NoReminders() {
+    void testProcessMesage_MyTasksWaitsForPendingWriteAndConfirmsItFirst() {
         // Arrange
-        LocalDateTime now = LocalDateTime.now().truncatedTo(java.time.temporal.ChronoUnit.MINUTES);
-        when(reminderService.getRemindersToSend(now)).thenReturn(List.of());
+        Long chatId = 123456789L;
+        String text = "01.01.2030 12:00 Только что созданное";
+        CompletableFuture<Boolean> saved = new CompletableFuture<>();
+        ReminderView view = new ReminderView(LocalDateTime.of(2030, 1, 1, 12, 0).atZone(ZONE).toInstant(),
+                "Только что созданное");
+        when(reminderService.parseAndSaveReminderAsync(chatId, text)).thenReturn(saved);
+        when(reminderService.getUserReminders(chatId, 0)).thenAnswer(invocation -> {
+            assertTrue(saved.isDone(), "Список прочитан до фиксации записи");
+            return new SliceImpl<>(List.of(view));
+        });
+        when(chatSettings.zoneOf(chatId)).thenReturn(ZONE);
 
         // Act
-        telegramBotService.scheduleCheckAndSendReminders();
+        telegramBotService.processMesage(chatId, text);
+        CompletableFuture.runAsync(() -> saved.complete(true),
+                CompletableFuture.delayedExecutor(50, TimeUnit.MILLISECONDS));
+        telegramBotService.processMesage(chatId, "/my_tasks");
 
         // Assert
-        verify(reminderService, times(1)).getRemindersToSend(now);
-        verify(reminderService, never()).markAsSent(any());
+        ArgumentCaptor<SendMessage> captor = ArgumentCaptor.forClass(SendMessage.class);
+        verify(telegramBot, times(2)).execute(captor.capture());
+        assertTrue(captor.getAllValues().get(0).getParameters().get("text").toString()
+                .contains("Напоминание успешно создано"));
+        assertTrue(captor.getAllValues().get(1).getParameters().get("text").toString()
+                .contains("Только что созданное"));
+    }
+
+    @Test
+    void testProcessMesage_RepliesInMessageOrderWhenWritesCommitOutOfOrder() {
+        // Arrange
+        Long chatId = 123456789L;
+        CompletableFuture<Boolean> first = new CompletableFuture<>();
+        CompletableFuture<Boolean> second = new CompletableFuture<>();
+        when(reminderService.parseAndSaveReminderAsync(chatId, "первое")).thenReturn(first);
+        when(reminderService.parseAndSaveReminderAsync(chatId, "второе")).thenReturn(second);
+        when(chatLanes.submit(eq(chatId), any())).thenAnswer(invocation -> {
+            invocation.<Runnable>getArgument(1).run();
+            return CompletableFuture.completedFuture(null);
+        });
+
+        // Act
+        telegramBotService.processMesage(chatId, "первое");
+        telegramBotService.processMesage(chatId, "второе");
+        second.complete(true);
         verify(telegramBot, never()).execute(any(SendMessage.class));
+        first.complete(false);
+
+        // Assert
+        ArgumentCaptor<SendMessage> captor = ArgumentCaptor.forClass(SendMessage.class);
+        verify(telegramBot, times(2)).execute(captor.capture());
+        assertTrue(captor.getAllValues().get(0).getParameters().get("text").toString().contains("Неверный формат"));
+        assertTrue(captor.getAllValues().get(1).getParameters().get("text").toString()
+                .contains("Напоминание успешно создано"));
+    }
+
+    @Test
+    void testProcessMesage_WriteFailed() {
+        // Arrange
+        Long chatId = 123456789L;
+        String text = "01.01.2025 12:00 Тестовое напоминание";
+
+        when(reminderService.parseAndSaveReminderAsync(chatId, text))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("БД недоступна")));
+
+        // Act
+        telegramBotService.processMesage(chatId, text);
+
+        // Assert
+        ArgumentCaptor<SendMessage> captor = ArgumentCaptor.forClass(SendMessage.class);
+        verify(telegramBot, times(1)).execute(captor.capture());
+        assertTrue(captor.getValue().getParameters().get("text").toString().contains("Не удалось сохранить напоминание"));
     }
 
     @Test
@@ -203,10 +319,11 @@ public class TelegramBotServiceTest {
         LocalDateTime dateTime1 = LocalDateTime.of(2025, 1, 1, 12, 0);
         LocalDateTime dateTime2 = LocalDateTime.of(2025, 1, 2, 14, 30);
 
-        Reminder reminder1 = new Reminder(chatId, "Первое напоминание", dateTime1);
-        Reminder reminder2 = new Reminder(chatId, "Второе напоминание", dateTime2);
+        ReminderView reminder1 = new ReminderView(dateTime1.atZone(ZONE).toInstant(), "Первое напоминание");
+        ReminderView reminder2 = new ReminderView(dateTime2.atZone(ZONE).toInstant(), "Второе напоминание");
 
-        when(reminderService.getUserReminders(chatId)).thenReturn(List.of(reminder1, reminder2));
+        when(reminderService.getUserReminders(chatId, 0)).thenReturn(new SliceImpl<>(List.of(reminder1, reminder2)));
+        when(chatSettings.zoneOf(chatId)).thenReturn(ZONE);
 
         // Act
         telegramBotService.showUserReminders(chatId);
@@ -230,13 +347,13 @@ public class TelegramBotServiceTest {
         Long chatId = 123456789L;
         String text = "/unknown_command";
 
-        when(reminderService.parseAndSaveReminder(chatId, text)).thenReturn(false);
+        when(reminderService.parseAndSaveReminderAsync(chatId, text)).thenReturn(CompletableFuture.completedFuture(false));
 
         // Act
         telegramBotService.processMesage(chatId, text);
 
         // Assert - должно обрабатываться как напоминание
-        verify(reminderService, times(1)).parseAndSaveReminder(chatId, text);
+        verify(reminderService, times(1)).parseAndSaveReminderAsync(chatId, text);
     }
 
     @Test
@@ -245,11 +362,13 @@ public class TelegramBotServiceTest {
         Long chatId = 123456789L;
         String text = "";
 
+        when(reminderService.parseAndSaveReminderAsync(chatId, text)).thenReturn(CompletableFuture.completedFuture(false));
+
         // Act
         telegramBotService.processMesage(chatId, text);
 
         // Assert - должно обрабатываться как напоминание
-        verify(reminderService, times(1)).parseAndSaveReminder(chatId, text);
+        verify(reminderService, times(1)).parseAndSaveReminderAsync(chatId, text);
     }
 
     @Test
@@ -258,34 +377,235 @@ public class TelegramBotServiceTest {
         Long chatId = 123456789L;
         String text = "   ";
 
+        when(reminderService.parseAndSaveReminderAsync(chatId, text)).thenReturn(CompletableFuture.completedFuture(false));
+
         // Act
         telegramBotService.processMesage(chatId, text);
 
         // Assert - должно обрабатываться как напоминание
-        verify(reminderService, times(1)).parseAndSaveReminder(chatId, text);
+        verify(reminderService, times(1)).parseAndSaveReminderAsync(chatId, text);
+    }
+
+    @Test
+    void testInit_MethodExists() {
+        // Просто проверяем, что метод init существует и может быть вызван
+        assertDoesNotThrow(() -> telegramBotService.init());
+    }
+
+    @Test
+    void testRegisterWebhook_SendsSecretTokenAndAcceptsOnlyIt() {
+        // Arrange
+        ReflectionTestUtils.setField(telegramBotService, "mode", UpdateMode.WEBHOOK);
+        ReflectionTestUtils.setField(telegramBotService, "webhookUrl", "https://bot.example.com");
+        ReflectionTestUtils.setField(telegramBotService, "webhookPath", "/webhook");
+        ReflectionTestUtils.setField(telegramBotService, "webhookSecret", "s3cr3t");
+        ArgumentCaptor<SetWebhook> request = ArgumentCaptor.forClass(SetWebhook.class);
+
+        // Act
+        telegramBotService.init();
+        telegramBotService.registerWebhook();
+
+        // Assert
+        verify(telegramBot, never()).setUpdatesListener(any());
+        verify(telegramBot).execute(request.capture(), any());
+        assertEquals("https://bot.example.com/webhook", request.getValue().getParameters().get("url"));
+        assertEquals("s3cr3t", request.getValue().getParameters().get("secret_token"));
+        assertTrue(telegramBotService.isWebhookSecretValid("s3cr3t"));
+        assertFalse(telegramBotService.isWebhookSecretValid("forged"));
+        assertFalse(telegramBotService.isWebhookSecretValid(null));
+    }
+
+    @Test
+    void testInit_WebhookWithoutSecret_GeneratesRandomSecret() {
+        // Arrange
+        ReflectionTestUtils.setField(telegramBotService, "mode", UpdateMode.WEBHOOK);
+
+        // Act
+        telegramBotService.init();
+
+        // Assert
+        String secret = (String) ReflectionTestUtils.getField(telegramBotService, "webhookSecret");
+        assertNotNull(secret);
+        assertTrue(secret.matches("[A-Za-z0-9_-]{32,}"));
+        assertFalse(telegramBotService.isWebhookSecretValid(""));
+    }
+
+    @Test
+    void testSubmitUpdate_QueuesUpdate() {
+        // Arrange
+        Update update = update(1, 123456789L, "/start");
+        when(chatLanes.submit(eq(123456789L), any())).thenReturn(CompletableFuture.completedFuture(null));
+
+        // Act
+        boolean accepted = telegramBotService.submitUpdate(update);
+
+        // Assert
+        assertTrue(accepted);
+        verify(chatLanes, times(1)).submit(eq(123456789L), any());
     }
 
     @Test
-    void testScheduleCheckAndSendReminders_MultipleReminders() {
+    void testSubmitUpdate_RejectedWhenQueueIsFull() {
         // Arrange
-        LocalDateTime now = LocalDateTime.now().truncatedTo(java.time.temporal.ChronoUnit.MINUTES);
+        Update update = update(1, 123456789L, "/start");
+        when(chatLanes.submit(any(), any())).thenThrow(new RejectedExecutionException());
 
-        Reminder reminder1 = new Reminder(1L, "Напоминание 1", now);
-        Reminder reminder2 = new Reminder(2L, "Напоминание 2", now);
+        // Act
+        boolean accepted = telegramBotService.submitUpdate(update);
+
+        // Assert
+        assertFalse(accepted);
+    }
 
-        when(reminderService.getRemindersToSend(now)).thenReturn(List.of(reminder1, reminder2));
+    @Test
+    void testProcessUpdates_ConfirmsAllWhenEveryUpdateProcessed() {
+        // Arrange
+        runLanesInline();
 
         // Act
-        telegramBotService.scheduleCheckAndSendReminders();
+        int confirmed = telegramBotService.processUpdates(List.of(update(1, 1L, "/start"), update(2, 2L, "/start")));
 
         // Assert
+        assertEquals(UpdatesListener.CONFIRMED_UPDATES_ALL, confirmed);
         verify(telegramBot, times(2)).execute(any(SendMessage.class));
-        verify(reminderService, times(1)).markAsSent(List.of(reminder1, reminder2));
     }
 
     @Test
-    void testInit_MethodExists() {
-        // Просто проверяем, что метод init существует и может быть вызван
-        assertDoesNotThrow(() -> telegramBotService.init());
+    void testProcessUpdates_ConfirmsReminderOnlyAfterWriteIsCommitted() throws Exception {
+        // Arrange
+        String text = "01.01.2025 12:00 Тестовое напоминание";
+        CompletableFuture<Boolean> saved = new CompletableFuture<>();
+        when(reminderService.parseAndSaveReminderAsync(1L, text)).thenReturn(saved);
+        runLanesInline();
+
+        // Act
+        CompletableFuture<Integer> confirmed = CompletableFuture.supplyAsync(() ->
+                telegramBotService.processUpdates(List.of(update(1, 1L, text))));
+        Thread.sleep(200);
+        boolean confirmedBeforeCommit = confirmed.isDone();
+        saved.complete(true);
+
+        // Assert
+        assertFalse(confirmedBeforeCommit);
+        assertEquals(UpdatesListener.CONFIRMED_UPDATES_ALL, confirmed.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testProcessUpdates_ConfirmsOnlySubmittedPrefixWhenLaneIsFull() {
+        // Arrange
+        when(chatLanes.submit(eq(1L), any())).thenReturn(CompletableFuture.completedFuture(null));
+        when(chatLanes.submit(eq(2L), any())).thenThrow(new RejectedExecutionException());
+
+        // Act
+        int confirmed = telegramBotService.processUpdates(List.of(
+                update(10, 1L, "/start"), update(11, 2L, "/start"), update(12, 1L, "/start")));
+
+        // Assert
+        assertEquals(10, confirmed);
+        verify(chatLanes, times(2)).submit(any(), any());
+    }
+
+    @Test
+    void testShowUserReminders_AddsNextButtonWhenMorePagesExist() {
+        // Arrange
+        Long chatId = 123456789L;
+        ReminderView reminder = new ReminderView(LocalDateTime.of(2030, 1, 1, 12, 0).atZone(ZONE).toInstant(), "Напоминание");
+        when(reminderService.getUserReminders(chatId, 0))
+                .thenReturn(new SliceImpl<>(List.of(reminder), PageRequest.of(0, 1), true));
+        when(chatSettings.zoneOf(chatId)).thenReturn(ZONE);
+
+        // Act
+        telegramBotService.showUserReminders(chatId);
+
+        // Assert
+        ArgumentCaptor<SendMessage> captor = ArgumentCaptor.forClass(SendMessage.class);
+        verify(telegramBot, times(1)).execute(captor.capture());
+        InlineKeyboardMarkup keyboard = (InlineKeyboardMarkup) captor.getValue().getParameters().get("reply_markup");
+        assertEquals("tasks:1", keyboard.inlineKeyboard()[0][0].callbackData());
+    }
+
+    @Test
+    void testProcessUpdate_PagingCallbackEditsTaskList() {
+        // Arrange
+        Long chatId = 123456789L;
+        ReminderView reminder = new ReminderView(LocalDateTime.of(2030, 1, 1, 12, 0).atZone(ZONE).toInstant(), "Вторая страница");
+        when(reminderService.getUserReminders(chatId, 1))
+                .thenReturn(new SliceImpl<>(List.of(reminder), PageRequest.of(1, 1), false));
+        when(chatSettings.zoneOf(chatId)).thenReturn(ZONE);
+        Update update = BotUtils.parseUpdate("{\"update_id\":1,\"callback_query\":{\"id\":\"cb-1\"," +
+                "\"from\":{\"id\":1,\"is_bot\":false,\"first_name\":\"Тест\"},\"chat_instance\":\"1\"," +
+                "\"data\":\"tasks:1\",\"message\":{\"message_id\":7,\"date\":0," +
+                "\"chat\":{\"id\":" + chatId + ",\"type\":\"private\"}}}}");
+
+        // Act
+        telegramBotService.processUpdate(update);
+
+        // Assert
+        ArgumentCaptor<BaseRequest> captor = ArgumentCaptor.forClass(BaseRequest.class);
+        verify(telegramBot, times(2)).execute(captor.capture());
+        EditMessageText edit = (EditMessageText) captor.getAllValues().get(0);
+        assertEquals(7, edit.getParameters().get("message_id"));
+        assertTrue(edit.getParameters().get("text").toString().contains("Вторая страница"));
+        assertInstanceOf(AnswerCallbackQuery.class, captor.getAllValues().get(1));
+    }
+
+    @Test
+    void testProcessMesage_TimezoneCommand_SetsZone() {
+        // Arrange
+        Long chatId = 123456789L;
+        when(chatSettings.setZone(chatId, "Asia/Yekaterinburg")).thenReturn(ZoneId.of("Asia/Yekaterinburg"));
+
+        // Act
+        telegramBotService.processMesage(chatId, "/timezone Asia/Yekaterinburg");
+
+        // Assert
+        ArgumentCaptor<SendMessage> captor = ArgumentCaptor.forClass(SendMessage.class);
+        verify(telegramBot, times(1)).execute(captor.capture());
+        assertTrue(captor.getValue().getParameters().get("text").toString().contains("Asia/Yekaterinburg"));
+    }
+
+    @Test
+    void testProcessMesage_TimezoneCommand_UnknownZone() {
+        // Arrange
+        Long chatId = 123456789L;
+        when(chatSettings.setZone(chatId, "Mars/Olympus")).thenThrow(new ZoneRulesException("Unknown"));
+
+        // Act
+        telegramBotService.processMesage(chatId, "/timezone Mars/Olympus");
+
+        // Assert
+        ArgumentCaptor<SendMessage> captor = ArgumentCaptor.forClass(SendMessage.class);
+        verify(telegramBot, times(1)).execute(captor.capture());
+        assertTrue(captor.getValue().getParameters().get("text").toString().contains("Неизвестный часовой пояс"));
+        verify(reminderService, never()).parseAndSaveReminderAsync(any(), any());
+    }
+
+    @Test
+    void testShowUserReminders_FormatsInChatZone() {
+        // Arrange
+        Long chatId = 123456789L;
+        ReminderView reminder = new ReminderView(Instant.parse("2030-01-01T09:00:00Z"), "Созвон");
+        when(reminderService.getUserReminders(chatId, 0)).thenReturn(new SliceImpl<>(List.of(reminder)));
+        when(chatSettings.zoneOf(chatId)).thenReturn(ZoneId.of("Asia/Yekaterinburg"));
+
+        // Act
+        telegramBotService.showUserReminders(chatId);
+
+        // Assert
+        ArgumentCaptor<SendMessage> captor = ArgumentCaptor.forClass(SendMessage.class);
+        verify(telegramBot, times(1)).execute(captor.capture());
+        assertTrue(captor.getValue().getParameters().get("text").toString().contains("01.01.2030 14:00: Созвон"));
+    }
+
+    private void runLanesInline() {
+        when(chatLanes.submit(any(), any())).thenAnswer(invocation -> {
+            ((Runnable) invocation.getArgument(1)).run();
+            return CompletableFuture.completedFuture(null);
+        });
+    }
+
+    private static Update update(int updateId, Long chatId, String text) {
+        return BotUtils.parseUpdate("{\"update_id\":" + updateId + ",\"message\":{\"message_id\":" + updateId +
+                ",\"date\":0,\"chat\":{\"id\":" + chatId + ",\"type\":\"private\"},\"text\":\"" + text + "\"}}");
     }
 }
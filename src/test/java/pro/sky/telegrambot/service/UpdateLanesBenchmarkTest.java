@@ -0,0 +1,69 @@
+package pro.sky.telegrambot.service;
+
+import com.pengrad.telegrambot.BotUtils;
+import com.pengrad.telegrambot.TelegramBot;
+import com.pengrad.telegrambot.model.Update;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Пачка из 100 обновлений от 100 чатов: последовательная обработка против полос по чатам.
+ * Каждое обновление имитирует медленную запись в БД. Тест не только печатает пропускную способность,
+ * но и проверяет, что 32 полосы заметно быстрее одной: иначе параллельность по чатам ничего не даёт.
+ * Запуск: {@code ./mvnw test -Pbenchmark -Dtest=UpdateLanesBenchmarkTest}
+ */
+@Tag("benchmark")
+public class UpdateLanesBenchmarkTest {
+
+    private static final int UPDATES = 100;
+    private static final long DB_LATENCY_MS = 20;
+
+    @Test
+    void benchmarkSequentialVsLanes() {
+        List<Update> batch = new ArrayList<>(UPDATES);
+        for (int i = 1; i <= UPDATES; i++) {
+            batch.add(BotUtils.parseUpdate("{\"update_id\":" + i + ",\"message\":{\"message_id\":" + i +
+                    ",\"date\":0,\"chat\":{\"id\":" + i + ",\"type\":\"private\"},\"text\":\"01.01.2030 10:00 Тест\"}}"));
+        }
+        TelegramBot telegramBot = mock(TelegramBot.class);
+        ReminderService reminderService = mock(ReminderService.class);
+        when(reminderService.parseAndSaveReminderAsync(anyLong(), anyString())).thenAnswer(invocation -> {
+            Thread.sleep(DB_LATENCY_MS);
+            return CompletableFuture.completedFuture(true);
+        });
+
+        Map<Integer, Double> millisByLanes = new HashMap<>();
+        for (int lanes : new int[]{1, 8, 32}) {
+            ChatLaneExecutor executor = new ChatLaneExecutor(lanes, UPDATES);
+            TelegramBotService service = new TelegramBotService(telegramBot, reminderService, executor,
+                    mock(ChatSettingsService.class), new BotMetrics(new SimpleMeterRegistry()));
+            try {
+                long start = System.nanoTime();
+                service.processUpdates(batch);
+                double millis = (System.nanoTime() - start) / 1e6;
+                System.out.printf("Полос: %d, %d обновлений за %.0f мс (%.0f upd/s)%n",
+                        lanes, UPDATES, millis, UPDATES * 1000 / millis);
+                millisByLanes.put(lanes, millis);
+            } finally {
+                executor.shutdown();
+            }
+        }
+        // одна полоса упирается в UPDATES * DB_LATENCY_MS, 32 полосы - примерно в 4 записи подряд
+        assertTrue(millisByLanes.get(1) >= UPDATES * DB_LATENCY_MS);
+        assertTrue(millisByLanes.get(32) * 4 < millisByLanes.get(1),
+                "32 полосы не дали ускорения: " + millisByLanes);
+    }
+}
@@ -0,0 +1,77 @@
+package pro.sky.telegrambot.service;
+
+import com.pengrad.telegrambot.TelegramBot;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.OkHttpClient;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import pro.sky.telegrambot.StubTelegramApi;
+import pro.sky.telegrambot.configuration.VirtualThreads;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Всплеск отправок через MessageSender на обычных и виртуальных потоках диспетчера OkHttp
+ * против локальной заглушки Bot API с задержкой ответа. Нужен JDK 21+.
+ * Запуск: {@code ./mvnw test -Pbenchmark -Dtest=VirtualThreadsBenchmarkTest}
+ */
+@Tag("benchmark")
+public class VirtualThreadsBenchmarkTest {
+
+    private static final int MESSAGES = 5_000;
+    private static final long API_LATENCY_MS = 200;
+
+    @Test
+    void benchmarkPlatformVsVirtualThreads() throws Exception {
+        assumeTrue(VirtualThreads.isSupported(), "Нужен JDK 21+");
+
+        // заглушка на виртуальных потоках, чтобы узким местом была сторона бота, а не сервер
+        try (StubTelegramApi stub = new StubTelegramApi(API_LATENCY_MS, VirtualThreads.newThreadPerTaskExecutor("stub-"))) {
+            burst("обычные потоки", stub, Executors.newCachedThreadPool());
+            burst("виртуальные потоки", stub, VirtualThreads.newThreadPerTaskExecutor("telegram-api-"));
+            assertEquals(2 * MESSAGES, stub.requestCount());
+        }
+    }
+
+    private static void burst(String name, StubTelegramApi stub, ExecutorService executor) throws Exception {
+        Dispatcher dispatcher = new Dispatcher(executor);
+        dispatcher.setMaxRequests(MESSAGES);
+        dispatcher.setMaxRequestsPerHost(MESSAGES);
+        OkHttpClient client = new OkHttpClient.Builder()
+                .dispatcher(dispatcher)
+                .connectionPool(new ConnectionPool(MESSAGES, 1, TimeUnit.MINUTES))
+                .build();
+        TelegramBot bot = new TelegramBot.Builder("123456:benchmark").apiUrl(stub.apiUrl()).okHttpClient(client).build();
+        // лимиты Telegram подняты, чтобы измерить сами потоки
+        MessageSender sender = new MessageSender(bot, new BotMetrics(new SimpleMeterRegistry()), MESSAGES, MESSAGES,
+                1_000_000, 1_000, 0);
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        sender.start();
+        try {
+            threads.resetPeakThreadCount();
+            long start = System.nanoTime();
+            CompletableFuture<?>[] sends = new CompletableFuture<?>[MESSAGES];
+            for (int i = 0; i < MESSAGES; i++) {
+                sends[i] = sender.submit((long) i + 1, "Напоминание");
+            }
+            CompletableFuture.allOf(sends).get(5, TimeUnit.MINUTES);
+            double seconds = (System.nanoTime() - start) / 1e9;
+            System.out.printf("%s: %d сообщений за %.2f с (%.0f msg/s), пик потоков ОС %d%n",
+                    name, MESSAGES, seconds, MESSAGES / seconds, threads.getPeakThreadCount());
+        } finally {
+            sender.stop();
+            client.connectionPool().evictAll();
+            executor.shutdown();
+        }
+    }
+}